@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Compares the per-row cost of {@link BeanPropertyRowMapper} with the positional {@link JdbcOwnerRowMapper}. The
+ * owners are read once from an embedded H2 database into a {@link CachedRowSet}, so the measurement covers the
+ * mapping only and not the driver. A {@link BeanPropertyRowMapper} is measured both shared and created per page of
+ * ten rows, as code calling {@link BeanPropertyRowMapper#newInstance} inline pays its introspection on every query.
+ * <p>
+ * The parameter cases compare filling a {@link MapSqlParameterSource} for an insert with the {@link JdbcParameterBinder}
+ * the repositories use; both read every column once, as the insert does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final String[] OWNER_COLUMNS =
+        {"id", "first_name", "last_name", "address", "city", "telephone", "last_modified"};
+
+    private static final JdbcParameterBinder<Owner> OWNER_BINDER = JdbcParameterBinder.<Owner>builder()
+        .column("id", Owner::getId)
+        .column("first_name", Owner::getFirstName)
+        .column("last_name", Owner::getLastName)
+        .column("address", Owner::getAddress)
+        .column("city", Owner::getCity)
+        .column("telephone", Owner::getTelephone)
+        .column("last_modified", Owner::getLastModified)
+        .build();
+
+    private EmbeddedDatabase database;
+
+    private CachedRowSet owners;
+
+    private final RowMapper<Owner> beanPropertyRowMapper = BeanPropertyRowMapper.newInstance(Owner.class);
+
+    private final RowMapper<Owner> ownerRowMapper = new JdbcOwnerRowMapper();
+
+    private Owner owner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        this.database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        try (Connection connection = this.database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE owners (id INTEGER PRIMARY KEY, first_name VARCHAR(30), " +
+                "last_name VARCHAR(30), address VARCHAR(255), city VARCHAR(80), telephone VARCHAR(20))");
+            for (int id = 1; id <= ROWS; id++) {
+                statement.execute("INSERT INTO owners VALUES (" + id + ", 'George', 'Franklin', " +
+                    "'110 W. Liberty St.', 'Madison', '6085551023')");
+            }
+            this.owners = RowSetProvider.newFactory().createCachedRowSet();
+            try (ResultSet rs = statement.executeQuery("SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners")) {
+                this.owners.populate(rs);
+            }
+        }
+        this.owners.first();
+        this.owner = this.ownerRowMapper.mapRow(this.owners, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    private void mapAll(RowMapper<Owner> rowMapper, Blackhole blackhole) throws SQLException {
+        this.owners.beforeFirst();
+        int row = 0;
+        while (this.owners.next()) {
+            blackhole.consume(rowMapper.mapRow(this.owners, row++));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void beanPropertyRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(this.beanPropertyRowMapper, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void beanPropertyRowMapperPerQuery(Blackhole blackhole) throws SQLException {
+        this.owners.beforeFirst();
+        RowMapper<Owner> rowMapper = null;
+        int row = 0;
+        while (this.owners.next()) {
+            if (row % PAGE_SIZE == 0) {
+                rowMapper = BeanPropertyRowMapper.newInstance(Owner.class);
+            }
+            blackhole.consume(rowMapper.mapRow(this.owners, row++));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void ownerRowMapper(Blackhole blackhole) throws SQLException {
+        mapAll(this.ownerRowMapper, blackhole);
+    }
+
+    private static void readAll(SqlParameterSource parameterSource, Blackhole blackhole) {
+        for (String column : OWNER_COLUMNS) {
+            blackhole.consume(parameterSource.getValue(column));
+        }
+    }
+
+    @Benchmark
+    public void mapSqlParameterSource(Blackhole blackhole) {
+        readAll(new MapSqlParameterSource()
+            .addValue("id", this.owner.getId())
+            .addValue("first_name", this.owner.getFirstName())
+            .addValue("last_name", this.owner.getLastName())
+            .addValue("address", this.owner.getAddress())
+            .addValue("city", this.owner.getCity())
+            .addValue("telephone", this.owner.getTelephone())
+            .addValue("last_modified", this.owner.getLastModified()), blackhole);
+    }
+
+    @Benchmark
+    public void parameterBinder(Blackhole blackhole) {
+        readAll(OWNER_BINDER.bind(this.owner), blackhole);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.samples.petclinic.util.OwnerNameIndex;
+
+/**
+ * Generates a reproducible benchmark data set on top of the sample data loaded by <code>data.sql</code>: every
+ * generated owner gets {@value #PETS_PER_OWNER} pets and every generated pet {@value #VISITS_PER_PET} visits.
+ * Rows are written with JDBC batch inserts so that the data set does not depend on the repository layer under test.
+ */
+class ClinicDataSet {
+
+    static final int PETS_PER_OWNER = 2;
+
+    static final int VISITS_PER_PET = 2;
+
+    static final int LAST_NAMES = 1000;
+
+    private static final int BATCH_SIZE = 5000;
+
+    private static final String[] CITIES = {"Madison", "Sun Prairie", "McFarland", "Windsor", "Monona", "Waunakee"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    ClinicDataSet(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the given number of owners, with their pets and visits.
+     */
+    void generate(int owners) {
+        int firstOwnerId = maxId("owners") + 1;
+        int petTypes = count("types");
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < owners; i++) {
+            batch.add(new Object[]{"First" + i, lastName(i), i + " Main St.", CITIES[i % CITIES.length],
+                String.format("608%07d", i % 10_000_000)});
+            flushIfFull(batch, "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?)");
+        }
+        flush(batch, "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?)");
+
+        int firstPetId = maxId("pets") + 1;
+        for (int i = 0; i < owners * PETS_PER_OWNER; i++) {
+            batch.add(new Object[]{"Pet" + i, Date.valueOf(LocalDate.of(2010, 1, 1).plusDays(this.random.nextInt(5000))),
+                this.random.nextInt(1, petTypes + 1), firstOwnerId + i / PETS_PER_OWNER});
+            flushIfFull(batch, "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)");
+        }
+        flush(batch, "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)");
+
+        for (int i = 0; i < owners * PETS_PER_OWNER * VISITS_PER_PET; i++) {
+            batch.add(new Object[]{firstPetId + i / VISITS_PER_PET,
+                Date.valueOf(LocalDate.of(2015, 1, 1).plusDays(this.random.nextInt(3000))), "visit " + i});
+            flushIfFull(batch, "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)");
+        }
+        flush(batch, "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)");
+    }
+
+    /**
+     * Add the owners missing from the given owner name index, such as the generated ones, to it.
+     */
+    void index(OwnerNameIndex ownerNameIndex) {
+        this.jdbcTemplate.query("SELECT id, last_name FROM owners",
+            (RowCallbackHandler) rs -> ownerNameIndex.load(rs.getInt(1), rs.getString(2)));
+    }
+
+    static String lastName(int index) {
+        return "Owner" + (index % LAST_NAMES);
+    }
+
+    int maxId(String table) {
+        Integer max = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+        return max == null ? 0 : max;
+    }
+
+    private int count(String table) {
+        Integer count = this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private void flushIfFull(List<Object[]> batch, String sql) {
+        if (batch.size() == BATCH_SIZE) {
+            flush(batch, sql);
+        }
+    }
+
+    private void flush(List<Object[]> batch, String sql) {
+        if (!batch.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.OwnerNameIndex;
+
+/**
+ * Benchmarks the {@link ClinicService} read and write paths for every combination of database, repository layer and
+ * data set size. Each trial boots the application against a fresh in-memory database, so the results of the
+ * <code>jdbc</code>, <code>jpa</code> and <code>spring-data-jpa</code> layers can be compared on the same data.
+ * <p>
+ * The full matrix is long to run; narrow it down with JMH parameters, for example
+ * <code>-Djmh.args="ClinicServiceBenchmark -p owners=1000 -p repository=jdbc"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ClinicServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"h2", "hsqldb"})
+    private String database;
+
+    @Param({"jdbc", "jpa", "spring-data-jpa"})
+    private String repository;
+
+    @Param({"1000", "100000", "1000000"})
+    private int owners;
+
+    private ConfigurableApplicationContext context;
+
+    private ClinicService clinicService;
+
+    private int maxOwnerId;
+
+    private int maxPetId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = this.database.equals("h2")
+            ? "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"
+            : "jdbc:hsqldb:mem:" + UUID.randomUUID();
+        // passed as command line arguments so that they override application.properties and the profile files
+        this.context = new SpringApplicationBuilder(PetClinicApplication.class).run(
+            "--spring.profiles.active=" + this.database + "," + this.repository,
+            "--spring.datasource.url=" + url,
+            "--spring.sql.init.platform=" + this.database,
+            "--spring.jpa.show-sql=false",
+            "--spring.h2.console.enabled=false",
+            "--spring.jmx.enabled=false",
+            "--server.port=0",
+            "--petclinic.security.enable=false",
+            "--logging.level.root=WARN");
+        JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        ClinicDataSet dataSet = new ClinicDataSet(jdbcTemplate);
+        dataSet.generate(this.owners);
+        this.maxOwnerId = dataSet.maxId("owners");
+        this.maxPetId = dataSet.maxId("pets");
+        this.clinicService = this.context.getBean(ClinicService.class);
+        // the owner name index and the visit statistics are filled once the application is ready, before the rows
+        // generated above exist
+        this.context.getBeanProvider(OwnerNameIndex.class).ifAvailable(dataSet::index);
+        this.clinicService.rebuildVisitStats();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    private int randomOwnerId() {
+        return ThreadLocalRandom.current().nextInt(1, this.maxOwnerId + 1);
+    }
+
+    private int randomPetId() {
+        return ThreadLocalRandom.current().nextInt(1, this.maxPetId + 1);
+    }
+
+    @Benchmark
+    public Owner findOwnerById() {
+        return this.clinicService.findOwnerById(randomOwnerId());
+    }
+
+    @Benchmark
+    public Page<Owner> findOwnersPage() {
+        int page = ThreadLocalRandom.current().nextInt(this.maxOwnerId / PAGE_SIZE);
+        return this.clinicService.findOwners(null, PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Page<Owner> findOwnersByLastNamePage() {
+        String lastName = ClinicDataSet.lastName(ThreadLocalRandom.current().nextInt(ClinicDataSet.LAST_NAMES));
+        return this.clinicService.findOwners(lastName, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    @Benchmark
+    public Pet findPetById() {
+        return this.clinicService.findPetById(randomPetId());
+    }
+
+    @Benchmark
+    public Collection<Visit> findVisitsByPetId() {
+        return this.clinicService.findVisitsByPetId(randomPetId());
+    }
+
+    @Benchmark
+    public Collection<Vet> findVets() {
+        return this.clinicService.findVets();
+    }
+
+    @Benchmark
+    public Collection<PetType> findPetTypes() {
+        return this.clinicService.findPetTypes();
+    }
+
+    @Benchmark
+    public Visit saveVisit() {
+        Pet pet = new Pet();
+        pet.setId(randomPetId());
+        Visit visit = new Visit();
+        visit.setPet(pet);
+        visit.setDate(LocalDate.now());
+        visit.setDescription("benchmark");
+        this.clinicService.saveVisit(visit);
+        return visit;
+    }
+
+    @Benchmark
+    public Owner updateOwner() {
+        Owner owner = this.clinicService.findOwnerById(randomOwnerId());
+        owner.setTelephone(String.format("608%07d", ThreadLocalRandom.current().nextInt(10_000_000)));
+        this.clinicService.saveOwner(owner);
+        return owner;
+    }
+
+}
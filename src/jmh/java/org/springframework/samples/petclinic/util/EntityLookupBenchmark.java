@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Compares the linear {@link EntityUtils#getById} scan with an {@link EntityIndex} lookup, and the cost of building
+ * the index, for growing numbers of entities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityLookupBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int entityCount;
+
+    private List<Owner> owners;
+
+    private EntityIndex<Owner> index;
+
+    private int[] ids;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.owners = new ArrayList<>(this.entityCount);
+        for (int id = 1; id <= this.entityCount; id++) {
+            Owner owner = new Owner();
+            owner.setId(id);
+            this.owners.add(owner);
+        }
+        this.index = EntityIndex.of(this.owners, Owner.class);
+        SplittableRandom random = new SplittableRandom(42);
+        this.ids = new int[1024];
+        for (int i = 0; i < this.ids.length; i++) {
+            this.ids[i] = random.nextInt(1, this.entityCount + 1);
+        }
+    }
+
+    private int nextId() {
+        this.next = (this.next + 1) & (this.ids.length - 1);
+        return this.ids[this.next];
+    }
+
+    @Benchmark
+    public Owner scan() {
+        return EntityUtils.getById(this.owners, Owner.class, nextId());
+    }
+
+    @Benchmark
+    public Owner indexed() {
+        return this.index.getById(nextId());
+    }
+
+    @Benchmark
+    public EntityIndex<Owner> buildIndex() {
+        return EntityIndex.of(this.owners, Owner.class);
+    }
+
+}
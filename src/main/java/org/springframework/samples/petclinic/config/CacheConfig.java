@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches the rarely-changing reference data (pet types, specialties and vets) served by the
+ * {@link org.springframework.samples.petclinic.service.ClinicService}. Caches are bounded Caffeine caches whose size
+ * and TTL come from <code>spring.cache.caffeine.spec</code>; hit/miss statistics are published as actuator
+ * <code>cache.*</code> metrics.
+ * <p>
+ * The cache manager is transaction-aware: values are only put into a cache once the reading transaction commits,
+ * so data from a rolled back transaction is never cached.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PET_TYPES = "petTypes";
+
+    public static final String SPECIALTIES = "specialties";
+
+    public static final String VETS = "vets";
+
+    @Bean
+    public CacheManager cacheManager(
+        @Value("${spring.cache.caffeine.spec:maximumSize=500,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PET_TYPES, SPECIALTIES, VETS);
+        cacheManager.setCacheSpecification(spec);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import jakarta.servlet.DispatcherType;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.util.ResponseCompressionFilter;
+
+/**
+ * Registers the {@link ResponseCompressionFilter} for the REST API, in place of the container's
+ * <code>server.compression</code> which publishes no statistics. Switched off with
+ * <code>petclinic.compression.enabled=false</code>; its savings are published on the actuator metrics endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.compression.enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public ResponseCompressionFilter responseCompressionFilter(
+        @Value("${petclinic.compression.min-response-size:2048}") int minResponseSize,
+        @Value("${petclinic.compression.level:-1}") int level) {
+        return new ResponseCompressionFilter(minResponseSize, level, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilterRegistration(
+        ResponseCompressionFilter responseCompressionFilter) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration =
+            new FilterRegistrationBean<>(responseCompressionFilter);
+        registration.addUrlPatterns("/api/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+}
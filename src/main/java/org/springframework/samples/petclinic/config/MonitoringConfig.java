@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.util.CallMonitoringAspect;
+
+/**
+ * Registers the {@link CallMonitoringAspect}. Its statistics are exported through JMX when
+ * <code>spring.jmx.enabled=true</code> and as Micrometer meters on the actuator metrics endpoint.
+ * Monitoring can be switched off at startup with <code>petclinic.monitoring.enabled=false</code>
+ * and toggled at runtime through the <code>petclinic:type=CallMonitor</code> MBean.
+ */
+@Configuration
+public class MonitoringConfig {
+
+    @Bean
+    public CallMonitoringAspect callMonitor(@Value("${petclinic.monitoring.enabled:true}") boolean enabled) {
+        CallMonitoringAspect callMonitor = new CallMonitoringAspect();
+        callMonitor.setEnabled(enabled);
+        return callMonitor;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.OwnerNameIndex;
+
+/**
+ * Provides the {@link OwnerNameIndex} used by the
+ * {@link org.springframework.samples.petclinic.service.ClinicService} for last name searches, and fills it from the
+ * <code>owners</code> table once the application has started. Owners are read in id order, in batches of
+ * <code>petclinic.owner-search.load-batch-size</code> summaries, so memory use does not grow with the table; searches
+ * fall back to SQL until the load has completed.
+ * <p>
+ * Each instance keeps its own index, maintained by the owner changes it makes itself. Deployments where several
+ * instances write owners must switch it off with <code>petclinic.owner-search.index.enabled=false</code>.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.owner-search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class OwnerSearchConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OwnerSearchConfig.class);
+
+    @Bean
+    public OwnerNameIndex ownerNameIndex() {
+        return new OwnerNameIndex();
+    }
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> ownerNameIndexLoader(
+        OwnerNameIndex ownerNameIndex,
+        OwnerRepository ownerRepository,
+        @Value("${petclinic.owner-search.load-batch-size:10000}") int batchSize) {
+        return event -> {
+            long start = System.nanoTime();
+            int lastId = 0;
+            List<OwnerSummary> owners;
+            do {
+                owners = ownerRepository.findSummariesByLastNameAfter("", lastId, batchSize);
+                for (OwnerSummary owner : owners) {
+                    ownerNameIndex.load(owner.getId(), owner.getLastName());
+                    lastId = owner.getId();
+                }
+            } while (owners.size() == batchSize);
+            ownerNameIndex.markLoaded();
+            logger.info("Indexed {} owner names in {} ms", ownerNameIndex.size(), (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Non-blocking database access for the reactive endpoints, enabled by the <code>reactive</code> profile. Connections
+ * are pooled from <code>petclinic.r2dbc.url</code> with the credentials of <code>spring.datasource.*</code>.
+ * <p>
+ * Only the {@link DatabaseClient} is a bean. Spring Boot backs off from configuring the JDBC {@link javax.sql.DataSource}
+ * as soon as an R2DBC <code>ConnectionFactory</code> bean exists, and the rest of the application keeps running on
+ * JDBC; for the same reason Spring Boot's own R2DBC auto-configuration is excluded in
+ * <code>application.properties</code>.
+ */
+@Configuration
+@Profile("reactive")
+public class R2dbcConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(
+        DataSourceProperties properties,
+        @Value("${petclinic.r2dbc.url}") String url,
+        @Value("${petclinic.r2dbc.pool-size:20}") int poolSize,
+        @Value("${petclinic.r2dbc.acquire-timeout:5s}") Duration acquireTimeout) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (properties.determineUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.determineUsername());
+        }
+        if (properties.determinePassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.determinePassword());
+        }
+        this.connectionPool = new ConnectionPool(
+            ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("r2dbc")
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .maxAcquireTime(acquireTimeout)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(this.connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        this.connectionPool.dispose();
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jdbc.core.convert.JdbcCustomConversions;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.jdbc.repository.config.AbstractJdbcConfiguration;
+import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
+import org.springframework.data.relational.RelationalManagedTypes;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+import org.springframework.samples.petclinic.repository.springdatajdbc.OwnerEntityRepository;
+
+/**
+ * Spring Data JDBC infrastructure of the <code>spring-data-jdbc</code> profile. Spring Boot's own Data JDBC
+ * auto-configuration is excluded in <code>application.properties</code>, so the other profiles neither scan for
+ * aggregates nor create a JDBC mapping context they never use.
+ * <p>
+ * Identifiers are not quoted: the schema scripts create unquoted tables and columns, which the databases store in
+ * their own case.
+ */
+@Configuration
+@Profile("spring-data-jdbc")
+@EnableJdbcRepositories(basePackageClasses = OwnerEntityRepository.class)
+public class SpringDataJdbcConfig extends AbstractJdbcConfiguration {
+
+    @Override
+    protected Collection<String> getMappingBasePackages() {
+        return List.of(OwnerEntityRepository.class.getPackageName());
+    }
+
+    @Bean
+    @Override
+    public JdbcMappingContext jdbcMappingContext(Optional<NamingStrategy> namingStrategy,
+                                                 JdbcCustomConversions customConversions,
+                                                 RelationalManagedTypes jdbcManagedTypes) {
+        JdbcMappingContext mappingContext = super.jdbcMappingContext(namingStrategy, customConversions, jdbcManagedTypes);
+        mappingContext.setForceQuote(false);
+        return mappingContext;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.config;
+
+import javax.sql.DataSource;
+
+import jakarta.servlet.DispatcherType;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+import org.springframework.samples.petclinic.util.StatementCountingFilter;
+
+/**
+ * Wraps the application's <code>dataSource</code> in a {@link StatementCountingDataSource} and counts the SQL
+ * statements of every REST API request with the {@link StatementCountingFilter}, which warns about statements repeated
+ * more than <code>petclinic.sql-monitoring.repeat-threshold</code> times and, with
+ * <code>petclinic.sql-monitoring.headers=true</code>, reports the count and time in response headers. Meant for
+ * development and tests, where {@link StatementCounter} budgets guard against N+1 selects; switched on with
+ * <code>petclinic.sql-monitoring.enabled=true</code>, as the <code>dev</code> profile does.
+ * <p>
+ * The R2DBC reads of the <code>reactive</code> profile do not go through the {@link DataSource} and are not counted.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.sql-monitoring.enabled", havingValue = "true")
+public class StatementCountingConfig {
+
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    /**
+     * Only the bean every repository, transaction manager and initializer is given is wrapped; the pools behind it,
+     * such as the primary and replicas of the <code>replicas</code> profile, keep their type.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN_NAME.equals(beanName) && bean instanceof DataSource dataSource
+                    && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementCountingFilter> statementCountingFilterRegistration(
+        @Value("${petclinic.sql-monitoring.headers:false}") boolean headers,
+        @Value("${petclinic.sql-monitoring.repeat-threshold:5}") int repeatThreshold) {
+        FilterRegistrationBean<StatementCountingFilter> registration =
+            new FilterRegistrationBean<>(new StatementCountingFilter(headers, repeatThreshold));
+        registration.addUrlPatterns("/api/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST);
+        // ahead of the security filters, so that the user lookups of the authentication are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+}
@@ -4,10 +4,14 @@ import org.jspecify.annotations.NonNull;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerPageDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerSummaryDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerSummaryPageDto;
 
 import java.util.Collection;
 import java.util.List;
@@ -20,16 +24,22 @@ public interface OwnerMapper {
 
     OwnerDto toOwnerDto(Owner owner);
 
+    @Mapping(target = "lastModified", ignore = true)
     Owner toOwner(OwnerDto ownerDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pets", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Owner toOwner(OwnerFieldsDto ownerDto);
 
     List<OwnerDto> toOwnerDtoCollection(Collection<Owner> ownerCollection);
 
     Collection<Owner> toOwners(Collection<OwnerDto> ownerDtos);
 
+    OwnerSummaryDto toOwnerSummaryDto(OwnerSummary ownerSummary);
+
+    List<OwnerSummaryDto> toOwnerSummaryDtos(Collection<OwnerSummary> ownerSummaries);
+
     default OwnerPageDto toOwnerPageDto(@NonNull Page<Owner> ownerPage) {
         OwnerPageDto ownerPageDto = new OwnerPageDto();
         ownerPageDto.setContent(toOwnerDtoCollection(ownerPage.getContent()));
@@ -39,4 +49,18 @@ public interface OwnerMapper {
         ownerPageDto.setTotalPages(ownerPage.getTotalPages());
         return ownerPageDto;
     }
+
+    default OwnerPageDto toOwnerPageDto(@NonNull Slice<Owner> ownerSlice) {
+        OwnerPageDto ownerPageDto = new OwnerPageDto();
+        ownerPageDto.setContent(toOwnerDtoCollection(ownerSlice.getContent()));
+        ownerPageDto.setSize(ownerSlice.getSize());
+        return ownerPageDto;
+    }
+
+    default OwnerSummaryPageDto toOwnerSummaryPageDto(@NonNull Slice<OwnerSummary> ownerSlice) {
+        OwnerSummaryPageDto ownerSummaryPageDto = new OwnerSummaryPageDto();
+        ownerSummaryPageDto.setContent(toOwnerSummaryDtos(ownerSlice.getContent()));
+        ownerSummaryPageDto.setSize(ownerSlice.getNumberOfElements());
+        return ownerSummaryPageDto;
+    }
 }
@@ -4,14 +4,18 @@ import org.jspecify.annotations.NonNull;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.PetPageDto;
+import org.springframework.samples.petclinic.rest.dto.PetSummaryDto;
 import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Map Pet & PetDto using mapstruct
@@ -26,16 +30,23 @@ public interface PetMapper {
 
     Collection<Pet> toPets(Collection<PetDto> pets);
 
+    PetSummaryDto toPetSummaryDto(PetSummary petSummary);
+
+    List<PetSummaryDto> toPetSummaryDtos(Collection<PetSummary> petSummaries);
+
     @Mapping(source = "ownerId", target = "owner.id")
+    @Mapping(target = "lastModified", ignore = true)
     Pet toPet(PetDto petDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "visits", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Pet toPet(PetFieldsDto petFieldsDto);
 
     PetTypeDto toPetTypeDto(PetType petType);
 
+    @Mapping(target = "lastModified", ignore = true)
     PetType toPetType(PetTypeDto petTypeDto);
 
     Collection<PetTypeDto> toPetTypeDtos(Collection<PetType> petTypes);
@@ -49,4 +60,11 @@ public interface PetMapper {
         petPageDto.setTotalPages(petPage.getTotalPages());
         return petPageDto;
     }
+
+    default PetPageDto toPetPageDto(@NonNull Slice<Pet> petSlice) {
+        PetPageDto petPageDto = new PetPageDto();
+        petPageDto.setContent(toPetsDto(petSlice.getContent()).stream().toList());
+        petPageDto.setSize(petSlice.getSize());
+        return petPageDto;
+    }
 }
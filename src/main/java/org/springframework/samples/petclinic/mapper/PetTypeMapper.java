@@ -15,9 +15,11 @@ import java.util.List;
 @Mapper
 public interface PetTypeMapper {
 
+    @Mapping(target = "lastModified", ignore = true)
     PetType toPetType(PetTypeDto petTypeDto);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     PetType toPetType(PetTypeFieldsDto petTypeFieldsDto);
 
     PetTypeDto toPetTypeDto(PetType petType);
@@ -1,6 +1,7 @@
 package org.springframework.samples.petclinic.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springframework.samples.petclinic.rest.dto.SpecialtyDto;
 import org.springframework.samples.petclinic.model.Specialty;
 
@@ -11,6 +12,7 @@ import java.util.Collection;
  */
 @Mapper
 public interface SpecialtyMapper {
+    @Mapping(target = "lastModified", ignore = true)
     Specialty toSpecialty(SpecialtyDto specialtyDto);
 
     SpecialtyDto toSpecialtyDto(Specialty specialty);
@@ -17,6 +17,7 @@ public interface UserMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Role toRole(RoleDto roleDto);
 
     RoleDto toRoleDto(Role role);
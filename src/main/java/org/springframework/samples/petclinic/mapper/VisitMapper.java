@@ -3,8 +3,11 @@ package org.springframework.samples.petclinic.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.VisitStats;
+import org.springframework.samples.petclinic.rest.dto.VisitBatchItemDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.VisitStatsDto;
 
 import java.util.Collection;
 
@@ -14,15 +17,24 @@ import java.util.Collection;
 @Mapper(uses = PetMapper.class)
 public interface VisitMapper {
     @Mapping(source = "petId", target = "pet.id")
+    @Mapping(target = "lastModified", ignore = true)
     Visit toVisit(VisitDto visitDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pet", ignore = true)
+    @Mapping(target = "lastModified", ignore = true)
     Visit toVisit(VisitFieldsDto visitFieldsDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(source = "petId", target = "pet.id")
+    @Mapping(target = "lastModified", ignore = true)
+    Visit toVisit(VisitBatchItemDto visitBatchItemDto);
+
     @Mapping(source = "pet.id", target = "petId")
     VisitDto toVisitDto(Visit visit);
 
     Collection<VisitDto> toVisitsDto(Collection<Visit> visits);
 
+    VisitStatsDto toVisitStatsDto(VisitStats visitStats);
+
 }
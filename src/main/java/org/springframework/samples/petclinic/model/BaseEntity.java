@@ -15,15 +15,24 @@
  */
 package org.springframework.samples.petclinic.model;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Simple JavaBean domain object with an id property. Used as a base class for objects needing this property.
+ * <p>
+ * The last-modified stamp backs the version tags used for HTTP conditional requests. It is <code>null</code> for rows
+ * that were never written through the application, such as the sample data.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -34,6 +43,9 @@ public class BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     protected Integer id;
 
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     public Integer getId() {
         return id;
     }
@@ -46,4 +58,22 @@ public class BaseEntity {
         return this.id == null;
     }
 
+    @JsonIgnore
+    public LocalDateTime getLastModified() {
+        return this.lastModified;
+    }
+
+    public void setLastModified(LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Stamp this entity as modified now. Invoked by JPA before every insert and update, and by the JDBC repositories
+     * before writing. The stamp is taken in UTC so that it keeps increasing across daylight saving changes.
+     */
+    @PrePersist
+    @PreUpdate
+    public void markModified() {
+        this.lastModified = LocalDateTime.now(ZoneOffset.UTC);
+    }
 }
@@ -34,6 +34,9 @@ import java.util.*;
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraph(name = "Owner.pets",
+    attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+    subgraphs = @NamedSubgraph(name = "pet", attributeNodes = {@NamedAttributeNode("type"), @NamedAttributeNode("visits")}))
 public class Owner extends Person {
     @Column(name = "address")
     @NotEmpty
@@ -49,7 +52,7 @@ public class Owner extends Person {
     @Pattern(regexp = "^[0-9]{10}$", message = "Phone number must be exactly 10 digits")
     private String telephone;
 
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "owner", fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "owner")
     private Set<Pet> pets;
 
     public String getAddress() {
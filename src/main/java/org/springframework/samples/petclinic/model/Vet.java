@@ -31,9 +31,10 @@ import java.util.*;
  */
 @Entity
 @Table(name = "vets")
+@NamedEntityGraph(name = "Vet.specialties", attributeNodes = @NamedAttributeNode("specialties"))
 public class Vet extends Person {
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
     @JoinTable(name = "vet_specialties", joinColumns = @JoinColumn(name = "vet_id"),
         inverseJoinColumns = @JoinColumn(name = "specialty_id"))
     private Set<Specialty> specialties;
@@ -59,6 +60,7 @@ public class Vet extends Person {
 
     public void setSpecialties(List<Specialty> specialties) {
         this.specialties = new HashSet<>(specialties);
+        markModified();
     }
 
     @JsonIgnore
@@ -70,8 +72,13 @@ public class Vet extends Person {
         getSpecialtiesInternal().add(specialty);
     }
 
+    /**
+     * Remove all specialties. The specialties live in a join table, so replacing them marks the vet itself as
+     * modified; otherwise JPA would not consider the vet row dirty.
+     */
     public void clearSpecialties() {
         getSpecialtiesInternal().clear();
+        markModified();
     }
 
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.model;
+
+import java.time.LocalDate;
+
+/**
+ * Visit figures of a pet, or of all pets of an owner. The count and the first and last visit dates are kept in the
+ * <code>visit_stats</code> table, which is maintained with every visit change, so reading them does not scan the
+ * visit history; the dates are <code>null</code> as long as there is no visit.
+ */
+public class VisitStats {
+
+    private final int visitCount;
+
+    private final LocalDate firstVisitDate;
+
+    private final LocalDate lastVisitDate;
+
+    private final int recentVisitCount;
+
+    public VisitStats(int visitCount, LocalDate firstVisitDate, LocalDate lastVisitDate, int recentVisitCount) {
+        this.visitCount = visitCount;
+        this.firstVisitDate = firstVisitDate;
+        this.lastVisitDate = lastVisitDate;
+        this.recentVisitCount = recentVisitCount;
+    }
+
+    public int getVisitCount() {
+        return this.visitCount;
+    }
+
+    public LocalDate getFirstVisitDate() {
+        return this.firstVisitDate;
+    }
+
+    public LocalDate getLastVisitDate() {
+        return this.lastVisitDate;
+    }
+
+    /**
+     * The number of visits dated within the last 30 days, today included; this one is counted from the visits table,
+     * over an index range.
+     */
+    public int getRecentVisitCount() {
+        return this.recentVisitCount;
+    }
+
+}
@@ -16,12 +16,15 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.samples.petclinic.model.BaseEntity;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 
 /**
  * Repository class for <code>Owner</code> domain objects All method names are compliant with Spring Data naming
@@ -37,7 +40,9 @@ public interface OwnerRepository {
 
     /**
      * Retrieve <code>Owner</code>s from the data store by last name, returning all owners whose last name <i>starts</i>
-     * with the given name.
+     * with the given name. Unlike the {@link org.springframework.samples.petclinic.util.OwnerNameIndex}, the last name
+     * searches of this repository match case as the database compares it, so that they can use the index on
+     * <code>owners(last_name)</code>.
      *
      * @param lastName Value to search for
      * @return a <code>Collection</code> of matching <code>Owner</code>s (or an empty <code>Collection</code> if none
@@ -47,6 +52,42 @@ public interface OwnerRepository {
 
     Page<Owner> findByLastName(String lastName, Pageable pageable) throws DataAccessException;
 
+    /**
+     * Retrieve, ordered by id, at most <code>limit</code> <code>Owner</code>s whose last name <i>starts</i> with the
+     * given name and whose id is greater than the given one. Seeking on the primary key keeps deep pages as cheap as
+     * the first one.
+     *
+     * @param lastName Value to search for
+     * @param id       the id of the last owner already returned, or 0 to start from the beginning
+     * @param limit    the maximum number of owners to return
+     */
+    List<Owner> findByLastNameAfter(String lastName, int id, int limit) throws DataAccessException;
+
+    /**
+     * Retrieve, ordered by id, a summary of every <code>Owner</code> whose last name <i>starts</i> with the given name.
+     * Only the summary columns are read; pets and visits are not loaded.
+     *
+     * @param lastName Value to search for, the empty string matching every owner
+     */
+    List<OwnerSummary> findSummariesByLastName(String lastName) throws DataAccessException;
+
+    /**
+     * Keyset variant of {@link #findSummariesByLastName(String)}, see {@link #findByLastNameAfter}.
+     *
+     * @param lastName Value to search for, the empty string matching every owner
+     * @param id       the id of the last owner already returned, or 0 to start from the beginning
+     * @param limit    the maximum number of owners to return
+     */
+    List<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) throws DataAccessException;
+
+    /**
+     * Retrieve, ordered by id, a summary of the <code>Owner</code>s having one of the given ids. Ids that do not exist
+     * are ignored.
+     *
+     * @param ids the ids to search for
+     */
+    List<OwnerSummary> findSummariesByIdIn(Collection<Integer> ids) throws DataAccessException;
+
     /**
      * Retrieve an <code>Owner</code> from the data store by id.
      *
@@ -56,6 +97,24 @@ public interface OwnerRepository {
      */
     Owner findById(int id) throws DataAccessException;
 
+    /**
+     * Retrieve, with their pets and visits, the <code>Owner</code>s having one of the given ids, in no particular
+     * order. Ids that do not exist are ignored.
+     *
+     * @param ids the ids to search for
+     */
+    List<Owner> findByIdIn(Collection<Integer> ids) throws DataAccessException;
+
+    /**
+     * Retrieve the version tag of an <code>Owner</code> together with its pets, their types and their visits, computed
+     * from last-modified stamps and row counts without loading the graph itself.
+     *
+     * @param id the id of the owner
+     * @return the version tag, see {@link org.springframework.samples.petclinic.util.EntityUtils#versionTag}
+     * @throws org.springframework.dao.DataRetrievalFailureException if not found
+     */
+    String findVersionById(int id) throws DataAccessException;
+
 
     /**
      * Save an <code>Owner</code> to the data store, either inserting or updating it.
@@ -74,6 +133,23 @@ public interface OwnerRepository {
 	Collection<Owner> findAll() throws DataAccessException;
 
     Page<Owner> findAll(Pageable pageable) throws DataAccessException;
+
+    /**
+     * Retrieve, ordered by id, at most <code>limit</code> <code>Owner</code>s whose id is greater than the given one.
+     *
+     * @param id    the id of the last owner already returned, or 0 to start from the beginning
+     * @param limit the maximum number of owners to return
+     */
+    List<Owner> findAllAfter(int id, int limit) throws DataAccessException;
+
+    /**
+     * Pass every <code>Owner</code>, with its pets and visits loaded, to the given action in id order. Owners are read
+     * through a forward-only cursor and released once the action returns, so memory use does not grow with the number
+     * of owners. Must be called within a transaction.
+     *
+     * @param action the action to invoke for each owner
+     */
+    void forEach(Consumer<? super Owner> action) throws DataAccessException;
 	
     /**
      * Delete an <code>Owner</code> to the data store by <code>Owner</code>.
@@ -23,6 +23,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.samples.petclinic.model.BaseEntity;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
 
 /**
@@ -71,6 +72,29 @@ public interface PetRepository {
 
     Page<Pet> findAll(Pageable pageable) throws DataAccessException;
 
+    /**
+     * Retrieve, ordered by id, at most <code>limit</code> <code>Pet</code>s whose id is greater than the given one.
+     * Seeking on the primary key keeps deep pages as cheap as the first one.
+     *
+     * @param id    the id of the last pet already returned, or 0 to start from the beginning
+     * @param limit the maximum number of pets to return
+     */
+    List<Pet> findAllAfter(int id, int limit) throws DataAccessException;
+
+    /**
+     * Retrieve, ordered by id, a summary of every <code>Pet</code>. Only the summary columns are read; pet types,
+     * owners and visits are not loaded.
+     */
+    List<PetSummary> findAllSummaries() throws DataAccessException;
+
+    /**
+     * Retrieve, with a single query and in no particular order, those of the given ids that belong to a
+     * <code>Pet</code>; no pet is loaded.
+     *
+     * @param ids the ids to check, not empty
+     */
+    List<Integer> findExistingIds(Collection<Integer> ids) throws DataAccessException;
+
     /**
      * Delete an <code>Pet</code> to the data store by <code>Pet</code>.
      *
@@ -34,6 +34,13 @@ public interface PetTypeRepository {
 
 	Collection<PetType> findAll() throws DataAccessException;
 
+    /**
+     * Retrieve the version tag of all <code>PetType</code>s, computed from their last-modified stamps and count.
+     *
+     * @return the version tag, see {@link org.springframework.samples.petclinic.util.EntityUtils#versionTag}
+     */
+	String findVersionOfAll() throws DataAccessException;
+
 	void save(PetType petType) throws DataAccessException;
 
 	void delete(PetType petType) throws DataAccessException;
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read methods of {@link OwnerRepository}. Owners come with their pets, pet types and
+ * visits, and are emitted in id order as soon as their last row has been read, so a subscriber that requests owners
+ * one at a time holds at most one owner graph in memory. Failures are signalled as
+ * {@link org.springframework.dao.DataAccessException}s.
+ *
+ * @see OwnerRepository
+ */
+public interface ReactiveOwnerRepository {
+
+    /**
+     * Retrieve every <code>Owner</code> whose last name <i>starts</i> with the given name, ordered by id.
+     *
+     * @param lastName Value to search for, the empty string matching every owner
+     */
+    Flux<Owner> findByLastName(String lastName);
+
+    /**
+     * Retrieve one page of the owners of {@link #findByLastName(String)}; the sort of the pageable is ignored.
+     */
+    Flux<Owner> findByLastName(String lastName, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #findByLastName(String, Pageable)}, see {@link OwnerRepository#findByLastNameAfter}.
+     *
+     * @param lastName Value to search for, the empty string matching every owner
+     * @param id       the id of the last owner already returned, or 0 to start from the beginning
+     * @param limit    the maximum number of owners to return
+     */
+    Flux<Owner> findByLastNameAfter(String lastName, int id, int limit);
+
+    /**
+     * Count the owners of {@link #findByLastName(String)}.
+     */
+    Mono<Long> countByLastName(String lastName);
+
+    /**
+     * See {@link OwnerRepository#findSummariesByLastNameAfter}.
+     */
+    Flux<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit);
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.model.Pet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read methods of {@link PetRepository}. Pets come with their type and visits and are
+ * emitted in id order as soon as their last row has been read; their owner only carries its id. Failures are
+ * signalled as {@link org.springframework.dao.DataAccessException}s.
+ *
+ * @see PetRepository
+ */
+public interface ReactivePetRepository {
+
+    /**
+     * Retrieve every <code>Pet</code>, ordered by id.
+     */
+    Flux<Pet> findAll();
+
+    /**
+     * Retrieve one page of the pets of {@link #findAll()}; the sort of the pageable is ignored.
+     */
+    Flux<Pet> findAll(Pageable pageable);
+
+    /**
+     * See {@link PetRepository#findAllAfter}.
+     *
+     * @param id    the id of the last pet already returned, or 0 to start from the beginning
+     * @param limit the maximum number of pets to return
+     */
+    Flux<Pet> findAllAfter(int id, int limit);
+
+    Mono<Long> count();
+
+}
@@ -38,6 +38,14 @@ public interface VetRepository {
      * @return a <code>Collection</code> of <code>Vet</code>s
      */
     Collection<Vet> findAll() throws DataAccessException;
+
+    /**
+     * Retrieve the version tag of all <code>Vet</code>s with their specialties, computed from last-modified stamps
+     * and row counts without loading the vets themselves.
+     *
+     * @return the version tag, see {@link org.springframework.samples.petclinic.util.EntityUtils#versionTag}
+     */
+    String findVersionOfAll() throws DataAccessException;
     
 	Vet findById(int id) throws DataAccessException;
 
@@ -42,6 +42,14 @@ public interface VisitRepository {
      */
     void save(Visit visit) throws DataAccessException;
 
+    /**
+     * Save many <code>Visit</code>s, writing them in JDBC batches instead of one statement per visit. New visits get
+     * their generated id set, as with {@link #save}.
+     *
+     * @param visits the <code>Visit</code>s to save
+     */
+    void saveAll(Collection<Visit> visits) throws DataAccessException;
+
     List<Visit> findByPetId(Integer petId);
     
 	Visit findById(int id) throws DataAccessException;
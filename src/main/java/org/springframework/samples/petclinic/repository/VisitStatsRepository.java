@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.model.VisitStats;
+
+/**
+ * Repository for the <code>visit_stats</code> table, which keeps the number of visits and the first and last visit
+ * date of every pet, so that they can be read with a primary key lookup instead of scanning the visits. The
+ * {@link org.springframework.samples.petclinic.service.ClinicService} updates it in the transaction changing the
+ * visits. A new pet gets its row when it is saved, so that concurrent first visits of the pet only update it; a pet
+ * inserted directly in the database is counted from its visits on its next change.
+ */
+public interface VisitStatsRepository {
+
+    /**
+     * Create the row of a new pet, counting the visits saved with it.
+     *
+     * @param petId the id of the new pet
+     */
+    void addPet(int petId) throws DataAccessException;
+
+    /**
+     * Count a new visit of the given pet.
+     *
+     * @param petId the id of the visited pet
+     * @param date  the date of the visit
+     */
+    void addVisit(int petId, LocalDate date) throws DataAccessException;
+
+    /**
+     * Uncount a deleted visit of the given pet; if it was the first or last one, the dates are read from the remaining
+     * visits.
+     *
+     * @param petId the id of the visited pet
+     * @param date  the date of the deleted visit
+     */
+    void removeVisit(int petId, LocalDate date) throws DataAccessException;
+
+    /**
+     * Recount the visits of the given pet, e.g. after a visit date changed.
+     *
+     * @param petId the id of the pet
+     */
+    void refresh(int petId) throws DataAccessException;
+
+    /**
+     * Recount the visits of all pets.
+     *
+     * @return the number of pets counted
+     */
+    int rebuild() throws DataAccessException;
+
+    /**
+     * Read the visit figures of a pet.
+     *
+     * @param petId       the id of the pet
+     * @param recentSince the first day of the recent period
+     * @param recentUntil the last day of the recent period
+     * @return the figures, or <code>null</code> if there is no such pet
+     */
+    VisitStats findByPetId(int petId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException;
+
+    /**
+     * Read the visit figures of all pets of an owner together.
+     *
+     * @param ownerId     the id of the owner
+     * @param recentSince the first day of the recent period
+     * @param recentUntil the last day of the recent period
+     * @return the figures, or <code>null</code> if there is no such owner
+     */
+    VisitStats findByOwnerId(int ownerId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException;
+
+}
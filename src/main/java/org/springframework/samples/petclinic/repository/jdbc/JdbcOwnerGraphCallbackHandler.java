@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * {@link RowCallbackHandler} assembling complete {@link Owner} graphs from an owners/pets/visits join ordered by
+ * owner id and pet id. Each owner is handed to the action as soon as the first row of the next owner arrives, so only
+ * one owner graph is held at a time; {@link #finish()} must be called once the query has completed.
+ */
+class JdbcOwnerGraphCallbackHandler implements RowCallbackHandler {
+
+    /**
+     * The owners with their pets and visits, if any, in the order the handler requires.
+     */
+    static final String SELECT_OWNERS =
+        "SELECT " + JdbcOwnerRowMapper.COLUMNS + ", " + JdbcPetRowMapper.COLUMNS + ", " +
+            JdbcVisitRowMapper.COLUMNS + " " +
+            "FROM owners LEFT OUTER JOIN pets ON owners.id = pets.owner_id " +
+            "LEFT OUTER JOIN visits ON pets.id = visits.pet_id ORDER BY owners.id, pets.id, visits.id";
+
+    private static final int PET_COLUMN = 1 + JdbcOwnerRowMapper.COLUMN_COUNT;
+
+    private static final int VISIT_COLUMN = PET_COLUMN + JdbcPetRowMapper.COLUMN_COUNT;
+
+    private final JdbcOwnerRowMapper ownerRowMapper = new JdbcOwnerRowMapper();
+
+    private final JdbcPetRowMapper petRowMapper = new JdbcPetRowMapper(PET_COLUMN);
+
+    private final JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper(VISIT_COLUMN);
+
+    private final EntityIndex<PetType> petTypes;
+
+    private final Consumer<? super Owner> action;
+
+    private Owner owner;
+
+    private JdbcPet pet;
+
+    JdbcOwnerGraphCallbackHandler(EntityIndex<PetType> petTypes, Consumer<? super Owner> action) {
+        this.petTypes = petTypes;
+        this.action = action;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        int ownerId = rs.getInt(1);
+        if (this.owner == null || this.owner.getId() != ownerId) {
+            finish();
+            this.owner = this.ownerRowMapper.mapRow(rs, rs.getRow());
+        }
+        if (rs.getObject(PET_COLUMN) == null) {
+            return;
+        }
+        int petId = rs.getInt(PET_COLUMN);
+        if (this.pet == null || this.pet.getId() != petId) {
+            this.pet = this.petRowMapper.mapRow(rs, rs.getRow());
+            this.pet.setType(this.petTypes.getById(this.pet.getTypeId()));
+            this.owner.addPet(this.pet);
+        }
+        if (rs.getObject(VISIT_COLUMN) != null) {
+            this.pet.addVisit(this.visitRowMapper.mapRow(rs, rs.getRow()));
+        }
+    }
+
+    /**
+     * Hand the owner currently being assembled, if any, to the action.
+     */
+    void finish() {
+        if (this.owner != null) {
+            Owner completed = this.owner;
+            this.owner = null;
+            this.pet = null;
+            this.action.accept(completed);
+        }
+    }
+
+}
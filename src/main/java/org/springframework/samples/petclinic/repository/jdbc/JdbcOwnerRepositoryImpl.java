@@ -21,25 +21,31 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.EntityIndex;
 import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
 import javax.sql.DataSource;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * A simple JDBC-based implementation of the {@link OwnerRepository} interface.
@@ -58,8 +64,32 @@ import java.util.Map;
 @Profile("jdbc")
 public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
+    /**
+     * Rows fetched per round trip by {@link #forEach}; drivers that buffer the whole result set by default (MySQL)
+     * additionally need <code>useCursorFetch=true</code> on the JDBC URL to honour it.
+     */
+    private static final int EXPORT_FETCH_SIZE = 256;
+
+    private static final RowMapper<OwnerSummary> SUMMARY_ROW_MAPPER = new JdbcOwnerSummaryRowMapper();
+
+    private static final RowMapper<Owner> OWNER_ROW_MAPPER = new JdbcOwnerRowMapper();
+
+    private static final RowMapper<PetType> PET_TYPE_ROW_MAPPER = new JdbcPetTypeRowMapper();
+
+    private static final JdbcParameterBinder<Owner> OWNER_BINDER = JdbcParameterBinder.<Owner>builder()
+        .column("id", Owner::getId)
+        .column("first_name", Owner::getFirstName)
+        .column("last_name", Owner::getLastName)
+        .column("address", Owner::getAddress)
+        .column("city", Owner::getCity)
+        .column("telephone", Owner::getTelephone)
+        .column("last_modified", Owner::getLastModified)
+        .build();
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+    private JdbcTemplate exportJdbcTemplate;
+
     private SimpleJdbcInsert insertOwner;
 
     public JdbcOwnerRepositoryImpl(DataSource dataSource) {
@@ -70,6 +100,8 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
 
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
     }
 
 
@@ -80,12 +112,10 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
      */
     @Override
     public Collection<Owner> findByLastName(String lastName) throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("lastName", lastName + "%");
         List<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE last_name like :lastName",
-            params,
-            BeanPropertyRowMapper.newInstance(Owner.class)
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName",
+            new MapSqlParameterSource("lastName", lastName + "%"),
+            OWNER_ROW_MAPPER
         );
         loadOwnersPetsAndVisits(owners);
         return owners;
@@ -93,24 +123,67 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
     @Override
     public Page<Owner> findByLastName(String lastName, Pageable pageable) throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("lastName", lastName + "%");
-        params.put("size", pageable.getPageSize());
-        params.put("offset", pageable.getOffset());
+        MapSqlParameterSource params = new MapSqlParameterSource("lastName", lastName + "%")
+            .addValue("size", pageable.getPageSize())
+            .addValue("offset", pageable.getOffset());
         List<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE last_name like :lastName ORDER BY id LIMIT :size OFFSET :offset",
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName ORDER BY id LIMIT :size OFFSET :offset",
             params,
-            BeanPropertyRowMapper.newInstance(Owner.class)
+            OWNER_ROW_MAPPER
         );
         loadOwnersPetsAndVisits(owners);
         Long total = this.namedParameterJdbcTemplate.queryForObject(
-            "SELECT COUNT(*) FROM owners WHERE last_name like :lastName",
+            "SELECT COUNT(*) FROM owners WHERE last_name LIKE :lastName",
             params,
             Long.class
         );
         return new PageImpl<>(owners, pageable, total == null ? 0 : total);
     }
 
+    @Override
+    public List<Owner> findByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource("lastName", lastName + "%")
+            .addValue("id", id)
+            .addValue("limit", limit);
+        List<Owner> owners = this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName AND id > :id ORDER BY id LIMIT :limit",
+            params,
+            OWNER_ROW_MAPPER
+        );
+        loadOwnersPetsAndVisits(owners);
+        return owners;
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastName(String lastName) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName ORDER BY id",
+            new MapSqlParameterSource("lastName", lastName + "%"),
+            SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource("lastName", lastName + "%")
+            .addValue("id", id)
+            .addValue("limit", limit);
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName AND id > :id ORDER BY id LIMIT :limit",
+            params,
+            SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByIdIn(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE id IN (:ids) ORDER BY id",
+            new MapSqlParameterSource("ids", ids),
+            SUMMARY_ROW_MAPPER);
+    }
+
     /**
      * Loads the {@link Owner} with the supplied <code>id</code>; also loads the {@link Pet Pets} and {@link Visit Visits}
      * for the corresponding owner, if not already loaded.
@@ -119,12 +192,10 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
     public Owner findById(int id) throws DataAccessException {
         Owner owner;
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
             owner = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :id",
-                params,
-                BeanPropertyRowMapper.newInstance(Owner.class)
+                "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE id= :id",
+                new MapSqlParameterSource("id", id),
+                OWNER_ROW_MAPPER
             );
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(Owner.class, id);
@@ -133,103 +204,175 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
         return owner;
     }
 
-    public void loadPetsAndVisits(final Owner owner) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("id", owner.getId());
-        final List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
-            "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, visits.id as visit_id, visit_date, description, visits.pet_id as visits_pet_id FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id WHERE owner_id=:id ORDER BY pets.id",
-            params,
-            new JdbcPetVisitExtractor()
-        );
-        Collection<PetType> petTypes = getPetTypes();
-        for (JdbcPet pet : pets) {
-            pet.setType(EntityUtils.getById(petTypes, PetType.class, pet.getTypeId()));
-            owner.addPet(pet);
+    @Override
+    public List<Owner> findByIdIn(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
         }
+        List<Owner> owners = this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids),
+            OWNER_ROW_MAPPER);
+        loadOwnersPetsAndVisits(owners);
+        return owners;
+    }
+
+    /**
+     * Aggregates the stamps and counts of the owner's rows in a single grouped join; the owner graph is not built.
+     */
+    @Override
+    public String findVersionById(int id) throws DataAccessException {
+        try {
+            return this.namedParameterJdbcTemplate.queryForObject(
+                "SELECT owners.last_modified, MAX(pets.last_modified), COUNT(DISTINCT pets.id), " +
+                    "MAX(types.last_modified), MAX(visits.last_modified), COUNT(visits.id) " +
+                    "FROM owners LEFT OUTER JOIN pets ON pets.owner_id = owners.id " +
+                    "LEFT OUTER JOIN types ON types.id = pets.type_id " +
+                    "LEFT OUTER JOIN visits ON visits.pet_id = pets.id " +
+                    "WHERE owners.id = :id GROUP BY owners.id, owners.last_modified",
+                new MapSqlParameterSource("id", id),
+                (rs, rowNum) -> EntityUtils.versionTag(
+                    rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class), rs.getLong(3),
+                    rs.getObject(4, LocalDateTime.class), rs.getObject(5, LocalDateTime.class), rs.getLong(6)));
+        } catch (EmptyResultDataAccessException ex) {
+            throw new ObjectRetrievalFailureException(Owner.class, id);
+        }
+    }
+
+    public void loadPetsAndVisits(final Owner owner) {
+        loadOwnersPetsAndVisits(List.of(owner));
     }
 
     @Override
     public void save(Owner owner) throws DataAccessException {
-        BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(owner);
+        owner.markModified();
+        SqlParameterSource parameterSource = OWNER_BINDER.bind(owner);
         if (owner.isNew()) {
             Number newKey = this.insertOwner.executeAndReturnKey(parameterSource);
             owner.setId(newKey.intValue());
         } else {
             this.namedParameterJdbcTemplate.update(
-                "UPDATE owners SET first_name=:firstName, last_name=:lastName, address=:address, " +
-                    "city=:city, telephone=:telephone WHERE id=:id",
+                "UPDATE owners SET first_name=:first_name, last_name=:last_name, address=:address, " +
+                    "city=:city, telephone=:telephone, last_modified=:last_modified WHERE id=:id",
                 parameterSource);
         }
     }
 
     public Collection<PetType> getPetTypes() throws DataAccessException {
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name", new HashMap<String, Object>(),
-            BeanPropertyRowMapper.newInstance(PetType.class));
+            "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types ORDER BY name",
+            PET_TYPE_ROW_MAPPER);
     }
 
     /**
      * Loads the {@link Pet} and {@link Visit} data for the supplied {@link List} of {@link Owner Owners}.
+     * <p>
+     * All pets and visits of the given owners are read with a single <code>IN (...)</code> join query and the
+     * pet types are read once, so the number of statements does not depend on the number of owners.
      *
      * @param owners the list of owners for whom the pet and visit data should be loaded
-     * @see #loadPetsAndVisits(Owner)
      */
     private void loadOwnersPetsAndVisits(List<Owner> owners) {
+        if (owners.isEmpty()) {
+            return;
+        }
+        EntityIndex<Owner> ownersById = EntityIndex.of(owners, Owner.class);
+        List<Integer> ownerIds = new ArrayList<>(owners.size());
         for (Owner owner : owners) {
-            loadPetsAndVisits(owner);
+            ownerIds.add(owner.getId());
+        }
+        List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
+            JdbcPetVisitExtractor.SELECT_PETS + " WHERE pets.owner_id IN (:ids) ORDER BY pets.id",
+            new MapSqlParameterSource("ids", ownerIds),
+            new JdbcPetVisitExtractor()
+        );
+        addPetsToOwners(pets, ownersById);
+    }
+
+    /**
+     * Attaches the supplied pets to their owners, resolving each pet type against a single read of the
+     * <code>types</code> table.
+     */
+    private void addPetsToOwners(List<JdbcPet> pets, EntityIndex<Owner> ownersById) {
+        if (pets.isEmpty()) {
+            return;
+        }
+        EntityIndex<PetType> petTypes = EntityIndex.of(getPetTypes(), PetType.class);
+        for (JdbcPet pet : pets) {
+            Owner owner = ownersById.get(pet.getOwnerId());
+            if (owner != null) {
+                pet.setType(petTypes.getById(pet.getTypeId()));
+                owner.addPet(pet);
+            }
         }
     }
 
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
 		List<Owner> owners = this.namedParameterJdbcTemplate.query(
-	            "SELECT id, first_name, last_name, address, city, telephone FROM owners",
-	            new HashMap<String, Object>(),
-	            BeanPropertyRowMapper.newInstance(Owner.class));
-		for (Owner owner : owners) {
-            loadPetsAndVisits(owner);
-        }
+	            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners",
+	            OWNER_ROW_MAPPER);
+        // every owner is requested, so read the whole pet/visit graph without an id list
+        EntityIndex<Owner> ownersById = EntityIndex.of(owners, Owner.class);
+        List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
+            JdbcPetVisitExtractor.SELECT_PETS + " ORDER BY pets.id",
+            new JdbcPetVisitExtractor()
+        );
+        addPetsToOwners(pets, ownersById);
 	    return owners;
 	}
 
     @Override
     public Page<Owner> findAll(Pageable pageable) throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("size", pageable.getPageSize());
-        params.put("offset", pageable.getOffset());
         List<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY id LIMIT :size OFFSET :offset",
-            params,
-            BeanPropertyRowMapper.newInstance(Owner.class));
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners ORDER BY id LIMIT :size OFFSET :offset",
+            new MapSqlParameterSource("size", pageable.getPageSize()).addValue("offset", pageable.getOffset()),
+            OWNER_ROW_MAPPER);
         loadOwnersPetsAndVisits(owners);
         Long total = this.namedParameterJdbcTemplate.queryForObject(
             "SELECT COUNT(*) FROM owners",
-            params,
+            EmptySqlParameterSource.INSTANCE,
             Long.class
         );
         return new PageImpl<>(owners, pageable, total == null ? 0 : total);
     }
 
+    @Override
+    public List<Owner> findAllAfter(int id, int limit) throws DataAccessException {
+        List<Owner> owners = this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE id > :id ORDER BY id LIMIT :limit",
+            new MapSqlParameterSource("id", id).addValue("limit", limit),
+            OWNER_ROW_MAPPER);
+        loadOwnersPetsAndVisits(owners);
+        return owners;
+    }
+
+    /**
+     * Reads the owners, pets and visits with a single join ordered by owner id and assembles each owner graph while
+     * the rows arrive; see {@link JdbcOwnerGraphCallbackHandler}.
+     */
+    @Override
+    public void forEach(Consumer<? super Owner> action) throws DataAccessException {
+        EntityIndex<PetType> petTypes = EntityIndex.of(getPetTypes(), PetType.class);
+        JdbcOwnerGraphCallbackHandler handler = new JdbcOwnerGraphCallbackHandler(petTypes, action);
+        this.exportJdbcTemplate.query(
+            JdbcOwnerGraphCallbackHandler.SELECT_OWNERS,
+            handler);
+        handler.finish();
+    }
+
+    /**
+     * Deletes the owner with its pets and visits in three set-based statements, whatever the number of pets and
+     * visits; the schemas do not all declare <code>ON DELETE CASCADE</code>.
+     */
 	@Override
 	@Transactional
 	public void delete(Owner owner) throws DataAccessException {
-		Map<String, Object> ownerParams = new HashMap<>();
-		ownerParams.put("id", owner.getId());
-        List<Pet> pets = owner.getPets();
-        // cascade delete pets
-        for (Pet pet : pets){
-        	Map<String, Object> petParams = new HashMap<>();
-        	petParams.put("id", pet.getId());
-        	// cascade delete visits
-        	List<Visit> visits = pet.getVisits();
-            for (Visit visit : visits){
-            	Map<String, Object> visitParams = new HashMap<>();
-            	visitParams.put("id", visit.getId());
-            	this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", visitParams);
-            }
-            this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", petParams);
-        }
-        this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", ownerParams);
+		MapSqlParameterSource params = new MapSqlParameterSource("id", owner.getId());
+        this.namedParameterJdbcTemplate.update(
+            "DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE owner_id=:id)", params);
+        this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE owner_id=:id", params);
+        this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", params);
 	}
 
 
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.Owner;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
+ * of the {@link Owner} class.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order, starting at the column the
+ * mapper is created with; join queries select the columns of the other tables around them.
+ */
+class JdbcOwnerRowMapper implements RowMapper<Owner> {
+
+    static final String COLUMNS = "owners.id, owners.first_name, owners.last_name, owners.address, owners.city, " +
+        "owners.telephone";
+
+    static final int COLUMN_COUNT = 6;
+
+    private final int first;
+
+    JdbcOwnerRowMapper() {
+        this(1);
+    }
+
+    JdbcOwnerRowMapper(int firstColumn) {
+        this.first = firstColumn;
+    }
+
+    @Override
+    public Owner mapRow(ResultSet rs, int row) throws SQLException {
+        Owner owner = new Owner();
+        owner.setId(rs.getInt(this.first));
+        owner.setFirstName(rs.getString(this.first + 1));
+        owner.setLastName(rs.getString(this.first + 2));
+        owner.setAddress(rs.getString(this.first + 3));
+        owner.setCity(rs.getString(this.first + 4));
+        owner.setTelephone(rs.getString(this.first + 5));
+        return owner;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to an {@link OwnerSummary}; shared with the
+ * Spring Data JDBC repositories.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order.
+ */
+public class JdbcOwnerSummaryRowMapper implements RowMapper<OwnerSummary> {
+
+    public static final String COLUMNS = "owners.id, owners.first_name, owners.last_name, owners.city";
+
+    @Override
+    public OwnerSummary mapRow(ResultSet rs, int row) throws SQLException {
+        return new OwnerSummary(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    }
+}
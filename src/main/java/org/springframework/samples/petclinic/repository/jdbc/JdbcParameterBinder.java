@@ -0,0 +1,113 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Binds the columns of an entity to the named parameters of its insert and update statements.
+ * <p>
+ * The column names and getters are registered once; {@link #bind} only wraps the entity, and each value is read from
+ * it when the statement asks for its parameter. Unlike a {@link MapSqlParameterSource}, no map of values is filled for
+ * every statement. Parameter names are matched exactly, as {@link org.springframework.jdbc.core.simple.SimpleJdbcInsert}
+ * retries the lower-cased column names reported by the database.
+ *
+ * @param <T> the entity type
+ */
+final class JdbcParameterBinder<T> {
+
+    private final String[] columns;
+
+    private final List<Function<? super T, ?>> getters;
+
+    private JdbcParameterBinder(List<String> columns, List<Function<? super T, ?>> getters) {
+        this.columns = columns.toArray(new String[0]);
+        this.getters = List.copyOf(getters);
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the parameters of the given entity.
+     */
+    SqlParameterSource bind(T entity) {
+        return new BoundParameters(entity);
+    }
+
+    private int indexOf(String column) {
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columns[i].equals(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class Builder<T> {
+
+        private final List<String> columns = new ArrayList<>();
+
+        private final List<Function<? super T, ?>> getters = new ArrayList<>();
+
+        Builder<T> column(String column, Function<? super T, ?> getter) {
+            this.columns.add(column);
+            this.getters.add(getter);
+            return this;
+        }
+
+        JdbcParameterBinder<T> build() {
+            return new JdbcParameterBinder<>(this.columns, this.getters);
+        }
+
+    }
+
+    private final class BoundParameters implements SqlParameterSource {
+
+        private final T entity;
+
+        BoundParameters(T entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public boolean hasValue(String paramName) {
+            return indexOf(paramName) >= 0;
+        }
+
+        @Override
+        public Object getValue(String paramName) {
+            int index = indexOf(paramName);
+            if (index < 0) {
+                throw new IllegalArgumentException("No value registered for key '" + paramName + "'");
+            }
+            return getters.get(index).apply(this.entity);
+        }
+
+        @Override
+        public String[] getParameterNames() {
+            return columns.clone();
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+/**
+ * {@link ResultSetExtractor} implementation mapping the rows of a
+ * <code>pets JOIN types JOIN owners LEFT JOIN visits</code> query for a single pet to that {@link JdbcPet}, with its
+ * type, its owner and one visit per row. Returns <code>null</code> if there is no row.
+ */
+class JdbcPetGraphExtractor implements ResultSetExtractor<JdbcPet> {
+
+    static final String SELECT_PET =
+        "SELECT " + JdbcPetRowMapper.COLUMNS + ", " + JdbcPetTypeRowMapper.COLUMNS + ", " +
+            JdbcOwnerRowMapper.COLUMNS + ", " + JdbcVisitRowMapper.COLUMNS + " " +
+            "FROM pets JOIN types ON pets.type_id = types.id JOIN owners ON pets.owner_id = owners.id " +
+            "LEFT OUTER JOIN visits ON visits.pet_id = pets.id";
+
+    private static final int TYPE_COLUMN = 1 + JdbcPetRowMapper.COLUMN_COUNT;
+
+    private static final int OWNER_COLUMN = TYPE_COLUMN + JdbcPetTypeRowMapper.COLUMN_COUNT;
+
+    private static final int VISIT_COLUMN = OWNER_COLUMN + JdbcOwnerRowMapper.COLUMN_COUNT;
+
+    private final JdbcPetRowMapper petRowMapper = new JdbcPetRowMapper();
+
+    private final JdbcPetTypeRowMapper petTypeRowMapper = new JdbcPetTypeRowMapper(TYPE_COLUMN);
+
+    private final JdbcOwnerRowMapper ownerRowMapper = new JdbcOwnerRowMapper(OWNER_COLUMN);
+
+    private final JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper(VISIT_COLUMN);
+
+    @Override
+    public JdbcPet extractData(ResultSet rs) throws SQLException {
+        JdbcPet pet = null;
+        int row = 0;
+        while (rs.next()) {
+            if (pet == null) {
+                pet = this.petRowMapper.mapRow(rs, row);
+                pet.setType(this.petTypeRowMapper.mapRow(rs, row));
+                pet.setOwner(this.ownerRowMapper.mapRow(rs, row));
+            }
+            if (rs.getObject(VISIT_COLUMN) != null) {
+                pet.addVisit(this.visitRowMapper.mapRow(rs, row));
+            }
+            row++;
+        }
+        return pet;
+    }
+
+}
@@ -17,9 +17,9 @@ package org.springframework.samples.petclinic.repository.jdbc;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -27,22 +27,22 @@ import org.jspecify.annotations.NonNull;
 import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
-import org.springframework.samples.petclinic.model.Visit;
-import org.springframework.samples.petclinic.repository.OwnerRepository;
 import org.springframework.samples.petclinic.repository.PetRepository;
-import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.EntityIndex;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -59,91 +59,90 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcPetRepositoryImpl implements PetRepository {
 
+    private static final RowMapper<Owner> OWNER_ROW_MAPPER = new JdbcOwnerRowMapper();
+
+    private static final RowMapper<PetType> PET_TYPE_ROW_MAPPER = new JdbcPetTypeRowMapper();
+
+    private static final RowMapper<PetSummary> PET_SUMMARY_ROW_MAPPER = new JdbcPetSummaryRowMapper();
+
+    private static final JdbcParameterBinder<Pet> PET_BINDER = JdbcParameterBinder.<Pet>builder()
+        .column("id", Pet::getId)
+        .column("name", Pet::getName)
+        .column("birth_date", Pet::getBirthDate)
+        .column("type_id", pet -> pet.getType().getId())
+        .column("owner_id", pet -> pet.getOwner().getId())
+        .column("last_modified", Pet::getLastModified)
+        .build();
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     private SimpleJdbcInsert insertPet;
 
-    private OwnerRepository ownerRepository;
-
-    public JdbcPetRepositoryImpl(DataSource dataSource,
-    		OwnerRepository ownerRepository) {
+    public JdbcPetRepositoryImpl(DataSource dataSource) {
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
 
         this.insertPet = new SimpleJdbcInsert(dataSource)
             .withTableName("pets")
             .usingGeneratedKeyColumns("id");
-
-        this.ownerRepository = ownerRepository;
     }
 
     @Override
     public List<PetType> findPetTypes() throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name",
-            params,
-            BeanPropertyRowMapper.newInstance(PetType.class));
+            "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types ORDER BY name",
+            EmptySqlParameterSource.INSTANCE,
+            PET_TYPE_ROW_MAPPER);
     }
 
+    /**
+     * Loads the pet with its type, its visits and its owner in a single join query. The owner is a reference without
+     * its other pets, so the cost does not depend on how many pets the owner has.
+     */
     @Override
     public Pet findById(int id) throws DataAccessException {
-        Integer ownerId;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            ownerId = this.namedParameterJdbcTemplate.queryForObject("SELECT owner_id FROM pets WHERE id=:id", params, Integer.class);
-        } catch (EmptyResultDataAccessException ex) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        JdbcPet pet = this.namedParameterJdbcTemplate.query(
+            JdbcPetGraphExtractor.SELECT_PET + " WHERE pets.id = :id ORDER BY visits.id",
+            params,
+            new JdbcPetGraphExtractor());
+        if (pet == null) {
             throw new ObjectRetrievalFailureException(Pet.class, id);
         }
-        Owner owner = this.ownerRepository.findById(ownerId);
-        return EntityUtils.getById(owner.getPets(), Pet.class, id);
+        return pet;
     }
 
     @Override
     public void save(Pet pet) throws DataAccessException {
+        pet.markModified();
         if (pet.isNew()) {
             Number newKey = this.insertPet.executeAndReturnKey(
-                createPetParameterSource(pet));
+                PET_BINDER.bind(pet));
             pet.setId(newKey.intValue());
         } else {
             this.namedParameterJdbcTemplate.update(
                 "UPDATE pets SET name=:name, birth_date=:birth_date, type_id=:type_id, " +
-                    "owner_id=:owner_id WHERE id=:id",
-                createPetParameterSource(pet));
+                    "owner_id=:owner_id, last_modified=:last_modified WHERE id=:id",
+                PET_BINDER.bind(pet));
         }
     }
 
-    /**
-     * Creates a {@link MapSqlParameterSource} based on data values from the supplied {@link Pet} instance.
-     */
-    private MapSqlParameterSource createPetParameterSource(Pet pet) {
-        return new MapSqlParameterSource()
-            .addValue("id", pet.getId())
-            .addValue("name", pet.getName())
-            .addValue("birth_date", pet.getBirthDate())
-            .addValue("type_id", pet.getType().getId())
-            .addValue("owner_id", pet.getOwner().getId());
-    }
-
 	@Override
 	public Collection<Pet> findAll() throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
 		Collection<Pet> pets = new ArrayList<>();
 		Collection<JdbcPet> jdbcPets;
 		jdbcPets = this.namedParameterJdbcTemplate
-				.query("SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets",
-				params,
+				.query("SELECT " + JdbcPetRowMapper.COLUMNS + " FROM pets",
+				EmptySqlParameterSource.INSTANCE,
 				new JdbcPetRowMapper());
-		Collection<PetType> petTypes = this.namedParameterJdbcTemplate.query("SELECT id, name FROM types ORDER BY name",
-				new HashMap<String,
-				Object>(), BeanPropertyRowMapper.newInstance(PetType.class));
-		Collection<Owner> owners = this.namedParameterJdbcTemplate.query(
-				"SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY last_name",
-				new HashMap<String, Object>(),
-				BeanPropertyRowMapper.newInstance(Owner.class));
+		EntityIndex<PetType> petTypes = EntityIndex.of(this.namedParameterJdbcTemplate.query("SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types ORDER BY name",
+				EmptySqlParameterSource.INSTANCE, PET_TYPE_ROW_MAPPER), PetType.class);
+		EntityIndex<Owner> owners = EntityIndex.of(this.namedParameterJdbcTemplate.query(
+				"SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners ORDER BY last_name",
+				EmptySqlParameterSource.INSTANCE,
+				OWNER_ROW_MAPPER), Owner.class);
 		for (JdbcPet jdbcPet : jdbcPets) {
-			jdbcPet.setType(EntityUtils.getById(petTypes, PetType.class, jdbcPet.getTypeId()));
-			jdbcPet.setOwner(EntityUtils.getById(owners, Owner.class, jdbcPet.getOwnerId()));
+			jdbcPet.setType(petTypes.getById(jdbcPet.getTypeId()));
+			jdbcPet.setOwner(owners.getById(jdbcPet.getOwnerId()));
 			// TODO add visits
 			pets.add(jdbcPet);
 		}
@@ -152,27 +151,13 @@ public class JdbcPetRepositoryImpl implements PetRepository {
 
     @Override
     public Page<Pet> findAll(@NonNull Pageable pageable) throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("size", pageable.getPageSize());
-        params.put("offset", pageable.getOffset());
+        MapSqlParameterSource params = new MapSqlParameterSource("size", pageable.getPageSize())
+            .addValue("offset", pageable.getOffset());
         List<JdbcPet> jdbcPets = this.namedParameterJdbcTemplate.query(
-            "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets ORDER BY id LIMIT :size OFFSET :offset",
+            "SELECT " + JdbcPetRowMapper.COLUMNS + " FROM pets ORDER BY id LIMIT :size OFFSET :offset",
             params,
             new JdbcPetRowMapper());
-        Collection<PetType> petTypes = this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name",
-            new HashMap<String, Object>(),
-            BeanPropertyRowMapper.newInstance(PetType.class));
-
-        Collection<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY last_name",
-            new HashMap<String, Object>(),
-            BeanPropertyRowMapper.newInstance(Owner.class));
-
-        for (JdbcPet jdbcPet : jdbcPets) {
-            jdbcPet.setType(EntityUtils.getById(petTypes, PetType.class, jdbcPet.getTypeId()));
-            jdbcPet.setOwner(EntityUtils.getById(owners, Owner.class, jdbcPet.getOwnerId()));
-        }
+        setTypesAndOwners(jdbcPets);
 
         Long total = this.namedParameterJdbcTemplate.queryForObject(
             "SELECT count(*) FROM pets",
@@ -181,18 +166,61 @@ public class JdbcPetRepositoryImpl implements PetRepository {
         return new PageImpl<>(new ArrayList<>(jdbcPets), pageable, total == null ? 0 : total);
     }
 
+    @Override
+    public List<Pet> findAllAfter(int id, int limit) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id)
+            .addValue("limit", limit);
+        List<JdbcPet> jdbcPets = this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcPetRowMapper.COLUMNS + " FROM pets WHERE id > :id ORDER BY id LIMIT :limit",
+            params,
+            new JdbcPetRowMapper());
+        setTypesAndOwners(jdbcPets);
+        return new ArrayList<>(jdbcPets);
+    }
+
+    @Override
+    public List<PetSummary> findAllSummaries() throws DataAccessException {
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcPetSummaryRowMapper.COLUMNS + " FROM pets ORDER BY id",
+            PET_SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Integer> findExistingIds(Collection<Integer> ids) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.queryForList(
+            "SELECT id FROM pets WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids), Integer.class);
+    }
+
+    /**
+     * Resolves the types and owners of a page of pets, reading only the owners referenced by the page.
+     */
+    private void setTypesAndOwners(List<JdbcPet> jdbcPets) {
+        if (jdbcPets.isEmpty()) {
+            return;
+        }
+        EntityIndex<PetType> petTypes = EntityIndex.of(this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types ORDER BY name",
+            EmptySqlParameterSource.INSTANCE,
+            PET_TYPE_ROW_MAPPER), PetType.class);
+        Set<Integer> ownerIds = new HashSet<>();
+        for (JdbcPet jdbcPet : jdbcPets) {
+            ownerIds.add(jdbcPet.getOwnerId());
+        }
+        EntityIndex<Owner> owners = EntityIndex.of(this.namedParameterJdbcTemplate.query(
+            "SELECT " + JdbcOwnerRowMapper.COLUMNS + " FROM owners WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ownerIds),
+            OWNER_ROW_MAPPER), Owner.class);
+        for (JdbcPet jdbcPet : jdbcPets) {
+            jdbcPet.setType(petTypes.getById(jdbcPet.getTypeId()));
+            jdbcPet.setOwner(owners.getById(jdbcPet.getOwnerId()));
+        }
+    }
+
 	@Override
 	public void delete(Pet pet) throws DataAccessException {
-		Map<String, Object> petParams = new HashMap<>();
-		petParams.put("id", pet.getId());
-		List<Visit> visits = pet.getVisits();
-		// cascade delete visits
-		for (Visit visit : visits) {
-			Map<String, Object> visitParams = new HashMap<>();
-			visitParams.put("id", visit.getId());
-			this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", visitParams);
-		}
-		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", petParams);
+		MapSqlParameterSource params = new MapSqlParameterSource("id", pet.getId());
+		this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE pet_id=:id", params);
+		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", params);
 	}
 
 }
@@ -24,17 +24,34 @@ import java.time.LocalDate;
 /**
  * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
  * of the {@link JdbcPet} class.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order, starting at the column the
+ * mapper is created with.
  */
 public class JdbcPetRowMapper implements RowMapper<JdbcPet> {
 
+    static final String COLUMNS = "pets.id, pets.name, pets.birth_date, pets.type_id, pets.owner_id";
+
+    static final int COLUMN_COUNT = 5;
+
+    private final int first;
+
+    public JdbcPetRowMapper() {
+        this(1);
+    }
+
+    JdbcPetRowMapper(int firstColumn) {
+        this.first = firstColumn;
+    }
+
     @Override
     public JdbcPet mapRow(ResultSet rs, int rownum) throws SQLException {
         JdbcPet pet = new JdbcPet();
-        pet.setId(rs.getInt("pets_id"));
-        pet.setName(rs.getString("name"));
-        pet.setBirthDate(rs.getObject("birth_date", LocalDate.class));
-        pet.setTypeId(rs.getInt("type_id"));
-        pet.setOwnerId(rs.getInt("owner_id"));
+        pet.setId(rs.getInt(this.first));
+        pet.setName(rs.getString(this.first + 1));
+        pet.setBirthDate(rs.getObject(this.first + 2, LocalDate.class));
+        pet.setTypeId(rs.getInt(this.first + 3));
+        pet.setOwnerId(rs.getInt(this.first + 4));
         return pet;
     }
 }
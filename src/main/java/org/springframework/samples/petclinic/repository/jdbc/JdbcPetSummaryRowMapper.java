@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.PetSummary;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to a {@link PetSummary}; shared with the
+ * Spring Data JDBC repositories.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order.
+ */
+public class JdbcPetSummaryRowMapper implements RowMapper<PetSummary> {
+
+    public static final String COLUMNS = "pets.id, pets.name, pets.birth_date, pets.owner_id";
+
+    @Override
+    public PetSummary mapRow(ResultSet rs, int row) throws SQLException {
+        return new PetSummary(rs.getInt(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getInt(4));
+    }
+}
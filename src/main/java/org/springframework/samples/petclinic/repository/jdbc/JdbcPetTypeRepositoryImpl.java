@@ -16,10 +16,8 @@
 
 package org.springframework.samples.petclinic.repository.jdbc;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -27,15 +25,16 @@ import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitializat
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.orm.ObjectRetrievalFailureException;
-import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
-import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.PetTypeRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -48,6 +47,14 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
 
+	private static final RowMapper<PetType> PET_TYPE_ROW_MAPPER = new JdbcPetTypeRowMapper();
+
+	private static final JdbcParameterBinder<PetType> PET_TYPE_BINDER = JdbcParameterBinder.<PetType>builder()
+		.column("id", PetType::getId)
+		.column("name", PetType::getName)
+		.column("last_modified", PetType::getLastModified)
+		.build();
+
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
 	private SimpleJdbcInsert insertPetType;
@@ -63,12 +70,11 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
 	public PetType findById(int id) {
 		PetType petType;
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
+            MapSqlParameterSource params = new MapSqlParameterSource("id", id);
             petType = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE id= :id",
+                "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types WHERE id= :id",
                 params,
-                BeanPropertyRowMapper.newInstance(PetType.class));
+                PET_TYPE_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(PetType.class, id);
         }
@@ -79,12 +85,11 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
     public PetType findByName(String name) throws DataAccessException {
         PetType petType;
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("name", name);
+            MapSqlParameterSource params = new MapSqlParameterSource("name", name);
             petType = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE name= :name",
+                "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types WHERE name= :name",
                 params,
-                BeanPropertyRowMapper.newInstance(PetType.class));
+                PET_TYPE_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(PetType.class, name);
         }
@@ -93,52 +98,43 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
 
     @Override
 	public Collection<PetType> findAll() throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types",
-            params,
-            BeanPropertyRowMapper.newInstance(PetType.class));
+            "SELECT " + JdbcPetTypeRowMapper.COLUMNS + " FROM types",
+            EmptySqlParameterSource.INSTANCE,
+            PET_TYPE_ROW_MAPPER);
+	}
+
+	@Override
+	public String findVersionOfAll() throws DataAccessException {
+		return this.namedParameterJdbcTemplate.queryForObject(
+			"SELECT MAX(last_modified), COUNT(*) FROM types",
+			EmptySqlParameterSource.INSTANCE,
+			(rs, rowNum) -> EntityUtils.versionTag(rs.getObject(1, LocalDateTime.class), rs.getLong(2)));
 	}
 
 	@Override
 	public void save(PetType petType) throws DataAccessException {
-		BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(petType);
+		petType.markModified();
+		SqlParameterSource parameterSource = PET_TYPE_BINDER.bind(petType);
 		if (petType.isNew()) {
             Number newKey = this.insertPetType.executeAndReturnKey(parameterSource);
             petType.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update("UPDATE types SET name=:name WHERE id=:id",
+            this.namedParameterJdbcTemplate.update("UPDATE types SET name=:name, last_modified=:last_modified WHERE id=:id",
                 parameterSource);
         }
 	}
 
+	/**
+	 * Deletes the pet type with its pets and their visits in three set-based statements.
+	 */
 	@Override
 	public void delete(PetType petType) throws DataAccessException {
-		Map<String, Object> pettypeParams = new HashMap<>();
-		pettypeParams.put("id", petType.getId());
-		List<Pet> pets;
-		pets = this.namedParameterJdbcTemplate.
-    			query("SELECT pets.id, name, birth_date, type_id, owner_id FROM pets WHERE type_id=:id",
-    			pettypeParams,
-    			BeanPropertyRowMapper.newInstance(Pet.class));
-		// cascade delete pets
-		for (Pet pet : pets){
-			Map<String, Object> petParams = new HashMap<>();
-			petParams.put("id", pet.getId());
-			List<Visit> visits;
-			visits = this.namedParameterJdbcTemplate.query(
-		            "SELECT id, pet_id, visit_date, description FROM visits WHERE pet_id = :id",
-		            petParams,
-		            BeanPropertyRowMapper.newInstance(Visit.class));
-	        // cascade delete visits
-	        for (Visit visit : visits){
-	        	Map<String, Object> visitParams = new HashMap<>();
-	        	visitParams.put("id", visit.getId());
-	        	this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", visitParams);
-	        }
-	        this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", petParams);
-        }
-        this.namedParameterJdbcTemplate.update("DELETE FROM types WHERE id=:id", pettypeParams);
+		MapSqlParameterSource params = new MapSqlParameterSource("id", petType.getId());
+		this.namedParameterJdbcTemplate.update(
+			"DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE type_id=:id)", params);
+		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE type_id=:id", params);
+		this.namedParameterJdbcTemplate.update("DELETE FROM types WHERE id=:id", params);
 	}
 
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.PetType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
+ * of the {@link PetType} class.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order, starting at the column the
+ * mapper is created with.
+ */
+class JdbcPetTypeRowMapper implements RowMapper<PetType> {
+
+    static final String COLUMNS = "types.id, types.name";
+
+    static final int COLUMN_COUNT = 2;
+
+    private final int first;
+
+    JdbcPetTypeRowMapper() {
+        this(1);
+    }
+
+    JdbcPetTypeRowMapper(int firstColumn) {
+        this.first = firstColumn;
+    }
+
+    @Override
+    public PetType mapRow(ResultSet rs, int row) throws SQLException {
+        PetType petType = new PetType();
+        petType.setId(rs.getInt(this.first));
+        petType.setName(rs.getString(this.first + 1));
+        return petType;
+    }
+}
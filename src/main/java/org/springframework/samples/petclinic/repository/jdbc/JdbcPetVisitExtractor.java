@@ -29,21 +29,30 @@ import java.sql.SQLException;
 public class JdbcPetVisitExtractor extends
     OneToManyResultSetExtractor<JdbcPet, Visit, Integer> {
 
+    /**
+     * The pets with their visits, if any; the caller adds the conditions and orders by pet.
+     */
+    static final String SELECT_PETS =
+        "SELECT " + JdbcPetRowMapper.COLUMNS + ", " + JdbcVisitRowMapper.COLUMNS + " " +
+            "FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id";
+
+    private static final int VISIT_COLUMN = 1 + JdbcPetRowMapper.COLUMN_COUNT;
+
     public JdbcPetVisitExtractor() {
-        super(new JdbcPetRowMapper(), new JdbcVisitRowMapper());
+        super(new JdbcPetRowMapper(), new JdbcVisitRowMapper(VISIT_COLUMN));
     }
 
     @Override
     protected Integer mapPrimaryKey(ResultSet rs) throws SQLException {
-        return rs.getInt("pets_id");
+        return rs.getInt(1);
     }
 
     @Override
     protected Integer mapForeignKey(ResultSet rs) throws SQLException {
-        if (rs.getObject("visits_pet_id") == null) {
+        if (rs.getObject(VISIT_COLUMN) == null) {
             return null;
         } else {
-            return rs.getInt("visits_pet_id");
+            return rs.getInt(1);
         }
     }
 
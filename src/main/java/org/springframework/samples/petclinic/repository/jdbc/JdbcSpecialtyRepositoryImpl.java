@@ -24,9 +24,11 @@ import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitializat
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
@@ -43,6 +45,14 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 
+	private static final RowMapper<Specialty> SPECIALTY_ROW_MAPPER = new JdbcSpecialtyRowMapper();
+
+	private static final JdbcParameterBinder<Specialty> SPECIALTY_BINDER = JdbcParameterBinder.<Specialty>builder()
+		.column("id", Specialty::getId)
+		.column("name", Specialty::getName)
+		.column("last_modified", Specialty::getLastModified)
+		.build();
+
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
 	private SimpleJdbcInsert insertSpecialty;
@@ -58,12 +68,11 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 	public Specialty findById(int id) {
 		Specialty specialty;
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
+            MapSqlParameterSource params = new MapSqlParameterSource("id", id);
             specialty = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM specialties WHERE id= :id",
+                "SELECT " + JdbcSpecialtyRowMapper.COLUMNS + " FROM specialties WHERE id= :id",
                 params,
-                BeanPropertyRowMapper.newInstance(Specialty.class));
+                SPECIALTY_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex) {
             throw new ObjectRetrievalFailureException(Specialty.class, id);
         }
@@ -74,13 +83,12 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
     public List<Specialty> findSpecialtiesByNameIn(Set<String> names) {
         List<Specialty> specialties;
         try{
-            String sql = "SELECT id, name FROM specialties WHERE specialties.name IN (:names)";
-            Map<String, Object> params = new HashMap<>();
-            params.put("names", names);
+            String sql = "SELECT " + JdbcSpecialtyRowMapper.COLUMNS + " FROM specialties WHERE specialties.name IN (:names)";
+            MapSqlParameterSource params = new MapSqlParameterSource("names", names);
             specialties = this.namedParameterJdbcTemplate.query(
                 sql,
                 params,
-                new BeanPropertyRowMapper<>(Specialty.class));
+                SPECIALTY_ROW_MAPPER);
         } catch (EmptyResultDataAccessException ex){
             throw new ObjectRetrievalFailureException(Specialty.class, names);
         }
@@ -90,21 +98,21 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 
     @Override
 	public Collection<Specialty> findAll() throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM specialties",
-            params,
-            BeanPropertyRowMapper.newInstance(Specialty.class));
+            "SELECT " + JdbcSpecialtyRowMapper.COLUMNS + " FROM specialties",
+            EmptySqlParameterSource.INSTANCE,
+            SPECIALTY_ROW_MAPPER);
 	}
 
 	@Override
 	public void save(Specialty specialty) throws DataAccessException {
-		BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(specialty);
+		specialty.markModified();
+		SqlParameterSource parameterSource = SPECIALTY_BINDER.bind(specialty);
 		if (specialty.isNew()) {
             Number newKey = this.insertSpecialty.executeAndReturnKey(parameterSource);
             specialty.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update("UPDATE specialties SET name=:name WHERE id=:id",
+            this.namedParameterJdbcTemplate.update("UPDATE specialties SET name=:name, last_modified=:last_modified WHERE id=:id",
                 parameterSource);
         }
 
@@ -112,8 +120,7 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 
 	@Override
 	public void delete(Specialty specialty) throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
-        params.put("id", specialty.getId());
+		MapSqlParameterSource params = new MapSqlParameterSource("id", specialty.getId());
         this.namedParameterJdbcTemplate.update("DELETE FROM vet_specialties WHERE specialty_id=:id", params);
         this.namedParameterJdbcTemplate.update("DELETE FROM specialties WHERE id=:id", params);
 	}
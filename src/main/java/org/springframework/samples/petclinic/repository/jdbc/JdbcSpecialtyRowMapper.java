@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.Specialty;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
+ * of the {@link Specialty} class.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order, starting at the column the
+ * mapper is created with.
+ */
+class JdbcSpecialtyRowMapper implements RowMapper<Specialty> {
+
+    static final String COLUMNS = "specialties.id, specialties.name";
+
+    static final int COLUMN_COUNT = 2;
+
+    private final int first;
+
+    JdbcSpecialtyRowMapper() {
+        this(1);
+    }
+
+    JdbcSpecialtyRowMapper(int firstColumn) {
+        this.first = firstColumn;
+    }
+
+    @Override
+    public Specialty mapRow(ResultSet rs, int row) throws SQLException {
+        Specialty specialty = new Specialty();
+        specialty.setId(rs.getInt(this.first));
+        specialty.setName(rs.getString(this.first + 1));
+        return specialty;
+    }
+}
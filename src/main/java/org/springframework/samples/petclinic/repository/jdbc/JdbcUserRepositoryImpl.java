@@ -1,7 +1,5 @@
 package org.springframework.samples.petclinic.repository.jdbc;
 
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -9,9 +7,10 @@ import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitializat
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.samples.petclinic.model.Role;
 import org.springframework.samples.petclinic.model.User;
@@ -23,6 +22,14 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcUserRepositoryImpl implements UserRepository {
 
+    private static final RowMapper<User> USER_ROW_MAPPER = new JdbcUserRowMapper();
+
+    private static final JdbcParameterBinder<User> USER_BINDER = JdbcParameterBinder.<User>builder()
+        .column("username", User::getUsername)
+        .column("password", User::getPassword)
+        .column("enabled", User::getEnabled)
+        .build();
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private SimpleJdbcInsert insertUser;
 
@@ -34,7 +41,7 @@ public class JdbcUserRepositoryImpl implements UserRepository {
     @Override
     public void save(User user) throws DataAccessException {
 
-        BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(user);
+        SqlParameterSource parameterSource = USER_BINDER.bind(user);
 
         try {
             getByUsername(user.getUsername());
@@ -48,18 +55,16 @@ public class JdbcUserRepositoryImpl implements UserRepository {
 
     private User getByUsername(String username) {
 
-        Map<String, Object> params = new HashMap<>();
-        params.put("username", username);
-        return this.namedParameterJdbcTemplate.queryForObject("SELECT * FROM users WHERE username=:username",
-            params, BeanPropertyRowMapper.newInstance(User.class));
+        MapSqlParameterSource params = new MapSqlParameterSource("username", username);
+        return this.namedParameterJdbcTemplate.queryForObject("SELECT " + JdbcUserRowMapper.COLUMNS + " FROM users WHERE username=:username",
+            params, USER_ROW_MAPPER);
     }
 
     private void updateUserRoles(User user) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("username", user.getUsername());
+        MapSqlParameterSource params = new MapSqlParameterSource("username", user.getUsername());
         this.namedParameterJdbcTemplate.update("DELETE FROM roles WHERE username=:username", params);
         for (Role role : user.getRoles()) {
-            params.put("role", role.getName());
+            params.addValue("role", role.getName());
             if (role.getName() != null) {
                 this.namedParameterJdbcTemplate.update("INSERT INTO roles(username, role) VALUES (:username, :role)", params);
             }
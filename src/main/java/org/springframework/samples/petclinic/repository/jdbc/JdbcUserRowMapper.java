@@ -0,0 +1,43 @@
+/*
+ * Copyright 2002-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.samples.petclinic.model.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
+ * of the {@link User} class. Roles are not read.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order.
+ */
+class JdbcUserRowMapper implements RowMapper<User> {
+
+    static final String COLUMNS = "username, password, enabled";
+
+    @Override
+    public User mapRow(ResultSet rs, int row) throws SQLException {
+        User user = new User();
+        user.setUsername(rs.getString(1));
+        user.setPassword(rs.getString(2));
+        boolean enabled = rs.getBoolean(3);
+        user.setEnabled(rs.wasNull() ? null : enabled);
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * {@link ResultSetExtractor} implementation mapping the rows of a
+ * <code>vets LEFT JOIN vet_specialties LEFT JOIN specialties</code> query to {@link Vet Vets} in a single pass.
+ * Vets keep the order of the result set and each distinct specialty is mapped only once.
+ */
+public class JdbcVetExtractor implements ResultSetExtractor<List<Vet>> {
+
+    /**
+     * The vet columns, read by position, followed by {@link JdbcSpecialtyRowMapper#COLUMNS}.
+     */
+    static final String COLUMNS = "vets.id, vets.first_name, vets.last_name, " + JdbcSpecialtyRowMapper.COLUMNS;
+
+    public static final String SELECT_VETS =
+        "SELECT " + COLUMNS + " FROM vets LEFT OUTER JOIN vet_specialties ON vets.id = vet_specialties.vet_id " +
+            "LEFT OUTER JOIN specialties ON vet_specialties.specialty_id = specialties.id";
+
+    private static final int SPECIALTY_COLUMN = 4;
+
+    private final JdbcSpecialtyRowMapper specialtyRowMapper = new JdbcSpecialtyRowMapper(SPECIALTY_COLUMN);
+
+    @Override
+    public List<Vet> extractData(ResultSet rs) throws SQLException {
+        List<Vet> vets = new ArrayList<>();
+        EntityIndex<Vet> vetsById = new EntityIndex<>(Vet.class);
+        EntityIndex<Specialty> specialties = new EntityIndex<>(Specialty.class);
+        int row = 0;
+        while (rs.next()) {
+            int vetId = rs.getInt(1);
+            Vet vet = vetsById.get(vetId);
+            if (vet == null) {
+                vet = new Vet();
+                vet.setId(vetId);
+                vet.setFirstName(rs.getString(2));
+                vet.setLastName(rs.getString(3));
+                vetsById.add(vet);
+                vets.add(vet);
+            }
+            int specialtyId = rs.getInt(SPECIALTY_COLUMN);
+            if (!rs.wasNull()) {
+                Specialty specialty = specialties.get(specialtyId);
+                if (specialty == null) {
+                    specialty = this.specialtyRowMapper.mapRow(rs, row);
+                    specialties.add(specialty);
+                }
+                vet.addSpecialty(specialty);
+            }
+            row++;
+        }
+        return vets;
+    }
+
+}
@@ -15,24 +15,19 @@
  */
 package org.springframework.samples.petclinic.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.sql.DataSource;
 
 import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
@@ -58,6 +53,13 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcVetRepositoryImpl implements VetRepository {
 
+	private static final JdbcParameterBinder<Vet> VET_BINDER = JdbcParameterBinder.<Vet>builder()
+		.column("id", Vet::getId)
+		.column("first_name", Vet::getFirstName)
+		.column("last_name", Vet::getLastName)
+		.column("last_modified", Vet::getLastModified)
+		.build();
+
     private JdbcTemplate jdbcTemplate;
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 	private SimpleJdbcInsert insertVet;
@@ -70,101 +72,67 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 
     /**
      * Refresh the cache of Vets that the ClinicService is holding.
+     * <p>
+     * Vets and their specialties are read with a single outer join query.
      */
     @Override
     public Collection<Vet> findAll() throws DataAccessException {
-        List<Vet> vets = new ArrayList<>();
-        // Retrieve the list of all vets.
-        vets.addAll(this.jdbcTemplate.query(
-            "SELECT id, first_name, last_name FROM vets ORDER BY last_name,first_name",
-            BeanPropertyRowMapper.newInstance(Vet.class)));
-
-        // Retrieve the list of all possible specialties.
-        final List<Specialty> specialties = this.jdbcTemplate.query(
-            "SELECT id, name FROM specialties",
-            BeanPropertyRowMapper.newInstance(Specialty.class));
+        return this.jdbcTemplate.query(
+            JdbcVetExtractor.SELECT_VETS + " ORDER BY vets.last_name, vets.first_name, vets.id",
+            new JdbcVetExtractor());
+    }
 
-        // Build each vet's list of specialties.
-        for (Vet vet : vets) {
-            final List<Integer> vetSpecialtiesIds = this.jdbcTemplate.query(
-                "SELECT specialty_id FROM vet_specialties WHERE vet_id=?",
-                new BeanPropertyRowMapper<Integer>() {
-                    @Override
-                    public Integer mapRow(ResultSet rs, int row) throws SQLException {
-                        return rs.getInt(1);
-                    }
-                },
-                vet.getId());
-            for (int specialtyId : vetSpecialtiesIds) {
-                Specialty specialty = EntityUtils.getById(specialties, Specialty.class, specialtyId);
-                vet.addSpecialty(specialty);
-            }
-        }
-        return vets;
+    @Override
+    public String findVersionOfAll() throws DataAccessException {
+        return this.jdbcTemplate.queryForObject(
+            "SELECT MAX(vets.last_modified), COUNT(DISTINCT vets.id), MAX(specialties.last_modified), " +
+                "COUNT(vet_specialties.specialty_id) FROM vets " +
+                "LEFT OUTER JOIN vet_specialties ON vet_specialties.vet_id = vets.id " +
+                "LEFT OUTER JOIN specialties ON specialties.id = vet_specialties.specialty_id",
+            (rs, rowNum) -> EntityUtils.versionTag(
+                rs.getObject(1, LocalDateTime.class), rs.getLong(2),
+                rs.getObject(3, LocalDateTime.class), rs.getLong(4)));
     }
 
 	@Override
 	public Vet findById(int id) throws DataAccessException {
-		Vet vet;
-		try {
-			Map<String, Object> vetParams = new HashMap<>();
-			vetParams.put("id", id);
-			vet = this.namedParameterJdbcTemplate.queryForObject(
-					"SELECT id, first_name, last_name FROM vets WHERE id= :id",
-					vetParams,
-					BeanPropertyRowMapper.newInstance(Vet.class));
-
-			final List<Specialty> specialties = this.namedParameterJdbcTemplate.query(
-					"SELECT id, name FROM specialties", vetParams, BeanPropertyRowMapper.newInstance(Specialty.class));
-
-			final List<Integer> vetSpecialtiesIds = this.namedParameterJdbcTemplate.query(
-					"SELECT specialty_id FROM vet_specialties WHERE vet_id=:id",
-					vetParams,
-					new BeanPropertyRowMapper<Integer>() {
-						@Override
-						public Integer mapRow(ResultSet rs, int row) throws SQLException {
-							return rs.getInt(1);
-						}
-					});
-			for (int specialtyId : vetSpecialtiesIds) {
-				Specialty specialty = EntityUtils.getById(specialties, Specialty.class, specialtyId);
-				vet.addSpecialty(specialty);
-			}
-
-		} catch (EmptyResultDataAccessException ex) {
+		List<Vet> vets = this.namedParameterJdbcTemplate.query(
+				JdbcVetExtractor.SELECT_VETS + " WHERE vets.id= :id",
+				new MapSqlParameterSource("id", id),
+				new JdbcVetExtractor());
+		if (vets.isEmpty()) {
 			throw new ObjectRetrievalFailureException(Vet.class, id);
 		}
-		return vet;
+		return vets.get(0);
 	}
 
 	@Override
 	public void save(Vet vet) throws DataAccessException {
-		BeanPropertySqlParameterSource parameterSource = new BeanPropertySqlParameterSource(vet);
+		vet.markModified();
+		SqlParameterSource parameterSource = VET_BINDER.bind(vet);
 		if (vet.isNew()) {
 			Number newKey = this.insertVet.executeAndReturnKey(parameterSource);
 			vet.setId(newKey.intValue());
 			updateVetSpecialties(vet);
 		} else {
 			this.namedParameterJdbcTemplate
-					.update("UPDATE vets SET first_name=:firstName, last_name=:lastName WHERE id=:id", parameterSource);
+					.update("UPDATE vets SET first_name=:first_name, last_name=:last_name, last_modified=:last_modified WHERE id=:id", parameterSource);
 			updateVetSpecialties(vet);
 		}
 	}
 
 	@Override
 	public void delete(Vet vet) throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
-		params.put("id", vet.getId());
+		MapSqlParameterSource params = new MapSqlParameterSource("id", vet.getId());
 		this.namedParameterJdbcTemplate.update("DELETE FROM vet_specialties WHERE vet_id=:id", params);
 		this.namedParameterJdbcTemplate.update("DELETE FROM vets WHERE id=:id", params);
 	}
 
 	private void updateVetSpecialties(Vet vet) throws DataAccessException {
-		Map<String, Object> params = new HashMap<>();
-		params.put("id", vet.getId());
+		MapSqlParameterSource params = new MapSqlParameterSource("id", vet.getId());
 		this.namedParameterJdbcTemplate.update("DELETE FROM vet_specialties WHERE vet_id=:id", params);
 		for (Specialty spec : vet.getSpecialties()) {
-			params.put("spec_id", spec.getId());
+			params.addValue("spec_id", spec.getId());
 			if(spec.getId() != null) {
 				this.namedParameterJdbcTemplate.update("INSERT INTO vet_specialties VALUES (:id, :spec_id)", params);
 			}
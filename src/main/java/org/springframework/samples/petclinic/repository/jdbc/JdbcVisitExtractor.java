@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * {@link ResultSetExtractor} implementation mapping the rows of a <code>visits JOIN pets JOIN types JOIN owners</code>
+ * query to {@link Visit Visits}. Each distinct pet, pet type and owner is mapped only once and shared by all the
+ * visits that reference it.
+ */
+class JdbcVisitExtractor implements ResultSetExtractor<List<Visit>> {
+
+    static final String SELECT_VISITS =
+        "SELECT " + JdbcVisitRowMapper.COLUMNS + ", " + JdbcPetRowMapper.COLUMNS + ", " +
+            JdbcPetTypeRowMapper.COLUMNS + ", " + JdbcOwnerRowMapper.COLUMNS + " " +
+            "FROM visits JOIN pets ON visits.pet_id = pets.id JOIN types ON pets.type_id = types.id " +
+            "JOIN owners ON pets.owner_id = owners.id";
+
+    private static final int PET_COLUMN = 1 + JdbcVisitRowMapper.COLUMN_COUNT;
+
+    private static final int TYPE_COLUMN = PET_COLUMN + JdbcPetRowMapper.COLUMN_COUNT;
+
+    private static final int OWNER_COLUMN = TYPE_COLUMN + JdbcPetTypeRowMapper.COLUMN_COUNT;
+
+    private final JdbcVisitRowMapper visitRowMapper = new JdbcVisitRowMapper();
+
+    private final JdbcPetRowMapper petRowMapper = new JdbcPetRowMapper(PET_COLUMN);
+
+    private final JdbcPetTypeRowMapper petTypeRowMapper = new JdbcPetTypeRowMapper(TYPE_COLUMN);
+
+    private final JdbcOwnerRowMapper ownerRowMapper = new JdbcOwnerRowMapper(OWNER_COLUMN);
+
+    @Override
+    public List<Visit> extractData(ResultSet rs) throws SQLException {
+        EntityIndex<JdbcPet> pets = new EntityIndex<>(JdbcPet.class);
+        EntityIndex<PetType> petTypes = new EntityIndex<>(PetType.class);
+        EntityIndex<Owner> owners = new EntityIndex<>(Owner.class);
+        List<Visit> visits = new ArrayList<>();
+        int row = 0;
+        while (rs.next()) {
+            JdbcPet pet = pets.get(rs.getInt(PET_COLUMN));
+            if (pet == null) {
+                pet = this.petRowMapper.mapRow(rs, row);
+                PetType petType = petTypes.get(pet.getTypeId());
+                if (petType == null) {
+                    petType = this.petTypeRowMapper.mapRow(rs, row);
+                    petTypes.add(petType);
+                }
+                pet.setType(petType);
+                Owner owner = owners.get(pet.getOwnerId());
+                if (owner == null) {
+                    owner = this.ownerRowMapper.mapRow(rs, row);
+                    owners.add(owner);
+                }
+                pet.setOwner(owner);
+                pets.add(pet);
+            }
+            Visit visit = this.visitRowMapper.mapRow(rs, row++);
+            visit.setPet(pet);
+            visits.add(visit);
+        }
+        return visits;
+    }
+
+}
@@ -15,28 +15,25 @@
  */
 package org.springframework.samples.petclinic.repository.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.orm.ObjectRetrievalFailureException;
-import org.springframework.samples.petclinic.model.Owner;
-import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.VisitRepository;
 import org.springframework.stereotype.Repository;
@@ -58,11 +55,21 @@ import org.springframework.stereotype.Repository;
 @Profile("jdbc")
 public class JdbcVisitRepositoryImpl implements VisitRepository {
 
+    private static final JdbcParameterBinder<Visit> VISIT_BINDER = JdbcParameterBinder.<Visit>builder()
+        .column("id", Visit::getId)
+        .column("visit_date", Visit::getDate)
+        .column("description", Visit::getDescription)
+        .column("pet_id", visit -> visit.getPet().getId())
+        .column("last_modified", Visit::getLastModified)
+        .build();
+
     protected SimpleJdbcInsert insertVisit;
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final int batchSize;
 
-    public JdbcVisitRepositoryImpl(DataSource dataSource) {
+    public JdbcVisitRepositoryImpl(DataSource dataSource, @Value("${petclinic.jdbc.batch-size:100}") int batchSize) {
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.batchSize = batchSize;
 
         this.insertVisit = new SimpleJdbcInsert(dataSource)
             .withTableName("visits")
@@ -70,28 +77,16 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
     }
 
 
-    /**
-     * Creates a {@link MapSqlParameterSource} based on data values from the supplied {@link Visit} instance.
-     */
-    protected MapSqlParameterSource createVisitParameterSource(Visit visit) {
-        return new MapSqlParameterSource()
-            .addValue("id", visit.getId())
-            .addValue("visit_date", visit.getDate())
-            .addValue("description", visit.getDescription())
-            .addValue("pet_id", visit.getPet().getId());
-    }
-
     @Override
     public List<Visit> findByPetId(Integer petId) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("id", petId);
+        MapSqlParameterSource params = new MapSqlParameterSource("id", petId);
         JdbcPet pet = this.namedParameterJdbcTemplate.queryForObject(
-            "SELECT id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE id=:id",
+            "SELECT " + JdbcPetRowMapper.COLUMNS + " FROM pets WHERE id=:id",
             params,
             new JdbcPetRowMapper());
 
         List<Visit> visits = this.namedParameterJdbcTemplate.query(
-            "SELECT id as visit_id, visit_date, description FROM visits WHERE pet_id=:id",
+            "SELECT " + JdbcVisitRowMapper.COLUMNS + " FROM visits WHERE pet_id=:id",
             params, new JdbcVisitRowMapper());
 
         for (Visit visit : visits) {
@@ -103,77 +98,106 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
 
     @Override
     public Visit findById(int id) throws DataAccessException {
-        Visit visit;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            visit = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id as visit_id, visits.pet_id as pets_id, visit_date, description FROM visits WHERE id= :id",
-                params,
-                new JdbcVisitRowMapperExt());
-        } catch (EmptyResultDataAccessException ex) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        List<Visit> visits = this.namedParameterJdbcTemplate.query(
+            JdbcVisitExtractor.SELECT_VISITS + " WHERE visits.id= :id",
+            params,
+            new JdbcVisitExtractor());
+        if (visits.isEmpty()) {
             throw new ObjectRetrievalFailureException(Visit.class, id);
         }
-        return visit;
+        return visits.get(0);
     }
 
+    /**
+     * Loads all {@link Visit Visits} with a single join query; visits of the same pet share the same
+     * {@link org.springframework.samples.petclinic.model.Pet}, pet type and owner instances.
+     */
     @Override
     public Collection<Visit> findAll() throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT visits.id as visit_id, pets.id as pets_id, visit_date, description FROM visits LEFT JOIN pets ON visits.pet_id = pets.id",
-            params, new JdbcVisitRowMapperExt());
+            JdbcVisitExtractor.SELECT_VISITS,
+            EmptySqlParameterSource.INSTANCE,
+            new JdbcVisitExtractor());
     }
 
     @Override
     public void save(Visit visit) throws DataAccessException {
+        visit.markModified();
         if (visit.isNew()) {
-            Number newKey = this.insertVisit.executeAndReturnKey(createVisitParameterSource(visit));
+            Number newKey = this.insertVisit.executeAndReturnKey(VISIT_BINDER.bind(visit));
             visit.setId(newKey.intValue());
         } else {
             this.namedParameterJdbcTemplate.update(
-                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id WHERE id=:id ",
-                createVisitParameterSource(visit));
+                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id, " +
+                "last_modified=:last_modified WHERE id=:id ",
+                VISIT_BINDER.bind(visit));
         }
     }
 
+    /**
+     * Inserts new visits and updates existing ones with one JDBC batch per <code>petclinic.jdbc.batch-size</code>
+     * visits; the generated keys of each insert batch are read back in statement order.
+     */
     @Override
-    public void delete(Visit visit) throws DataAccessException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("id", visit.getId());
-        this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", params);
+    public void saveAll(Collection<Visit> visits) throws DataAccessException {
+        List<Visit> inserts = new ArrayList<>();
+        List<Visit> updates = new ArrayList<>();
+        for (Visit visit : visits) {
+            visit.markModified();
+            (visit.isNew() ? inserts : updates).add(visit);
+            if (inserts.size() == this.batchSize) {
+                insertBatch(inserts);
+                inserts.clear();
+            }
+            if (updates.size() == this.batchSize) {
+                updateBatch(updates);
+                updates.clear();
+            }
+        }
+        if (!inserts.isEmpty()) {
+            insertBatch(inserts);
+        }
+        if (!updates.isEmpty()) {
+            updateBatch(updates);
+        }
     }
 
-    protected class JdbcVisitRowMapperExt implements RowMapper<Visit> {
-
-        @Override
-        public Visit mapRow(ResultSet rs, int rowNum) throws SQLException {
-            Visit visit = new Visit();
-            visit.setId(rs.getInt("visit_id"));
-            Date visitDate = rs.getDate("visit_date");
-            visit.setDate(new java.sql.Date(visitDate.getTime()).toLocalDate());
-            visit.setDescription(rs.getString("description"));
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", rs.getInt("pets_id"));
-            JdbcPet pet = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE pets.id=:id",
-                params,
-                new JdbcPetRowMapper());
-            params.put("type_id", pet.getTypeId());
-            PetType petType = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE id= :type_id",
-                params,
-                BeanPropertyRowMapper.newInstance(PetType.class));
-            pet.setType(petType);
-            params.put("owner_id", pet.getOwnerId());
-            Owner owner = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :owner_id",
-                params,
-                BeanPropertyRowMapper.newInstance(Owner.class));
-            pet.setOwner(owner);
-            visit.setPet(pet);
-            return visit;
+    private void insertBatch(List<Visit> visits) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        this.namedParameterJdbcTemplate.batchUpdate(
+            "INSERT INTO visits (visit_date, description, pet_id, last_modified) " +
+                "VALUES (:visit_date, :description, :pet_id, :last_modified)",
+            toParameterSources(visits),
+            keyHolder,
+            new String[]{"id"});
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < visits.size(); i++) {
+            // the key column label differs between drivers (id, ID, GENERATED_KEY)
+            Number key = (Number) keys.get(i).values().iterator().next();
+            visits.get(i).setId(key.intValue());
+        }
+    }
+
+    private void updateBatch(List<Visit> visits) {
+        this.namedParameterJdbcTemplate.batchUpdate(
+            "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id, " +
+                "last_modified=:last_modified WHERE id=:id ",
+            toParameterSources(visits));
+    }
+
+    private SqlParameterSource[] toParameterSources(List<Visit> visits) {
+        SqlParameterSource[] parameterSources = new SqlParameterSource[visits.size()];
+        for (int i = 0; i < visits.size(); i++) {
+            parameterSources[i] = VISIT_BINDER.bind(visits.get(i));
         }
+        return parameterSources;
+    }
+
+    @Override
+    public void delete(Visit visit) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", visit.getId());
+        this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", params);
     }
 
 }
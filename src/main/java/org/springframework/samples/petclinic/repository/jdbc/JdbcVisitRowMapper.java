@@ -26,15 +26,32 @@ import java.time.LocalDate;
 /**
  * {@link RowMapper} implementation mapping data from a {@link ResultSet} to the corresponding properties
  * of the {@link Visit} class.
+ * <p>
+ * Columns are read by position, so the query must select {@link #COLUMNS} in this order, starting at the column the
+ * mapper is created with. The pet of the visit is left to the caller.
  */
 class JdbcVisitRowMapper implements RowMapper<Visit> {
 
+    static final String COLUMNS = "visits.id, visits.visit_date, visits.description";
+
+    static final int COLUMN_COUNT = 3;
+
+    private final int first;
+
+    JdbcVisitRowMapper() {
+        this(1);
+    }
+
+    JdbcVisitRowMapper(int firstColumn) {
+        this.first = firstColumn;
+    }
+
     @Override
     public Visit mapRow(ResultSet rs, int row) throws SQLException {
         Visit visit = new Visit();
-        visit.setId(rs.getInt("visit_id"));
-        visit.setDate(rs.getObject("visit_date", LocalDate.class));
-        visit.setDescription(rs.getString("description"));
+        visit.setId(rs.getInt(this.first));
+        visit.setDate(rs.getObject(this.first + 1, LocalDate.class));
+        visit.setDescription(rs.getString(this.first + 2));
         return visit;
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.model.VisitStats;
+import org.springframework.samples.petclinic.repository.VisitStatsRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A simple JDBC-based implementation of the {@link VisitStatsRepository} interface.
+ * <p>
+ * A new or deleted visit is counted with a single <code>UPDATE</code> of the pet's row, which {@link #addPet} creates
+ * with the pet. Only when the row does not exist, for a pet inserted outside the application, or a deleted visit was
+ * the first or last one, the figures are read from the visits of that pet, which the <code>(pet_id, visit_date)</code>
+ * index answers without reading the visits themselves.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("jdbc")
+public class JdbcVisitStatsRepositoryImpl implements VisitStatsRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public JdbcVisitStatsRepositoryImpl(DataSource dataSource) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void addPet(int petId) throws DataAccessException {
+        insertFromVisits(petId);
+    }
+
+    @Override
+    public void addVisit(int petId, LocalDate date) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", petId)
+            .addValue("date", date);
+        int updated = this.namedParameterJdbcTemplate.update(
+            "UPDATE visit_stats SET visit_count = visit_count + 1, " +
+                "first_visit_date = CASE WHEN first_visit_date IS NULL OR first_visit_date > :date " +
+                "THEN :date ELSE first_visit_date END, " +
+                "last_visit_date = CASE WHEN last_visit_date IS NULL OR last_visit_date < :date " +
+                "THEN :date ELSE last_visit_date END " +
+                "WHERE pet_id = :id",
+            params);
+        if (updated == 0) {
+            insertFromVisits(petId);
+        }
+    }
+
+    @Override
+    public void removeVisit(int petId, LocalDate date) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", petId)
+            .addValue("date", date);
+        // the dates only stay as they are if the visit was strictly between the first and the last one
+        int updated = this.namedParameterJdbcTemplate.update(
+            "UPDATE visit_stats SET visit_count = visit_count - 1 " +
+                "WHERE pet_id = :id AND first_visit_date < :date AND last_visit_date > :date",
+            params);
+        if (updated == 0) {
+            refresh(petId);
+        }
+    }
+
+    @Override
+    public void refresh(int petId) throws DataAccessException {
+        int updated = this.namedParameterJdbcTemplate.update(
+            "UPDATE visit_stats SET " +
+                "visit_count = (SELECT COUNT(*) FROM visits WHERE visits.pet_id = :id), " +
+                "first_visit_date = (SELECT MIN(visit_date) FROM visits WHERE visits.pet_id = :id), " +
+                "last_visit_date = (SELECT MAX(visit_date) FROM visits WHERE visits.pet_id = :id) " +
+                "WHERE pet_id = :id",
+            new MapSqlParameterSource("id", petId));
+        if (updated == 0) {
+            insertFromVisits(petId);
+        }
+    }
+
+    @Override
+    public int rebuild() throws DataAccessException {
+        this.namedParameterJdbcTemplate.getJdbcOperations().update("DELETE FROM visit_stats");
+        return this.namedParameterJdbcTemplate.getJdbcOperations().update(
+            "INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date) " +
+                "SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date) " +
+                "FROM pets LEFT JOIN visits ON visits.pet_id = pets.id GROUP BY pets.id");
+    }
+
+    /**
+     * A pet without a <code>visit_stats</code> row has had no visit since the table was filled, so it counts as
+     * having none.
+     */
+    @Override
+    public VisitStats findByPetId(int petId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException {
+        List<VisitStats> stats = this.namedParameterJdbcTemplate.query(
+            "SELECT visit_stats.visit_count, visit_stats.first_visit_date, visit_stats.last_visit_date, " +
+                "(SELECT COUNT(*) FROM visits WHERE visits.pet_id = pets.id " +
+                "AND visits.visit_date BETWEEN :since AND :until) AS recent_visit_count " +
+                "FROM pets LEFT JOIN visit_stats ON visit_stats.pet_id = pets.id WHERE pets.id = :id",
+            new MapSqlParameterSource()
+                .addValue("id", petId)
+                .addValue("since", recentSince)
+                .addValue("until", recentUntil),
+            (rs, rowNum) -> new VisitStats(
+                rs.getInt(1), rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class), rs.getInt(4)));
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    @Override
+    public VisitStats findByOwnerId(int ownerId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", ownerId)
+            .addValue("since", recentSince)
+            .addValue("until", recentUntil);
+        List<VisitStats> stats = this.namedParameterJdbcTemplate.query(
+            "SELECT SUM(visit_stats.visit_count) AS visit_count, MIN(visit_stats.first_visit_date) AS first_visit_date, " +
+                "MAX(visit_stats.last_visit_date) AS last_visit_date " +
+                "FROM owners LEFT JOIN pets ON pets.owner_id = owners.id " +
+                "LEFT JOIN visit_stats ON visit_stats.pet_id = pets.id " +
+                "WHERE owners.id = :id GROUP BY owners.id",
+            params,
+            (rs, rowNum) -> new VisitStats(
+                rs.getInt(1), rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class), 0));
+        if (stats.isEmpty()) {
+            return null;
+        }
+        Integer recent = this.namedParameterJdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM visits JOIN pets ON visits.pet_id = pets.id " +
+                "WHERE pets.owner_id = :id AND visits.visit_date BETWEEN :since AND :until",
+            params, Integer.class);
+        VisitStats owner = stats.get(0);
+        return new VisitStats(owner.getVisitCount(), owner.getFirstVisitDate(), owner.getLastVisitDate(), recent);
+    }
+
+    private void insertFromVisits(int petId) {
+        this.namedParameterJdbcTemplate.update(
+            "INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date) " +
+                "SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date) " +
+                "FROM pets LEFT JOIN visits ON visits.pet_id = pets.id WHERE pets.id = :id GROUP BY pets.id",
+            new MapSqlParameterSource("id", petId));
+    }
+
+}
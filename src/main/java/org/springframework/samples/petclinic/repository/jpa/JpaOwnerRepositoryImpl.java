@@ -17,6 +17,8 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -29,7 +31,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -45,23 +49,28 @@ import org.springframework.stereotype.Repository;
 @Profile("jpa")
 public class JpaOwnerRepositoryImpl implements OwnerRepository {
 
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
+    private static final String FETCH_SIZE = "org.hibernate.fetchSize";
+
+    private static final int EXPORT_FETCH_SIZE = 256;
+
+    private static final String SELECT_SUMMARY =
+        "SELECT new org.springframework.samples.petclinic.model.OwnerSummary(owner.id, owner.firstName, owner.lastName, owner.city) ";
+
     @PersistenceContext
     private EntityManager em;
 
 
     /**
-     * Important: in the current version of this method, we load Owners with all their Pets and Visits while
-     * we do not need Visits at all and we only need one property from the Pet objects (the 'name' property).
-     * There are some ways to improve it such as:
-     * - creating a Ligtweight class (example here: https://community.jboss.org/wiki/LightweightClass)
-     * - Turning on lazy-loading and using open session in view pattern
+     * Owners are loaded with their pets, pet types and visits through the <code>Owner.pets</code> entity graph,
+     * which the REST layer needs to render them once the transaction is over.
      */
     @SuppressWarnings("unchecked")
     public Collection<Owner> findByLastName(String lastName) {
-        // using 'join fetch' because a single query should load both owners and pets
-        // using 'left join fetch' because it might happen that an owner does not have pets yet
-        Query query = this.em.createQuery("SELECT DISTINCT owner FROM Owner owner left join fetch owner.pets WHERE owner.lastName LIKE :lastName");
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastName");
         query.setParameter("lastName", lastName + "%");
+        query.setHint(LOAD_GRAPH, this.em.getEntityGraph("Owner.pets"));
         return query.getResultList();
     }
 
@@ -73,22 +82,91 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
         query.setFirstResult((int) pageable.getOffset());
         query.setMaxResults(pageable.getPageSize());
         List<Owner> owners = query.getResultList();
+        fetchPets(owners);
         Query countQuery = this.em.createQuery("SELECT COUNT(owner) FROM Owner owner WHERE owner.lastName LIKE :lastName");
         countQuery.setParameter("lastName", lastName + "%");
         long total = (long) countQuery.getSingleResult();
         return new PageImpl<>(owners, pageable, total);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Owner> findByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastName AND owner.id > :id ORDER BY owner.id");
+        query.setParameter("lastName", lastName + "%");
+        query.setParameter("id", id);
+        query.setMaxResults(limit);
+        List<Owner> owners = query.getResultList();
+        fetchPets(owners);
+        return owners;
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastName(String lastName) throws DataAccessException {
+        return this.em.createQuery(
+                SELECT_SUMMARY + "FROM Owner owner WHERE owner.lastName LIKE :lastName ORDER BY owner.id", OwnerSummary.class)
+            .setParameter("lastName", lastName + "%")
+            .getResultList();
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        return this.em.createQuery(
+                SELECT_SUMMARY + "FROM Owner owner WHERE owner.lastName LIKE :lastName AND owner.id > :id ORDER BY owner.id",
+                OwnerSummary.class)
+            .setParameter("lastName", lastName + "%")
+            .setParameter("id", id)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByIdIn(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return this.em.createQuery(
+                SELECT_SUMMARY + "FROM Owner owner WHERE owner.id IN :ids ORDER BY owner.id", OwnerSummary.class)
+            .setParameter("ids", ids)
+            .getResultList();
+    }
+
     @Override
     public Owner findById(int id) {
-        // using 'join fetch' because a single query should load both owners and pets
-        // using 'left join fetch' because it might happen that an owner does not have pets yet
-        Query query = this.em.createQuery("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id");
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.id =:id");
         query.setParameter("id", id);
+        query.setHint(LOAD_GRAPH, this.em.getEntityGraph("Owner.pets"));
         return (Owner) query.getSingleResult();
     }
 
 
+    @Override
+    public List<Owner> findByIdIn(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.id IN :ids", Owner.class)
+            .setParameter("ids", ids)
+            .setHint(LOAD_GRAPH, this.em.getEntityGraph("Owner.pets"))
+            .getResultList();
+    }
+
+
+    /**
+     * Aggregates the stamps and counts of the owner's rows in a single grouped query; no entity is loaded.
+     */
+    @Override
+    public String findVersionById(int id) {
+        Object[] aggregates = (Object[]) this.em.createQuery(
+            "SELECT owner.lastModified, MAX(pet.lastModified), COUNT(DISTINCT pet.id), MAX(petType.lastModified), " +
+                "MAX(visit.lastModified), COUNT(visit.id) FROM Owner owner LEFT JOIN owner.pets pet " +
+                "LEFT JOIN pet.type petType LEFT JOIN pet.visits visit WHERE owner.id = :id " +
+                "GROUP BY owner.id, owner.lastModified")
+            .setParameter("id", id)
+            .getSingleResult();
+        return EntityUtils.versionTag(aggregates);
+    }
+
     @Override
     public void save(Owner owner) {
         if (owner.getId() == null) {
@@ -103,6 +181,7 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
 		Query query = this.em.createQuery("SELECT owner FROM Owner owner");
+        query.setHint(LOAD_GRAPH, this.em.getEntityGraph("Owner.pets"));
         return query.getResultList();
 	}
 
@@ -113,14 +192,70 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
         query.setFirstResult((int) pageable.getOffset());
         query.setMaxResults(pageable.getPageSize());
         List<Owner> owners = query.getResultList();
+        fetchPets(owners);
         Query countQuery = this.em.createQuery("SELECT COUNT(owner) FROM Owner owner");
         long total = (long) countQuery.getSingleResult();
         return new PageImpl<>(owners, pageable, total);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<Owner> findAllAfter(int id, int limit) throws DataAccessException {
+        Query query = this.em.createQuery("SELECT owner FROM Owner owner WHERE owner.id > :id ORDER BY owner.id");
+        query.setParameter("id", id);
+        query.setMaxResults(limit);
+        List<Owner> owners = query.getResultList();
+        fetchPets(owners);
+        return owners;
+    }
+
+    /**
+     * Owners are scrolled through a forward-only result stream; each one is detached, together with its pets and
+     * visits, once the action has returned so that the persistence context does not grow during the export.
+     */
+    @Override
+    public void forEach(Consumer<? super Owner> action) throws DataAccessException {
+        try (Stream<Owner> owners = this.em.createQuery("SELECT owner FROM Owner owner ORDER BY owner.id", Owner.class)
+            .setHint(FETCH_SIZE, EXPORT_FETCH_SIZE)
+            .getResultStream()) {
+            owners.forEach(owner -> {
+                action.accept(owner);
+                this.em.detach(owner);
+            });
+        }
+    }
+
+    /**
+     * Deletes the owner, its pets and their visits with three bulk statements; <code>em.remove</code> would load
+     * and delete every pet and visit one by one through the cascades.
+     */
 	@Override
 	public void delete(Owner owner) throws DataAccessException {
-		this.em.remove(this.em.contains(owner) ? owner : this.em.merge(owner));
+        this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id IN (SELECT pet.id FROM Pet pet WHERE pet.owner.id = :id)")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        this.em.createQuery("DELETE FROM Pet pet WHERE pet.owner.id = :id")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        this.em.createQuery("DELETE FROM Owner owner WHERE owner.id = :id")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        if (this.em.contains(owner)) {
+            this.em.detach(owner);
+        }
 	}
 
+    /**
+     * Initialize the pets, pet types and visits of a page of owners with one more query. The page itself is
+     * selected without fetch joins so that the database applies the limit, not Hibernate.
+     */
+    private void fetchPets(List<Owner> owners) {
+        if (!owners.isEmpty()) {
+            this.em.createQuery("SELECT owner FROM Owner owner WHERE owner IN :owners")
+                .setParameter("owners", owners)
+                .setHint(LOAD_GRAPH, this.em.getEntityGraph("Owner.pets"))
+                .getResultList();
+        }
+    }
+
 }
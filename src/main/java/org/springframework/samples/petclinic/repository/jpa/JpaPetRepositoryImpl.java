@@ -17,6 +17,7 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -29,6 +30,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.repository.PetRepository;
 import org.springframework.stereotype.Repository;
@@ -46,6 +48,8 @@ import org.springframework.stereotype.Repository;
 @Profile("jpa")
 public class JpaPetRepositoryImpl implements PetRepository {
 
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
     @PersistenceContext
     private EntityManager em;
 
@@ -57,7 +61,7 @@ public class JpaPetRepositoryImpl implements PetRepository {
 
     @Override
     public Pet findById(int id) {
-        return this.em.find(Pet.class, id);
+        return this.em.find(Pet.class, id, Map.of(LOAD_GRAPH, this.em.getEntityGraph("Pet.visits")));
     }
 
     @Override
@@ -72,28 +76,78 @@ public class JpaPetRepositoryImpl implements PetRepository {
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Pet> findAll() throws DataAccessException {
-		return this.em.createQuery("SELECT pet FROM Pet pet").getResultList();
+		return this.em.createQuery("SELECT pet FROM Pet pet")
+            .setHint(LOAD_GRAPH, this.em.getEntityGraph("Pet.visits"))
+            .getResultList();
 	}
 
     @Override
     public Page<Pet> findAll(@NonNull Pageable pageable) throws DataAccessException {
-        Query query = this.em.createQuery("SELECT pet FROM Pet pet ORDER BY pet.id");
+        // to-one associations are fetch-joined, the visits collection is loaded separately so that the database applies the limit
+        Query query = this.em.createQuery(
+            "SELECT pet FROM Pet pet LEFT JOIN FETCH pet.type LEFT JOIN FETCH pet.owner ORDER BY pet.id");
         query.setFirstResult((int) pageable.getOffset());
         query.setMaxResults(pageable.getPageSize());
         List<Pet> pets = query.getResultList();
+        fetchVisits(pets);
         Query countQuery = this.em.createQuery("SELECT COUNT(pet) FROM Pet pet");
         long total = (long) countQuery.getSingleResult();
         return new PageImpl<>(pets, pageable, total);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<Pet> findAllAfter(int id, int limit) throws DataAccessException {
+        Query query = this.em.createQuery(
+            "SELECT pet FROM Pet pet LEFT JOIN FETCH pet.type LEFT JOIN FETCH pet.owner WHERE pet.id > :id ORDER BY pet.id");
+        query.setParameter("id", id);
+        query.setMaxResults(limit);
+        List<Pet> pets = query.getResultList();
+        fetchVisits(pets);
+        return pets;
+    }
+
+    /**
+     * The owner id is read from the foreign key column of the pets table, without joining the owners.
+     */
+    @Override
+    public List<PetSummary> findAllSummaries() throws DataAccessException {
+        return this.em.createQuery(
+                "SELECT new org.springframework.samples.petclinic.model.PetSummary(pet.id, pet.name, pet.birthDate, pet.owner.id) " +
+                    "FROM Pet pet ORDER BY pet.id", PetSummary.class)
+            .getResultList();
+    }
+
+    @Override
+    public List<Integer> findExistingIds(Collection<Integer> ids) throws DataAccessException {
+        return this.em.createQuery("SELECT pet.id FROM Pet pet WHERE pet.id IN :ids", Integer.class)
+            .setParameter("ids", ids)
+            .getResultList();
+    }
+
+    /**
+     * Initialize the visits of a page of pets with one more query, so that the page itself can be limited by the
+     * database.
+     */
+    private void fetchVisits(List<Pet> pets) {
+        if (!pets.isEmpty()) {
+            this.em.createQuery("SELECT pet FROM Pet pet LEFT JOIN FETCH pet.visits WHERE pet IN :pets")
+                .setParameter("pets", pets)
+                .getResultList();
+        }
+    }
+
 	@Override
 	public void delete(Pet pet) throws DataAccessException {
-		//this.em.remove(this.em.contains(pet) ? pet : this.em.merge(pet));
-		String petId = pet.getId().toString();
-		this.em.createQuery("DELETE FROM Visit visit WHERE pet.id=" + petId).executeUpdate();
-		this.em.createQuery("DELETE FROM Pet pet WHERE id=" + petId).executeUpdate();
-		if (em.contains(pet)) {
-			em.remove(pet);
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id = :id")
+			.setParameter("id", pet.getId())
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Pet pet WHERE pet.id = :id")
+			.setParameter("id", pet.getId())
+			.executeUpdate();
+		// bulk statements bypass the persistence context; removing the managed pet would delete its visits again
+		if (this.em.contains(pet)) {
+			this.em.detach(pet);
 		}
 	}
 
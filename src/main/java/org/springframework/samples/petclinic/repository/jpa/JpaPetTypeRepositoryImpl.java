@@ -17,17 +17,15 @@
 package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
-import java.util.List;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
-import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.PetTypeRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -61,6 +59,14 @@ public class JpaPetTypeRepositoryImpl implements PetTypeRepository {
 		return this.em.createQuery("SELECT ptype FROM PetType ptype").getResultList();
 	}
 
+    @Override
+    public String findVersionOfAll() throws DataAccessException {
+        Object[] aggregates = (Object[]) this.em.createQuery(
+            "SELECT MAX(petType.lastModified), COUNT(petType) FROM PetType petType")
+            .getSingleResult();
+        return EntityUtils.versionTag(aggregates);
+    }
+
 	@Override
 	public void save(PetType petType) throws DataAccessException {
 		if (petType.getId() == null) {
@@ -71,21 +77,25 @@ public class JpaPetTypeRepositoryImpl implements PetTypeRepository {
 
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Deletes the pet type, its pets and their visits with three bulk statements instead of loading the pets.
+	 */
 	@Override
 	public void delete(PetType petType) throws DataAccessException {
-		this.em.remove(this.em.contains(petType) ? petType : this.em.merge(petType));
 		Integer petTypeId = petType.getId();
-
-		List<Pet> pets = this.em.createQuery("SELECT pet FROM Pet pet WHERE type.id=" + petTypeId).getResultList();
-		for (Pet pet : pets){
-			List<Visit> visits = pet.getVisits();
-			for (Visit visit : visits){
-				this.em.createQuery("DELETE FROM Visit visit WHERE id=" + visit.getId()).executeUpdate();
-			}
-			this.em.createQuery("DELETE FROM Pet pet WHERE id=" + pet.getId()).executeUpdate();
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id IN (SELECT pet.id FROM Pet pet WHERE pet.type.id = :id)")
+			.setParameter("id", petTypeId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM Pet pet WHERE pet.type.id = :id")
+			.setParameter("id", petTypeId)
+			.executeUpdate();
+		this.em.createQuery("DELETE FROM PetType petType WHERE petType.id = :id")
+			.setParameter("id", petTypeId)
+			.executeUpdate();
+		// bulk statements bypass the persistence context
+		if (this.em.contains(petType)) {
+			this.em.detach(petType);
 		}
-		this.em.createQuery("DELETE FROM PetType pettype WHERE id=" + petTypeId).executeUpdate();
 	}
 
 }
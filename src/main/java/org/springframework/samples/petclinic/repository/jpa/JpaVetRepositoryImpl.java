@@ -19,11 +19,13 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.repository.VetRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * JPA implementation of the {@link VetRepository} interface.
@@ -38,21 +40,34 @@ import java.util.Collection;
 @Profile("jpa")
 public class JpaVetRepositoryImpl implements VetRepository {
 
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
     @PersistenceContext
     private EntityManager em;
 
 
 	@Override
 	public Vet findById(int id) throws DataAccessException {
-		return this.em.find(Vet.class, id);
+		return this.em.find(Vet.class, id, Map.of(LOAD_GRAPH, this.em.getEntityGraph("Vet.specialties")));
 	}
 
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Vet> findAll() throws DataAccessException {
-		return this.em.createQuery("SELECT vet FROM Vet vet").getResultList();
+		return this.em.createQuery("SELECT vet FROM Vet vet")
+            .setHint(LOAD_GRAPH, this.em.getEntityGraph("Vet.specialties"))
+            .getResultList();
 	}
 
+    @Override
+    public String findVersionOfAll() throws DataAccessException {
+        Object[] aggregates = (Object[]) this.em.createQuery(
+            "SELECT MAX(vet.lastModified), COUNT(DISTINCT vet.id), MAX(specialty.lastModified), COUNT(specialty.id) " +
+                "FROM Vet vet LEFT JOIN vet.specialties specialty")
+            .getSingleResult();
+        return EntityUtils.versionTag(aggregates);
+    }
+
 	@Override
 	public void save(Vet vet) throws DataAccessException {
         if (vet.getId() == null) {
@@ -22,6 +22,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Visit;
@@ -46,6 +47,8 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${petclinic.jdbc.batch-size:100}")
+    private int batchSize;
 
     @Override
     public void save(Visit visit) {
@@ -56,6 +59,28 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
         }
     }
 
+    /**
+     * Persists the visits and flushes the persistence context every <code>petclinic.jdbc.batch-size</code> visits,
+     * so that Hibernate can group the statements into JDBC batches (<code>hibernate.jdbc.batch_size</code>) and
+     * memory use stays bounded. Inserts with identity keys are still executed one by one by Hibernate.
+     */
+    @Override
+    public void saveAll(Collection<Visit> visits) throws DataAccessException {
+        int count = 0;
+        for (Visit visit : visits) {
+            if (visit.getId() == null) {
+                this.em.persist(visit);
+            } else {
+                this.em.merge(visit);
+            }
+            if (++count % this.batchSize == 0) {
+                this.em.flush();
+                this.em.clear();
+            }
+        }
+        this.em.flush();
+        this.em.clear();
+    }
 
     @Override
     @SuppressWarnings("unchecked")
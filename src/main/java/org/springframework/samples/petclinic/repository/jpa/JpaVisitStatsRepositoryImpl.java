@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jpa;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.model.VisitStats;
+import org.springframework.samples.petclinic.repository.VisitStatsRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JPA implementation of the {@link VisitStatsRepository} interface. The <code>visit_stats</code> table is no mapped
+ * entity, so it is written with native statements, after flushing the visit changes of the persistence context they
+ * are computed from.
+ */
+@Repository
+@Profile("jpa")
+public class JpaVisitStatsRepositoryImpl implements VisitStatsRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public void addPet(int petId) throws DataAccessException {
+        this.em.flush();
+        insertFromVisits(petId);
+    }
+
+    @Override
+    public void addVisit(int petId, LocalDate date) throws DataAccessException {
+        this.em.flush();
+        int updated = this.em.createNativeQuery(
+                "UPDATE visit_stats SET visit_count = visit_count + 1, " +
+                    "first_visit_date = CASE WHEN first_visit_date IS NULL OR first_visit_date > :date " +
+                    "THEN :date ELSE first_visit_date END, " +
+                    "last_visit_date = CASE WHEN last_visit_date IS NULL OR last_visit_date < :date " +
+                    "THEN :date ELSE last_visit_date END " +
+                    "WHERE pet_id = :id")
+            .setParameter("id", petId)
+            .setParameter("date", date)
+            .executeUpdate();
+        if (updated == 0) {
+            insertFromVisits(petId);
+        }
+    }
+
+    @Override
+    public void removeVisit(int petId, LocalDate date) throws DataAccessException {
+        this.em.flush();
+        // the dates only stay as they are if the visit was strictly between the first and the last one
+        int updated = this.em.createNativeQuery(
+                "UPDATE visit_stats SET visit_count = visit_count - 1 " +
+                    "WHERE pet_id = :id AND first_visit_date < :date AND last_visit_date > :date")
+            .setParameter("id", petId)
+            .setParameter("date", date)
+            .executeUpdate();
+        if (updated == 0) {
+            refresh(petId);
+        }
+    }
+
+    @Override
+    public void refresh(int petId) throws DataAccessException {
+        this.em.flush();
+        int updated = this.em.createNativeQuery(
+                "UPDATE visit_stats SET " +
+                    "visit_count = (SELECT COUNT(*) FROM visits WHERE visits.pet_id = :id), " +
+                    "first_visit_date = (SELECT MIN(visit_date) FROM visits WHERE visits.pet_id = :id), " +
+                    "last_visit_date = (SELECT MAX(visit_date) FROM visits WHERE visits.pet_id = :id) " +
+                    "WHERE pet_id = :id")
+            .setParameter("id", petId)
+            .executeUpdate();
+        if (updated == 0) {
+            insertFromVisits(petId);
+        }
+    }
+
+    @Override
+    public int rebuild() throws DataAccessException {
+        this.em.flush();
+        this.em.createNativeQuery("DELETE FROM visit_stats").executeUpdate();
+        return this.em.createNativeQuery(
+                "INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date) " +
+                    "SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date) " +
+                    "FROM pets LEFT JOIN visits ON visits.pet_id = pets.id GROUP BY pets.id")
+            .executeUpdate();
+    }
+
+    /**
+     * A pet without a <code>visit_stats</code> row has had no visit since the table was filled, so it counts as
+     * having none.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public VisitStats findByPetId(int petId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException {
+        this.em.flush();
+        List<Object[]> rows = this.em.createNativeQuery(
+                "SELECT visit_stats.visit_count, visit_stats.first_visit_date, visit_stats.last_visit_date, " +
+                    "(SELECT COUNT(*) FROM visits WHERE visits.pet_id = pets.id " +
+                    "AND visits.visit_date BETWEEN :since AND :until) " +
+                    "FROM pets LEFT JOIN visit_stats ON visit_stats.pet_id = pets.id WHERE pets.id = :id")
+            .setParameter("id", petId)
+            .setParameter("since", recentSince)
+            .setParameter("until", recentUntil)
+            .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return new VisitStats(toInt(row[0]), toLocalDate(row[1]), toLocalDate(row[2]), toInt(row[3]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public VisitStats findByOwnerId(int ownerId, LocalDate recentSince, LocalDate recentUntil) throws DataAccessException {
+        this.em.flush();
+        List<Object[]> rows = this.em.createNativeQuery(
+                "SELECT SUM(visit_stats.visit_count), MIN(visit_stats.first_visit_date), " +
+                    "MAX(visit_stats.last_visit_date) " +
+                    "FROM owners LEFT JOIN pets ON pets.owner_id = owners.id " +
+                    "LEFT JOIN visit_stats ON visit_stats.pet_id = pets.id " +
+                    "WHERE owners.id = :id GROUP BY owners.id")
+            .setParameter("id", ownerId)
+            .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object recent = this.em.createNativeQuery(
+                "SELECT COUNT(*) FROM visits JOIN pets ON visits.pet_id = pets.id " +
+                    "WHERE pets.owner_id = :id AND visits.visit_date BETWEEN :since AND :until")
+            .setParameter("id", ownerId)
+            .setParameter("since", recentSince)
+            .setParameter("until", recentUntil)
+            .getSingleResult();
+        Object[] row = rows.get(0);
+        return new VisitStats(toInt(row[0]), toLocalDate(row[1]), toLocalDate(row[2]), toInt(recent));
+    }
+
+    private void insertFromVisits(int petId) {
+        this.em.createNativeQuery(
+                "INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date) " +
+                    "SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date) " +
+                    "FROM pets LEFT JOIN visits ON visits.pet_id = pets.id WHERE pets.id = :id GROUP BY pets.id")
+            .setParameter("id", petId)
+            .executeUpdate();
+    }
+
+    /**
+     * Native query results are typed by the JDBC driver: counts and sums may be any {@link Number}.
+     */
+    private static int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+}
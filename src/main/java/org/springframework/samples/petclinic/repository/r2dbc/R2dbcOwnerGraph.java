@@ -0,0 +1,111 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.r2dbc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+
+/**
+ * Reads owners with their pets, pet types and visits from one joined statement. R2DBC rows can only be read inside the
+ * mapping function, so every row is first copied into a {@link Row}; the rows of one owner are then grouped (they are
+ * adjacent, the statement orders by owner id) and turned into an {@link Owner} by {@link #toOwner}.
+ */
+final class R2dbcOwnerGraph {
+
+    static final String COLUMNS = "owners.id, owners.first_name, owners.last_name, owners.address, owners.city, " +
+        "owners.telephone, pets.id, pets.name, pets.birth_date, types.id, types.name, " +
+        "visits.id, visits.visit_date, visits.description";
+
+    static final String JOINS = " LEFT OUTER JOIN pets ON pets.owner_id = owners.id" +
+        " LEFT OUTER JOIN types ON types.id = pets.type_id" +
+        " LEFT OUTER JOIN visits ON visits.pet_id = pets.id";
+
+    static final String ORDER_BY = " ORDER BY owners.id, pets.id, visits.id";
+
+    private R2dbcOwnerGraph() {
+    }
+
+    /**
+     * Returns the statement reading the graphs of the owners of the given source, which is either the
+     * <code>owners</code> table or a derived table named <code>owners</code>.
+     */
+    static String select(String owners, String where) {
+        return "SELECT " + COLUMNS + " FROM " + owners + JOINS + where + ORDER_BY;
+    }
+
+    static Row read(Readable row) {
+        return new Row(
+            row.get(0, Integer.class), row.get(1, String.class), row.get(2, String.class), row.get(3, String.class),
+            row.get(4, String.class), row.get(5, String.class),
+            row.get(6, Integer.class), row.get(7, String.class), row.get(8, LocalDate.class),
+            row.get(9, Integer.class), row.get(10, String.class),
+            row.get(11, Integer.class), row.get(12, LocalDate.class), row.get(13, String.class));
+    }
+
+    /**
+     * Builds one owner from all of its rows, in statement order.
+     */
+    static Owner toOwner(List<Row> rows) {
+        Row first = rows.get(0);
+        Owner owner = new Owner();
+        owner.setId(first.ownerId());
+        owner.setFirstName(first.firstName());
+        owner.setLastName(first.lastName());
+        owner.setAddress(first.address());
+        owner.setCity(first.city());
+        owner.setTelephone(first.telephone());
+        Pet pet = null;
+        for (Row row : rows) {
+            if (row.petId() == null) {
+                continue;
+            }
+            if (pet == null || !pet.getId().equals(row.petId())) {
+                pet = new Pet();
+                pet.setId(row.petId());
+                pet.setName(row.petName());
+                pet.setBirthDate(row.birthDate());
+                PetType type = new PetType();
+                type.setId(row.typeId());
+                type.setName(row.typeName());
+                pet.setType(type);
+                owner.addPet(pet);
+            }
+            if (row.visitId() != null) {
+                Visit visit = new Visit();
+                visit.setId(row.visitId());
+                visit.setDate(row.visitDate());
+                visit.setDescription(row.description());
+                pet.addVisit(visit);
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * One row of the statement: an owner, possibly one of its pets, possibly one visit of that pet.
+     */
+    record Row(Integer ownerId, String firstName, String lastName, String address, String city, String telephone,
+               Integer petId, String petName, LocalDate birthDate, Integer typeId, String typeName,
+               Integer visitId, LocalDate visitDate, String description) {
+    }
+
+}
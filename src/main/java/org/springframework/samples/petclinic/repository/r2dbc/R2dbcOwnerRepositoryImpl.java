@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.r2dbc;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.ReactiveOwnerRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC implementation of the {@link ReactiveOwnerRepository} interface.
+ * <p>
+ * Each method issues a single statement. Pages are selected in a derived table and joined to their pets and visits,
+ * so a page costs one round trip; the rows are grouped per owner while they arrive.
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcOwnerRepositoryImpl implements ReactiveOwnerRepository {
+
+    private static final String OWNER_COLUMNS = "id, first_name, last_name, address, city, telephone";
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcOwnerRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Owner> findByLastName(String lastName) {
+        return findGraphs(
+            R2dbcOwnerGraph.select("owners", " WHERE owners.last_name LIKE :lastName"),
+            Map.of("lastName", lastName + "%"));
+    }
+
+    @Override
+    public Flux<Owner> findByLastName(String lastName, Pageable pageable) {
+        return findGraphs(
+            R2dbcOwnerGraph.select(
+                "(SELECT " + OWNER_COLUMNS + " FROM owners WHERE last_name LIKE :lastName " +
+                    "ORDER BY id LIMIT :size OFFSET :offset) owners", ""),
+            Map.of("lastName", lastName + "%", "size", pageable.getPageSize(), "offset", pageable.getOffset()));
+    }
+
+    @Override
+    public Flux<Owner> findByLastNameAfter(String lastName, int id, int limit) {
+        return findGraphs(
+            R2dbcOwnerGraph.select(
+                "(SELECT " + OWNER_COLUMNS + " FROM owners WHERE last_name LIKE :lastName AND id > :id " +
+                    "ORDER BY id LIMIT :limit) owners", ""),
+            Map.of("lastName", lastName + "%", "id", id, "limit", limit));
+    }
+
+    @Override
+    public Mono<Long> countByLastName(String lastName) {
+        return this.databaseClient.sql("SELECT COUNT(*) FROM owners WHERE last_name LIKE :lastName")
+            .bind("lastName", lastName + "%")
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    @Override
+    public Flux<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) {
+        return this.databaseClient.sql(
+                "SELECT id, first_name, last_name, city FROM owners WHERE last_name LIKE :lastName AND id > :id " +
+                    "ORDER BY id LIMIT :limit")
+            .bindValues(Map.of("lastName", lastName + "%", "id", id, "limit", limit))
+            .map(row -> new OwnerSummary(
+                row.get(0, Integer.class), row.get(1, String.class), row.get(2, String.class), row.get(3, String.class)))
+            .all();
+    }
+
+    private Flux<Owner> findGraphs(String sql, Map<String, ?> params) {
+        return this.databaseClient.sql(sql)
+            .bindValues(params)
+            .map(R2dbcOwnerGraph::read)
+            .all()
+            .bufferUntilChanged(R2dbcOwnerGraph.Row::ownerId)
+            .map(R2dbcOwnerGraph::toOwner);
+    }
+
+}
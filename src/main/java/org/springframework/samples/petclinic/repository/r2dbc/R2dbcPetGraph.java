@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.r2dbc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+
+/**
+ * Reads pets with their type and visits from one joined statement, see {@link R2dbcOwnerGraph}. The owner of a pet is
+ * an {@link Owner} carrying only its id.
+ */
+final class R2dbcPetGraph {
+
+    static final String COLUMNS = "pets.id, pets.name, pets.birth_date, pets.owner_id, types.id, types.name, " +
+        "visits.id, visits.visit_date, visits.description";
+
+    static final String JOINS = " LEFT OUTER JOIN types ON types.id = pets.type_id" +
+        " LEFT OUTER JOIN visits ON visits.pet_id = pets.id";
+
+    static final String ORDER_BY = " ORDER BY pets.id, visits.id";
+
+    private R2dbcPetGraph() {
+    }
+
+    /**
+     * Returns the statement reading the graphs of the pets of the given source, which is either the <code>pets</code>
+     * table or a derived table named <code>pets</code>.
+     */
+    static String select(String pets) {
+        return "SELECT " + COLUMNS + " FROM " + pets + JOINS + ORDER_BY;
+    }
+
+    static Row read(Readable row) {
+        return new Row(
+            row.get(0, Integer.class), row.get(1, String.class), row.get(2, LocalDate.class), row.get(3, Integer.class),
+            row.get(4, Integer.class), row.get(5, String.class),
+            row.get(6, Integer.class), row.get(7, LocalDate.class), row.get(8, String.class));
+    }
+
+    /**
+     * Builds one pet from all of its rows, in statement order.
+     */
+    static Pet toPet(List<Row> rows) {
+        Row first = rows.get(0);
+        Pet pet = new Pet();
+        pet.setId(first.petId());
+        pet.setName(first.name());
+        pet.setBirthDate(first.birthDate());
+        PetType type = new PetType();
+        type.setId(first.typeId());
+        type.setName(first.typeName());
+        pet.setType(type);
+        Owner owner = new Owner();
+        owner.setId(first.ownerId());
+        pet.setOwner(owner);
+        for (Row row : rows) {
+            if (row.visitId() != null) {
+                Visit visit = new Visit();
+                visit.setId(row.visitId());
+                visit.setDate(row.visitDate());
+                visit.setDescription(row.description());
+                pet.addVisit(visit);
+            }
+        }
+        return pet;
+    }
+
+    /**
+     * One row of the statement: a pet and possibly one of its visits.
+     */
+    record Row(Integer petId, String name, LocalDate birthDate, Integer ownerId, Integer typeId, String typeName,
+               Integer visitId, LocalDate visitDate, String description) {
+    }
+
+}
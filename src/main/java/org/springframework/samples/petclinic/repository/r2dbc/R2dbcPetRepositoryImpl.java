@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.r2dbc;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.repository.ReactivePetRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC implementation of the {@link ReactivePetRepository} interface, see {@link R2dbcOwnerRepositoryImpl}.
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcPetRepositoryImpl implements ReactivePetRepository {
+
+    private static final String PET_COLUMNS = "id, name, birth_date, type_id, owner_id";
+
+    private final DatabaseClient databaseClient;
+
+    public R2dbcPetRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Pet> findAll() {
+        return findGraphs(R2dbcPetGraph.select("pets"), Map.of());
+    }
+
+    @Override
+    public Flux<Pet> findAll(Pageable pageable) {
+        return findGraphs(
+            R2dbcPetGraph.select("(SELECT " + PET_COLUMNS + " FROM pets ORDER BY id LIMIT :size OFFSET :offset) pets"),
+            Map.of("size", pageable.getPageSize(), "offset", pageable.getOffset()));
+    }
+
+    @Override
+    public Flux<Pet> findAllAfter(int id, int limit) {
+        return findGraphs(
+            R2dbcPetGraph.select("(SELECT " + PET_COLUMNS + " FROM pets WHERE id > :id ORDER BY id LIMIT :limit) pets"),
+            Map.of("id", id, "limit", limit));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return this.databaseClient.sql("SELECT COUNT(*) FROM pets")
+            .map(row -> row.get(0, Long.class))
+            .one();
+    }
+
+    private Flux<Pet> findGraphs(String sql, Map<String, ?> params) {
+        return this.databaseClient.sql(sql)
+            .bindValues(params)
+            .map(R2dbcPetGraph::read)
+            .all()
+            .bufferUntilChanged(R2dbcPetGraph.Row::petId)
+            .map(R2dbcPetGraph::toPet);
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * The classes in this package represent the R2DBC implementation
+ * of PetClinic's non-blocking read repositories.
+ */
+package org.springframework.samples.petclinic.repository.r2dbc;
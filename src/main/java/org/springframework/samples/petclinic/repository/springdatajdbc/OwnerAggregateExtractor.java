@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityIndex;
+
+/**
+ * {@link ResultSetExtractor} assembling complete {@link Owner} graphs, with pets, pet types and visits, from a single
+ * <code>owners LEFT JOIN pets LEFT JOIN types LEFT JOIN visits</code> query ordered by owner id and pet id.
+ * <p>
+ * Spring Data JDBC would read each pet and visit collection with a statement of its own on H2 and HSQLDB, so the
+ * repositories use this extractor for every owner, pet and visit read. When the query is restricted to some pets, each
+ * owner only holds those pets.
+ */
+public class OwnerAggregateExtractor implements ResultSetExtractor<List<Owner>> {
+
+    public static final String SELECT_OWNERS =
+        "SELECT owners.id as owners_id, first_name, last_name, address, city, telephone, " +
+            "pets.id as pets_id, pets.name as pet_name, birth_date, type_id, types.name as type_name, " +
+            "visits.id as visit_id, visit_date, description " +
+            "FROM owners LEFT OUTER JOIN pets ON owners.id = pets.owner_id " +
+            "LEFT OUTER JOIN types ON pets.type_id = types.id " +
+            "LEFT OUTER JOIN visits ON pets.id = visits.pet_id";
+
+    public static final String ORDER_BY = " ORDER BY owners.id, pets.id, visits.id";
+
+    @Override
+    public List<Owner> extractData(ResultSet rs) throws SQLException {
+        List<Owner> owners = new ArrayList<>();
+        EntityIndex<PetType> petTypes = new EntityIndex<>(PetType.class);
+        Owner owner = null;
+        Pet pet = null;
+        while (rs.next()) {
+            int ownerId = rs.getInt("owners_id");
+            if (owner == null || owner.getId() != ownerId) {
+                owner = mapOwner(rs, ownerId);
+                owners.add(owner);
+                pet = null;
+            }
+            int petId = rs.getInt("pets_id");
+            if (rs.wasNull()) {
+                continue;
+            }
+            if (pet == null || pet.getId() != petId) {
+                pet = mapPet(rs, petId, petTypes);
+                owner.addPet(pet);
+            }
+            int visitId = rs.getInt("visit_id");
+            if (!rs.wasNull()) {
+                Visit visit = new Visit();
+                visit.setId(visitId);
+                visit.setDate(rs.getObject("visit_date", LocalDate.class));
+                visit.setDescription(rs.getString("description"));
+                pet.addVisit(visit);
+            }
+        }
+        return owners;
+    }
+
+    private static Owner mapOwner(ResultSet rs, int ownerId) throws SQLException {
+        Owner owner = new Owner();
+        owner.setId(ownerId);
+        owner.setFirstName(rs.getString("first_name"));
+        owner.setLastName(rs.getString("last_name"));
+        owner.setAddress(rs.getString("address"));
+        owner.setCity(rs.getString("city"));
+        owner.setTelephone(rs.getString("telephone"));
+        return owner;
+    }
+
+    private static Pet mapPet(ResultSet rs, int petId, EntityIndex<PetType> petTypes) throws SQLException {
+        Pet pet = new Pet();
+        pet.setId(petId);
+        pet.setName(rs.getString("pet_name"));
+        pet.setBirthDate(rs.getObject("birth_date", LocalDate.class));
+        int typeId = rs.getInt("type_id");
+        PetType petType = petTypes.get(typeId);
+        if (petType == null) {
+            petType = new PetType();
+            petType.setId(typeId);
+            petType.setName(rs.getString("type_name"));
+            petTypes.add(petType);
+        }
+        pet.setType(petType);
+        return pet;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Root of the owner aggregate as it is written: the row of the <code>owners</code> table. Pets are aggregates of their
+ * own that refer to the owner by id; see {@link OwnerAggregateExtractor} for how the whole graph is read.
+ */
+@Table("owners")
+public record OwnerEntity(@Id Integer id, String firstName, String lastName, String address, String city,
+                          String telephone, LocalDateTime lastModified) {
+
+    static OwnerEntity of(Owner owner) {
+        return new OwnerEntity(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+            owner.getCity(), owner.getTelephone(), owner.getLastModified());
+    }
+
+}
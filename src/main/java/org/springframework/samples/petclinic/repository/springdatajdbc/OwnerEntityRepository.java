@@ -0,0 +1,72 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Spring Data JDBC repository of {@link OwnerEntity owner rows}. The <code>find...Aggregates</code> methods read whole
+ * owner graphs with one statement each; see {@link OwnerAggregateExtractor}.
+ */
+@Profile("spring-data-jdbc")
+public interface OwnerEntityRepository
+    extends ListCrudRepository<OwnerEntity, Integer>, ListPagingAndSortingRepository<OwnerEntity, Integer> {
+
+    @Query(value = OwnerAggregateExtractor.SELECT_OWNERS + OwnerAggregateExtractor.ORDER_BY,
+        resultSetExtractorClass = OwnerAggregateExtractor.class)
+    List<Owner> findAllAggregates();
+
+    @Query(value = OwnerAggregateExtractor.SELECT_OWNERS + " WHERE owners.id IN (:ids)" + OwnerAggregateExtractor.ORDER_BY,
+        resultSetExtractorClass = OwnerAggregateExtractor.class)
+    List<Owner> findAggregatesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(value = OwnerAggregateExtractor.SELECT_OWNERS + " WHERE owners.last_name LIKE :lastName" + OwnerAggregateExtractor.ORDER_BY,
+        resultSetExtractorClass = OwnerAggregateExtractor.class)
+    List<Owner> findAggregatesByLastNameLike(@Param("lastName") String lastName);
+
+    /**
+     * Reads the owners of the given pets; each owner only holds the requested pets.
+     */
+    @Query(value = OwnerAggregateExtractor.SELECT_OWNERS + " WHERE pets.id IN (:ids)" + OwnerAggregateExtractor.ORDER_BY,
+        resultSetExtractorClass = OwnerAggregateExtractor.class)
+    List<Owner> findAggregatesByPetIdIn(@Param("ids") Collection<Integer> ids);
+
+    Page<OwnerEntity> findByLastNameStartingWith(String lastName, Pageable pageable);
+
+    List<OwnerEntity> findByLastNameStartingWithAndIdGreaterThan(String lastName, int id, Pageable pageable);
+
+    List<OwnerEntity> findByIdGreaterThan(int id, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE owner_id = :id)")
+    void deleteVisitsByOwnerId(@Param("id") int id);
+
+    @Modifying
+    @Query("DELETE FROM pets WHERE owner_id = :id")
+    void deletePetsByOwnerId(@Param("id") int id);
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.Pet;
+
+/**
+ * Row of the <code>pets</code> table; the type and the owner are referenced by id.
+ */
+@Table("pets")
+public record PetEntity(@Id Integer id, String name, LocalDate birthDate, Integer typeId, Integer ownerId,
+                        LocalDateTime lastModified) {
+
+    static PetEntity of(Pet pet) {
+        return new PetEntity(pet.getId(), pet.getName(), pet.getBirthDate(), pet.getType().getId(),
+            pet.getOwner().getId(), pet.getLastModified());
+    }
+
+}
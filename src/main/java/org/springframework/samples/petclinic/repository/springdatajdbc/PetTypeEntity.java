@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.PetType;
+
+/**
+ * Row of the <code>types</code> table.
+ */
+@Table("types")
+public record PetTypeEntity(@Id Integer id, String name, LocalDateTime lastModified) {
+
+    static PetTypeEntity of(PetType petType) {
+        return new PetTypeEntity(petType.getId(), petType.getName(), petType.getLastModified());
+    }
+
+    PetType toPetType() {
+        PetType petType = new PetType();
+        petType.setId(this.id);
+        petType.setName(this.name);
+        petType.setLastModified(this.lastModified);
+        return petType;
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.Optional;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.ListPagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JDBC repository of {@link PetTypeEntity pet type rows}.
+ */
+@Profile("spring-data-jdbc")
+public interface PetTypeEntityRepository
+    extends ListCrudRepository<PetTypeEntity, Integer>, ListPagingAndSortingRepository<PetTypeEntity, Integer> {
+
+    Optional<PetTypeEntity> findByName(String name);
+
+    @Modifying
+    @Query("DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE type_id = :id)")
+    void deleteVisitsByTypeId(@Param("id") int id);
+
+    @Modifying
+    @Query("DELETE FROM pets WHERE type_id = :id")
+    void deletePetsByTypeId(@Param("id") int id);
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JDBC repository of {@link SpecialtyEntity specialty rows}.
+ */
+@Profile("spring-data-jdbc")
+public interface SpecialtyEntityRepository extends ListCrudRepository<SpecialtyEntity, Integer> {
+
+    List<SpecialtyEntity> findByNameIn(Collection<String> names);
+
+    @Modifying
+    @Query("DELETE FROM vet_specialties WHERE specialty_id = :id")
+    void deleteVetSpecialtiesBySpecialtyId(@Param("id") int id);
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcOwnerSummaryRowMapper;
+import org.springframework.samples.petclinic.util.EntityIndex;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JDBC implementation of the {@link OwnerRepository} interface.
+ * <p>
+ * Owner rows are written through {@link OwnerEntityRepository}. Reads that return owners select the page of owner
+ * rows first, where paging is involved, and then load the graphs of that page with one
+ * {@link OwnerAggregateExtractor} query, so the number of statements does not depend on the number of owners.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcOwnerRepositoryImpl implements OwnerRepository {
+
+    /**
+     * Owners whose graphs {@link #forEach} holds at a time.
+     */
+    private static final int EXPORT_BATCH_SIZE = 256;
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private static final RowMapper<OwnerSummary> SUMMARY_ROW_MAPPER = new JdbcOwnerSummaryRowMapper();
+
+    private final OwnerEntityRepository owners;
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    public SpringDataJdbcOwnerRepositoryImpl(OwnerEntityRepository owners, NamedParameterJdbcOperations jdbcOperations) {
+        this.owners = owners;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public Collection<Owner> findByLastName(String lastName) throws DataAccessException {
+        return this.owners.findAggregatesByLastNameLike(lastName + "%");
+    }
+
+    @Override
+    public Page<Owner> findByLastName(String lastName, Pageable pageable) throws DataAccessException {
+        return withGraphs(this.owners.findByLastNameStartingWith(lastName, pageable));
+    }
+
+    @Override
+    public List<Owner> findByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        return withGraphs(this.owners.findByLastNameStartingWithAndIdGreaterThan(lastName, id, PageRequest.of(0, limit, BY_ID)));
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastName(String lastName) throws DataAccessException {
+        return this.jdbcOperations.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName ORDER BY id",
+            Map.of("lastName", lastName + "%"),
+            SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) throws DataAccessException {
+        return this.jdbcOperations.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE last_name LIKE :lastName AND id > :id ORDER BY id LIMIT :limit",
+            Map.of("lastName", lastName + "%", "id", id, "limit", limit),
+            SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public List<OwnerSummary> findSummariesByIdIn(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return this.jdbcOperations.query(
+            "SELECT " + JdbcOwnerSummaryRowMapper.COLUMNS + " FROM owners WHERE id IN (:ids) ORDER BY id",
+            Map.of("ids", ids),
+            SUMMARY_ROW_MAPPER);
+    }
+
+    @Override
+    public Owner findById(int id) throws DataAccessException {
+        List<Owner> found = this.owners.findAggregatesByIdIn(List.of(id));
+        if (found.isEmpty()) {
+            throw new ObjectRetrievalFailureException(Owner.class, id);
+        }
+        return found.get(0);
+    }
+
+    @Override
+    public List<Owner> findByIdIn(Collection<Integer> ids) throws DataAccessException {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return this.owners.findAggregatesByIdIn(ids);
+    }
+
+    @Override
+    public String findVersionById(int id) throws DataAccessException {
+        try {
+            return this.jdbcOperations.queryForObject(
+                "SELECT owners.last_modified, MAX(pets.last_modified), COUNT(DISTINCT pets.id), " +
+                    "MAX(types.last_modified), MAX(visits.last_modified), COUNT(visits.id) " +
+                    "FROM owners LEFT OUTER JOIN pets ON pets.owner_id = owners.id " +
+                    "LEFT OUTER JOIN types ON types.id = pets.type_id " +
+                    "LEFT OUTER JOIN visits ON visits.pet_id = pets.id " +
+                    "WHERE owners.id = :id GROUP BY owners.id, owners.last_modified",
+                Map.of("id", id),
+                (rs, rowNum) -> EntityUtils.versionTag(
+                    rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class), rs.getLong(3),
+                    rs.getObject(4, LocalDateTime.class), rs.getObject(5, LocalDateTime.class), rs.getLong(6)));
+        } catch (EmptyResultDataAccessException ex) {
+            throw new ObjectRetrievalFailureException(Owner.class, id);
+        }
+    }
+
+    /**
+     * Writes the owner row only; pets and visits are saved through their own repositories.
+     */
+    @Override
+    public void save(Owner owner) throws DataAccessException {
+        owner.markModified();
+        OwnerEntity saved = this.owners.save(OwnerEntity.of(owner));
+        owner.setId(saved.id());
+    }
+
+    @Override
+    public Collection<Owner> findAll() throws DataAccessException {
+        return this.owners.findAllAggregates();
+    }
+
+    @Override
+    public Page<Owner> findAll(Pageable pageable) throws DataAccessException {
+        return withGraphs(this.owners.findAll(pageable));
+    }
+
+    @Override
+    public List<Owner> findAllAfter(int id, int limit) throws DataAccessException {
+        return withGraphs(this.owners.findByIdGreaterThan(id, PageRequest.of(0, limit, BY_ID)));
+    }
+
+    /**
+     * Reads the owner rows in batches of {@value #EXPORT_BATCH_SIZE} and the graphs of each batch with one query, so
+     * only one batch of owner graphs is held at a time.
+     */
+    @Override
+    public void forEach(Consumer<? super Owner> action) throws DataAccessException {
+        List<Owner> batch;
+        int lastId = 0;
+        do {
+            batch = withGraphs(this.owners.findByIdGreaterThan(lastId, PageRequest.of(0, EXPORT_BATCH_SIZE, BY_ID)));
+            for (Owner owner : batch) {
+                action.accept(owner);
+                lastId = owner.getId();
+            }
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+    }
+
+    /**
+     * Deletes the owner with its pets and visits in three set-based statements, whatever the number of pets and
+     * visits.
+     */
+    @Override
+    @Transactional
+    public void delete(Owner owner) throws DataAccessException {
+        this.owners.deleteVisitsByOwnerId(owner.getId());
+        this.owners.deletePetsByOwnerId(owner.getId());
+        this.owners.deleteById(owner.getId());
+    }
+
+    private Page<Owner> withGraphs(Page<OwnerEntity> page) {
+        return new PageImpl<>(withGraphs(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Loads the graphs of the given owner rows with one query and returns them in the order of the rows.
+     */
+    private List<Owner> withGraphs(List<OwnerEntity> entities) {
+        List<Owner> graphs = new ArrayList<>(entities.size());
+        if (entities.isEmpty()) {
+            return graphs;
+        }
+        List<Integer> ids = new ArrayList<>(entities.size());
+        for (OwnerEntity entity : entities) {
+            ids.add(entity.id());
+        }
+        EntityIndex<Owner> ownersById = EntityIndex.of(this.owners.findAggregatesByIdIn(ids), Owner.class);
+        for (Integer id : ids) {
+            Owner owner = ownersById.get(id);
+            if (owner != null) {
+                graphs.add(owner);
+            }
+        }
+        return graphs;
+    }
+
+}
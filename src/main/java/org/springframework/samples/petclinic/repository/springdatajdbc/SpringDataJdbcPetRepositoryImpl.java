@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.repository.PetRepository;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcPetSummaryRowMapper;
+import org.springframework.samples.petclinic.util.EntityIndex;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JDBC implementation of the {@link PetRepository} interface.
+ * <p>
+ * Pets are read as part of their owner's graph, restricted to the requested pets, so each pet comes with its type, its
+ * visits and its owner from a single query; the owner only holds the pets that were asked for.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcPetRepositoryImpl implements PetRepository {
+
+    private final PetEntityRepository pets;
+
+    private final OwnerEntityRepository owners;
+
+    private final PetTypeEntityRepository petTypes;
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    public SpringDataJdbcPetRepositoryImpl(PetEntityRepository pets, OwnerEntityRepository owners,
+                                           PetTypeEntityRepository petTypes, NamedParameterJdbcOperations jdbcOperations) {
+        this.pets = pets;
+        this.owners = owners;
+        this.petTypes = petTypes;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public List<PetType> findPetTypes() throws DataAccessException {
+        List<PetType> found = new ArrayList<>();
+        for (PetTypeEntity entity : this.petTypes.findAll(Sort.by("name"))) {
+            found.add(entity.toPetType());
+        }
+        return found;
+    }
+
+    @Override
+    public Pet findById(int id) throws DataAccessException {
+        List<Pet> found = findGraphs(List.of(id));
+        if (found.isEmpty()) {
+            throw new ObjectRetrievalFailureException(Pet.class, id);
+        }
+        return found.get(0);
+    }
+
+    @Override
+    public void save(Pet pet) throws DataAccessException {
+        pet.markModified();
+        PetEntity saved = this.pets.save(PetEntity.of(pet));
+        pet.setId(saved.id());
+    }
+
+    @Override
+    public Collection<Pet> findAll() throws DataAccessException {
+        List<Pet> found = new ArrayList<>();
+        for (Owner owner : this.owners.findAllAggregates()) {
+            found.addAll(owner.getPets());
+        }
+        return found;
+    }
+
+    @Override
+    public Page<Pet> findAll(Pageable pageable) throws DataAccessException {
+        Page<PetEntity> page = this.pets.findAll(pageable);
+        return new PageImpl<>(findGraphs(idsOf(page.getContent())), page.getPageable(), page.getTotalElements());
+    }
+
+    @Override
+    public List<Pet> findAllAfter(int id, int limit) throws DataAccessException {
+        return findGraphs(idsOf(this.pets.findByIdGreaterThan(id, PageRequest.of(0, limit, Sort.by("id")))));
+    }
+
+    @Override
+    public List<PetSummary> findAllSummaries() throws DataAccessException {
+        return this.jdbcOperations.query(
+            "SELECT " + JdbcPetSummaryRowMapper.COLUMNS + " FROM pets ORDER BY id",
+            new JdbcPetSummaryRowMapper());
+    }
+
+    @Override
+    public List<Integer> findExistingIds(Collection<Integer> ids) throws DataAccessException {
+        return this.jdbcOperations.queryForList(
+            "SELECT id FROM pets WHERE id IN (:ids)", Map.of("ids", ids), Integer.class);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Pet pet) throws DataAccessException {
+        this.pets.deleteVisitsByPetId(pet.getId());
+        this.pets.deleteById(pet.getId());
+    }
+
+    private static List<Integer> idsOf(List<PetEntity> entities) {
+        List<Integer> ids = new ArrayList<>(entities.size());
+        for (PetEntity entity : entities) {
+            ids.add(entity.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Loads the given pets with one query and returns them in the order of the ids.
+     */
+    private List<Pet> findGraphs(List<Integer> ids) {
+        List<Pet> found = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return found;
+        }
+        EntityIndex<Pet> petsById = new EntityIndex<>(Pet.class, ids.size());
+        for (Owner owner : this.owners.findAggregatesByPetIdIn(ids)) {
+            for (Pet pet : owner.getPets()) {
+                petsById.add(pet);
+            }
+        }
+        for (Integer id : ids) {
+            Pet pet = petsById.get(id);
+            if (pet != null) {
+                found.add(pet);
+            }
+        }
+        return found;
+    }
+
+}
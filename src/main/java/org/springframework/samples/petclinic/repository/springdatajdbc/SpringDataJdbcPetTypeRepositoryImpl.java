@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.repository.PetTypeRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JDBC implementation of the {@link PetTypeRepository} interface.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcPetTypeRepositoryImpl implements PetTypeRepository {
+
+    private final PetTypeEntityRepository petTypes;
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    public SpringDataJdbcPetTypeRepositoryImpl(PetTypeEntityRepository petTypes,
+                                               NamedParameterJdbcOperations jdbcOperations) {
+        this.petTypes = petTypes;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public PetType findById(int id) throws DataAccessException {
+        return this.petTypes.findById(id)
+            .orElseThrow(() -> new ObjectRetrievalFailureException(PetType.class, id))
+            .toPetType();
+    }
+
+    @Override
+    public PetType findByName(String name) throws DataAccessException {
+        return this.petTypes.findByName(name)
+            .orElseThrow(() -> new ObjectRetrievalFailureException(PetType.class, name))
+            .toPetType();
+    }
+
+    @Override
+    public Collection<PetType> findAll() throws DataAccessException {
+        List<PetType> found = new ArrayList<>();
+        for (PetTypeEntity entity : this.petTypes.findAll()) {
+            found.add(entity.toPetType());
+        }
+        return found;
+    }
+
+    @Override
+    public String findVersionOfAll() throws DataAccessException {
+        return this.jdbcOperations.queryForObject(
+            "SELECT MAX(last_modified), COUNT(*) FROM types",
+            Map.of(),
+            (rs, rowNum) -> EntityUtils.versionTag(rs.getObject(1, LocalDateTime.class), rs.getLong(2)));
+    }
+
+    @Override
+    public void save(PetType petType) throws DataAccessException {
+        petType.markModified();
+        PetTypeEntity saved = this.petTypes.save(PetTypeEntity.of(petType));
+        petType.setId(saved.id());
+    }
+
+    @Override
+    @Transactional
+    public void delete(PetType petType) throws DataAccessException {
+        this.petTypes.deleteVisitsByTypeId(petType.getId());
+        this.petTypes.deletePetsByTypeId(petType.getId());
+        this.petTypes.deleteById(petType.getId());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.repository.SpecialtyRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JDBC implementation of the {@link SpecialtyRepository} interface.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
+
+    private final SpecialtyEntityRepository specialties;
+
+    public SpringDataJdbcSpecialtyRepositoryImpl(SpecialtyEntityRepository specialties) {
+        this.specialties = specialties;
+    }
+
+    @Override
+    public Specialty findById(int id) throws DataAccessException {
+        return this.specialties.findById(id)
+            .orElseThrow(() -> new ObjectRetrievalFailureException(Specialty.class, id))
+            .toSpecialty();
+    }
+
+    @Override
+    public List<Specialty> findSpecialtiesByNameIn(Set<String> names) {
+        return toSpecialties(this.specialties.findByNameIn(names));
+    }
+
+    @Override
+    public Collection<Specialty> findAll() throws DataAccessException {
+        return toSpecialties(this.specialties.findAll());
+    }
+
+    @Override
+    public void save(Specialty specialty) throws DataAccessException {
+        specialty.markModified();
+        SpecialtyEntity saved = this.specialties.save(SpecialtyEntity.of(specialty));
+        specialty.setId(saved.id());
+    }
+
+    @Override
+    @Transactional
+    public void delete(Specialty specialty) throws DataAccessException {
+        this.specialties.deleteVetSpecialtiesBySpecialtyId(specialty.getId());
+        this.specialties.deleteById(specialty.getId());
+    }
+
+    private static List<Specialty> toSpecialties(List<SpecialtyEntity> entities) {
+        List<Specialty> found = new ArrayList<>(entities.size());
+        for (SpecialtyEntity entity : entities) {
+            found.add(entity.toSpecialty());
+        }
+        return found;
+    }
+
+}
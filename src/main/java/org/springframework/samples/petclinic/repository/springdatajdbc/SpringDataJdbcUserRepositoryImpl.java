@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jdbc.core.JdbcAggregateOperations;
+import org.springframework.samples.petclinic.model.User;
+import org.springframework.samples.petclinic.repository.UserRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data JDBC implementation of the {@link UserRepository} interface.
+ * <p>
+ * The username is assigned by the caller, so whether a user is new cannot be told from the id; the insert or update is
+ * chosen explicitly. A user and its roles form one aggregate and saving rewrites the roles.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcUserRepositoryImpl implements UserRepository {
+
+    private final UserEntityRepository users;
+
+    private final JdbcAggregateOperations aggregateOperations;
+
+    public SpringDataJdbcUserRepositoryImpl(UserEntityRepository users, JdbcAggregateOperations aggregateOperations) {
+        this.users = users;
+        this.aggregateOperations = aggregateOperations;
+    }
+
+    @Override
+    @Transactional
+    public void save(User user) throws DataAccessException {
+        UserEntity entity = UserEntity.of(user);
+        if (this.users.existsById(user.getUsername())) {
+            this.aggregateOperations.update(entity);
+        } else {
+            this.aggregateOperations.insert(entity);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.repository.VetRepository;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JDBC implementation of the {@link VetRepository} interface.
+ * <p>
+ * A vet and its <code>vet_specialties</code> rows form one aggregate, so saving a vet rewrites its specialty links.
+ * Reads join the specialties in and reuse {@link org.springframework.samples.petclinic.repository.jdbc.JdbcVetExtractor}.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcVetRepositoryImpl implements VetRepository {
+
+    private final VetEntityRepository vets;
+
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    public SpringDataJdbcVetRepositoryImpl(VetEntityRepository vets, NamedParameterJdbcOperations jdbcOperations) {
+        this.vets = vets;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    @Override
+    public Collection<Vet> findAll() throws DataAccessException {
+        return this.vets.findAllVets();
+    }
+
+    @Override
+    public String findVersionOfAll() throws DataAccessException {
+        return this.jdbcOperations.queryForObject(
+            "SELECT MAX(vets.last_modified), COUNT(DISTINCT vets.id), MAX(specialties.last_modified), " +
+                "COUNT(vet_specialties.specialty_id) FROM vets " +
+                "LEFT OUTER JOIN vet_specialties ON vet_specialties.vet_id = vets.id " +
+                "LEFT OUTER JOIN specialties ON specialties.id = vet_specialties.specialty_id",
+            Map.of(),
+            (rs, rowNum) -> EntityUtils.versionTag(
+                rs.getObject(1, LocalDateTime.class), rs.getLong(2),
+                rs.getObject(3, LocalDateTime.class), rs.getLong(4)));
+    }
+
+    @Override
+    public Vet findById(int id) throws DataAccessException {
+        List<Vet> found = this.vets.findVetsById(id);
+        if (found.isEmpty()) {
+            throw new ObjectRetrievalFailureException(Vet.class, id);
+        }
+        return found.get(0);
+    }
+
+    @Override
+    public void save(Vet vet) throws DataAccessException {
+        vet.markModified();
+        VetEntity saved = this.vets.save(VetEntity.of(vet));
+        vet.setId(saved.id());
+    }
+
+    @Override
+    public void delete(Vet vet) throws DataAccessException {
+        this.vets.deleteById(vet.getId());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.repository.VisitRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JDBC implementation of the {@link VisitRepository} interface.
+ * <p>
+ * Visits are read as part of their pet's owner graph, so every visit comes with its pet, pet type and owner; visits of
+ * the same pet share the same {@link Pet} instance.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcVisitRepositoryImpl implements VisitRepository {
+
+    private final VisitEntityRepository visits;
+
+    private final OwnerEntityRepository owners;
+
+    public SpringDataJdbcVisitRepositoryImpl(VisitEntityRepository visits, OwnerEntityRepository owners) {
+        this.visits = visits;
+        this.owners = owners;
+    }
+
+    @Override
+    public void save(Visit visit) throws DataAccessException {
+        visit.markModified();
+        VisitEntity saved = this.visits.save(VisitEntity.of(visit));
+        visit.setId(saved.id());
+    }
+
+    /**
+     * Saves the visits with {@link VisitEntityRepository#saveAll}, which Spring Data JDBC executes as batches of
+     * inserts and updates, and copies the generated ids back in order.
+     */
+    @Override
+    public void saveAll(Collection<Visit> visits) throws DataAccessException {
+        List<Visit> toSave = new ArrayList<>(visits);
+        List<VisitEntity> entities = new ArrayList<>(toSave.size());
+        for (Visit visit : toSave) {
+            visit.markModified();
+            entities.add(VisitEntity.of(visit));
+        }
+        List<VisitEntity> saved = this.visits.saveAll(entities);
+        for (int i = 0; i < toSave.size(); i++) {
+            toSave.get(i).setId(saved.get(i).id());
+        }
+    }
+
+    @Override
+    public List<Visit> findByPetId(Integer petId) {
+        for (Owner owner : this.owners.findAggregatesByPetIdIn(List.of(petId))) {
+            for (Pet pet : owner.getPets()) {
+                return new ArrayList<>(pet.getVisits());
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Visit findById(int id) throws DataAccessException {
+        VisitEntity entity = this.visits.findById(id)
+            .orElseThrow(() -> new ObjectRetrievalFailureException(Visit.class, id));
+        for (Visit visit : findByPetId(entity.petId())) {
+            if (visit.getId() == id) {
+                return visit;
+            }
+        }
+        throw new ObjectRetrievalFailureException(Visit.class, id);
+    }
+
+    @Override
+    public Collection<Visit> findAll() throws DataAccessException {
+        List<Visit> found = new ArrayList<>();
+        for (Owner owner : this.owners.findAllAggregates()) {
+            for (Pet pet : owner.getPets()) {
+                found.addAll(pet.getVisits());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void delete(Visit visit) throws DataAccessException {
+        this.visits.deleteById(visit.getId());
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcVisitStatsRepositoryImpl;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JDBC variant of the {@link org.springframework.samples.petclinic.repository.VisitStatsRepository}.
+ * The <code>visit_stats</code> counters are maintained with increments that derived queries cannot express, so the
+ * statements of the JDBC implementation are reused as they are.
+ */
+@DependsOnDatabaseInitialization
+@Repository
+@Profile("spring-data-jdbc")
+public class SpringDataJdbcVisitStatsRepositoryImpl extends JdbcVisitStatsRepositoryImpl {
+
+    public SpringDataJdbcVisitStatsRepositoryImpl(DataSource dataSource) {
+        super(dataSource);
+    }
+
+}
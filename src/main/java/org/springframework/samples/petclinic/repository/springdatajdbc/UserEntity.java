@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.MappedCollection;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.Role;
+import org.springframework.samples.petclinic.model.User;
+
+/**
+ * The user aggregate: the row of the <code>users</code> table together with its <code>roles</code> rows. The id is
+ * the user name, so new users have to be inserted explicitly.
+ */
+@Table("users")
+public record UserEntity(@Id String username, String password, Boolean enabled,
+                         @MappedCollection(idColumn = "username") Set<RoleRef> roles) {
+
+    static UserEntity of(User user) {
+        Set<RoleRef> roles = new HashSet<>();
+        if (user.getRoles() != null) {
+            for (Role role : user.getRoles()) {
+                if (role.getName() != null) {
+                    roles.add(new RoleRef(role.getName()));
+                }
+            }
+        }
+        return new UserEntity(user.getUsername(), user.getPassword(), user.getEnabled(), roles);
+    }
+
+    /**
+     * Row of the <code>roles</code> table.
+     */
+    @Table("roles")
+    public record RoleRef(String role) {
+    }
+
+}
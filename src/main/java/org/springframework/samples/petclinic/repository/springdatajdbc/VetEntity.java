@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.MappedCollection;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+
+/**
+ * The vet aggregate: the row of the <code>vets</code> table together with its <code>vet_specialties</code> rows,
+ * which Spring Data JDBC rewrites whenever the vet is saved.
+ */
+@Table("vets")
+public record VetEntity(@Id Integer id, String firstName, String lastName, LocalDateTime lastModified,
+                        @MappedCollection(idColumn = "vet_id") Set<SpecialtyRef> specialties) {
+
+    static VetEntity of(Vet vet) {
+        Set<SpecialtyRef> specialties = new HashSet<>();
+        for (Specialty specialty : vet.getSpecialties()) {
+            if (specialty.getId() != null) {
+                specialties.add(new SpecialtyRef(specialty.getId()));
+            }
+        }
+        return new VetEntity(vet.getId(), vet.getFirstName(), vet.getLastName(), vet.getLastModified(), specialties);
+    }
+
+    /**
+     * Row of the <code>vet_specialties</code> join table; the specialty is referenced by id.
+     */
+    @Table("vet_specialties")
+    public record SpecialtyRef(Integer specialtyId) {
+    }
+
+}
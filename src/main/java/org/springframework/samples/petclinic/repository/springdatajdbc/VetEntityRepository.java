@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcVetExtractor;
+
+/**
+ * Spring Data JDBC repository of the {@link VetEntity vet aggregate}. Vets are read together with their specialties
+ * in a single join through the {@link JdbcVetExtractor} of the JDBC implementation.
+ */
+@Profile("spring-data-jdbc")
+public interface VetEntityRepository extends ListCrudRepository<VetEntity, Integer> {
+
+    @Query(value = JdbcVetExtractor.SELECT_VETS + " ORDER BY vets.last_name, vets.first_name, vets.id",
+        resultSetExtractorClass = JdbcVetExtractor.class)
+    List<Vet> findAllVets();
+
+    @Query(value = JdbcVetExtractor.SELECT_VETS + " WHERE vets.id = :id", resultSetExtractorClass = JdbcVetExtractor.class)
+    List<Vet> findVetsById(@Param("id") int id);
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import org.springframework.samples.petclinic.model.Visit;
+
+/**
+ * Row of the <code>visits</code> table; the pet is referenced by id.
+ */
+@Table("visits")
+public record VisitEntity(@Id Integer id, Integer petId, LocalDate visitDate, String description,
+                          LocalDateTime lastModified) {
+
+    static VisitEntity of(Visit visit) {
+        return new VisitEntity(visit.getId(), visit.getPet().getId(), visit.getDate(), visit.getDescription(),
+            visit.getLastModified());
+    }
+
+}
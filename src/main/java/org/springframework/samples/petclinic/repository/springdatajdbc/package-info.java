@@ -0,0 +1,6 @@
+/**
+ * The classes in this package represent the Spring Data JDBC implementation
+ * of PetClinic's persistence layer.
+ */
+package org.springframework.samples.petclinic.repository.springdatajdbc;
+
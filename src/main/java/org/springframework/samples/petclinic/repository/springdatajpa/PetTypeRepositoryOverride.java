@@ -27,6 +27,8 @@ import org.springframework.samples.petclinic.model.PetType;
 @Profile("spring-data-jpa")
 public interface PetTypeRepositoryOverride {
 	
+	String findVersionOfAll();
+
 	void delete(PetType petType);
 
 }
@@ -16,14 +16,18 @@
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.repository.OwnerRepository;
 
 /**
@@ -34,25 +38,103 @@ import org.springframework.samples.petclinic.repository.OwnerRepository;
  */
 
 @Profile("spring-data-jpa")
-public interface SpringDataOwnerRepository extends OwnerRepository, Repository<Owner, Integer> {
+public interface SpringDataOwnerRepository extends OwnerRepository, Repository<Owner, Integer>, OwnerRepositoryOverride {
 
     @Override
-    @Query("SELECT DISTINCT owner FROM Owner owner left join fetch owner.pets WHERE owner.lastName LIKE :lastName%")
+    @EntityGraph("Owner.pets")
+    @Query("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastName%")
     Collection<Owner> findByLastName(@Param("lastName") String lastName);
 
     @Override
+    default Page<Owner> findByLastName(String lastName, Pageable pageable) {
+        return withPets(findPageByLastName(lastName, pageable));
+    }
+
     @Query(
         value = "SELECT owner FROM Owner owner WHERE owner.lastName LIKE CONCAT(:lastName, '%')",
         countQuery = "SELECT COUNT(owner) FROM Owner owner WHERE owner.lastName LIKE CONCAT(:lastName, '%')")
-    Page<Owner> findByLastName(@Param("lastName") String lastName, Pageable pageable);
+    Page<Owner> findPageByLastName(@Param("lastName") String lastName, Pageable pageable);
+
+    @Override
+    default List<Owner> findByLastNameAfter(String lastName, int id, int limit) {
+        return withPets(findPageByLastNameAfter(lastName, id, PageRequest.ofSize(limit)));
+    }
+
+    @Query("SELECT owner FROM Owner owner WHERE owner.lastName LIKE CONCAT(:lastName, '%') AND owner.id > :id ORDER BY owner.id")
+    List<Owner> findPageByLastNameAfter(@Param("lastName") String lastName, @Param("id") int id, Pageable pageable);
+
+    @Override
+    @Query("SELECT new org.springframework.samples.petclinic.model.OwnerSummary(owner.id, owner.firstName, owner.lastName, owner.city) " +
+        "FROM Owner owner WHERE owner.lastName LIKE CONCAT(:lastName, '%') ORDER BY owner.id")
+    List<OwnerSummary> findSummariesByLastName(@Param("lastName") String lastName);
 
     @Override
+    default List<OwnerSummary> findSummariesByLastNameAfter(String lastName, int id, int limit) {
+        return findSummaryPageByLastNameAfter(lastName, id, PageRequest.ofSize(limit));
+    }
+
+    @Query("SELECT new org.springframework.samples.petclinic.model.OwnerSummary(owner.id, owner.firstName, owner.lastName, owner.city) " +
+        "FROM Owner owner WHERE owner.lastName LIKE CONCAT(:lastName, '%') AND owner.id > :id ORDER BY owner.id")
+    List<OwnerSummary> findSummaryPageByLastNameAfter(@Param("lastName") String lastName, @Param("id") int id, Pageable pageable);
+
+    @Override
+    @Query("SELECT new org.springframework.samples.petclinic.model.OwnerSummary(owner.id, owner.firstName, owner.lastName, owner.city) " +
+        "FROM Owner owner WHERE owner.id IN :ids ORDER BY owner.id")
+    List<OwnerSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Override
+    @EntityGraph("Owner.pets")
+    @Query("SELECT owner FROM Owner owner")
+    Collection<Owner> findAll();
+
+    @Override
+    default Page<Owner> findAll(Pageable pageable) {
+        return withPets(findPage(pageable));
+    }
+
     @Query(
         value = "SELECT owner FROM Owner owner",
         countQuery = "SELECT COUNT(owner) FROM Owner owner")
-    Page<Owner> findAll(Pageable pageable);
+    Page<Owner> findPage(Pageable pageable);
+
+    @Override
+    default List<Owner> findAllAfter(int id, int limit) {
+        return withPets(findPageAfter(id, PageRequest.ofSize(limit)));
+    }
+
+    @Query("SELECT owner FROM Owner owner WHERE owner.id > :id ORDER BY owner.id")
+    List<Owner> findPageAfter(@Param("id") int id, Pageable pageable);
 
     @Override
-    @Query("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id")
+    @EntityGraph("Owner.pets")
+    @Query("SELECT owner FROM Owner owner WHERE owner.id =:id")
     Owner findById(@Param("id") int id);
+
+    @Override
+    @EntityGraph("Owner.pets")
+    @Query("SELECT owner FROM Owner owner WHERE owner.id IN :ids")
+    List<Owner> findByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Initialize the pets, pet types and visits of the given owners with a single query. Pages are selected without
+     * fetch joins so that the database applies the limit, then completed with this query.
+     */
+    @EntityGraph("Owner.pets")
+    @Query("SELECT owner FROM Owner owner WHERE owner IN :owners")
+    List<Owner> fetchPets(@Param("owners") Collection<Owner> owners);
+
+    private Page<Owner> withPets(Page<Owner> page) {
+        if (page.hasContent()) {
+            fetchPets(page.getContent());
+        }
+        return page;
+    }
+
+    private List<Owner> withPets(List<Owner> owners) {
+        if (!owners.isEmpty()) {
+            fetchPets(owners);
+        }
+        return owners;
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.util.EntityUtils;
+
+/**
+ * Owner operations that have to manage the persistence context explicitly, which query methods cannot do.
+ */
+@Profile("spring-data-jpa")
+public class SpringDataOwnerRepositoryImpl implements OwnerRepositoryOverride {
+
+    private static final String FETCH_SIZE = "org.hibernate.fetchSize";
+
+    private static final int EXPORT_FETCH_SIZE = 256;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Owners are scrolled through a forward-only result stream; each one is detached, together with its pets and
+     * visits, once the action has returned so that the persistence context does not grow during the export.
+     */
+    @Override
+    public void forEach(Consumer<? super Owner> action) {
+        try (Stream<Owner> owners = this.em.createQuery("SELECT owner FROM Owner owner ORDER BY owner.id", Owner.class)
+            .setHint(FETCH_SIZE, EXPORT_FETCH_SIZE)
+            .getResultStream()) {
+            owners.forEach(owner -> {
+                action.accept(owner);
+                this.em.detach(owner);
+            });
+        }
+    }
+
+    @Override
+    public String findVersionById(int id) {
+        Object[] aggregates = (Object[]) this.em.createQuery(
+            "SELECT owner.lastModified, MAX(pet.lastModified), COUNT(DISTINCT pet.id), MAX(petType.lastModified), " +
+                "MAX(visit.lastModified), COUNT(visit.id) FROM Owner owner LEFT JOIN owner.pets pet " +
+                "LEFT JOIN pet.type petType LEFT JOIN pet.visits visit WHERE owner.id = :id " +
+                "GROUP BY owner.id, owner.lastModified")
+            .setParameter("id", id)
+            .getSingleResult();
+        return EntityUtils.versionTag(aggregates);
+    }
+
+    /**
+     * Deletes the owner, its pets and their visits with three bulk statements instead of cascading
+     * <code>em.remove</code> to every pet and visit.
+     */
+    @Override
+    public void delete(Owner owner) {
+        this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id IN (SELECT pet.id FROM Pet pet WHERE pet.owner.id = :id)")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        this.em.createQuery("DELETE FROM Pet pet WHERE pet.owner.id = :id")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        this.em.createQuery("DELETE FROM Owner owner WHERE owner.id = :id")
+            .setParameter("id", owner.getId())
+            .executeUpdate();
+        if (this.em.contains(owner)) {
+            this.em.detach(owner);
+        }
+    }
+
+}
@@ -15,15 +15,20 @@
  */
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.repository.PetRepository;
 
@@ -42,8 +47,52 @@ public interface SpringDataPetRepository extends PetRepository, Repository<Pet,
     List<PetType> findPetTypes() throws DataAccessException;
 
     @Override
+    @EntityGraph("Pet.visits")
+    Pet findById(int id) throws DataAccessException;
+
+    @Override
+    @EntityGraph("Pet.visits")
+    Collection<Pet> findAll() throws DataAccessException;
+
+    @Override
+    default Page<Pet> findAll(Pageable pageable) {
+        Page<Pet> page = findPage(pageable);
+        if (page.hasContent()) {
+            fetchVisits(page.getContent());
+        }
+        return page;
+    }
+
+    /**
+     * Select a page of pets with their types and owners; visits are loaded by {@link #fetchVisits} so that the
+     * database applies the limit.
+     */
     @Query(
-        value = "SELECT pet FROM Pet pet",
+        value = "SELECT pet FROM Pet pet LEFT JOIN FETCH pet.type LEFT JOIN FETCH pet.owner",
         countQuery = "SELECT count(pet) FROM Pet pet")
-    Page<Pet> findAll(Pageable pageable);
+    Page<Pet> findPage(Pageable pageable);
+
+    @Override
+    default List<Pet> findAllAfter(int id, int limit) {
+        List<Pet> pets = findPageAfter(id, PageRequest.ofSize(limit));
+        if (!pets.isEmpty()) {
+            fetchVisits(pets);
+        }
+        return pets;
+    }
+
+    @Query("SELECT pet FROM Pet pet LEFT JOIN FETCH pet.type LEFT JOIN FETCH pet.owner WHERE pet.id > :id ORDER BY pet.id")
+    List<Pet> findPageAfter(@Param("id") int id, Pageable pageable);
+
+    @Override
+    @Query("SELECT new org.springframework.samples.petclinic.model.PetSummary(pet.id, pet.name, pet.birthDate, pet.owner.id) " +
+        "FROM Pet pet ORDER BY pet.id")
+    List<PetSummary> findAllSummaries() throws DataAccessException;
+
+    @Override
+    @Query("SELECT pet.id FROM Pet pet WHERE pet.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids) throws DataAccessException;
+
+    @Query("SELECT pet FROM Pet pet LEFT JOIN FETCH pet.visits WHERE pet IN :pets")
+    List<Pet> fetchVisits(@Param("pets") Collection<Pet> pets);
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.util.EntityUtils;
+
+/**
+ * Vet aggregates that cannot be expressed as a query method returning an entity or a projection.
+ */
+@Profile("spring-data-jpa")
+public class SpringDataVetRepositoryImpl implements VetRepositoryOverride {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public String findVersionOfAll() {
+        Object[] aggregates = (Object[]) this.em.createQuery(
+            "SELECT MAX(vet.lastModified), COUNT(DISTINCT vet.id), MAX(specialty.lastModified), COUNT(specialty.id) " +
+                "FROM Vet vet LEFT JOIN vet.specialties specialty")
+            .getSingleResult();
+        return EntityUtils.versionTag(aggregates);
+    }
+
+}
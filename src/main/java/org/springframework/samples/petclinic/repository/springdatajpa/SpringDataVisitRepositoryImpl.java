@@ -16,9 +16,12 @@
 
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Visit;
@@ -34,14 +37,38 @@ public class SpringDataVisitRepositoryImpl implements VisitRepositoryOverride {
 	@PersistenceContext
     private EntityManager em;
 
+    @Value("${petclinic.jdbc.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Removes the visit through the persistence context, as the JPA implementation does; a bulk delete next to a
+     * managed visit would make the flush delete the same row twice.
+     */
 	@Override
 	public void delete(Visit visit) throws DataAccessException {
-		String visitId = visit.getId().toString();
-		this.em.createQuery("DELETE FROM Visit visit WHERE id=" + visitId).executeUpdate();
-        if (em.contains(visit)) {
-            em.remove(visit);
-        }
+        this.em.remove(this.em.contains(visit) ? visit : this.em.merge(visit));
 	}
 
+    /**
+     * Flushes and clears the persistence context every <code>petclinic.jdbc.batch-size</code> visits, as
+     * {@link org.springframework.samples.petclinic.repository.jpa.JpaVisitRepositoryImpl#saveAll} does.
+     */
+    @Override
+    public void saveAll(Collection<Visit> visits) throws DataAccessException {
+        int count = 0;
+        for (Visit visit : visits) {
+            if (visit.getId() == null) {
+                this.em.persist(visit);
+            } else {
+                this.em.merge(visit);
+            }
+            if (++count % this.batchSize == 0) {
+                this.em.flush();
+                this.em.clear();
+            }
+        }
+        this.em.flush();
+        this.em.clear();
+    }
 
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.repository.jpa.JpaVisitStatsRepositoryImpl;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA variant of the {@link org.springframework.samples.petclinic.repository.VisitStatsRepository}.
+ * Spring Data only derives repositories for mapped entities, and the <code>visit_stats</code> table is none, so the
+ * native statements of the JPA implementation are reused as they are.
+ */
+@Repository
+@Profile("spring-data-jpa")
+public class SpringDataVisitStatsRepositoryImpl extends JpaVisitStatsRepositoryImpl {
+
+}
@@ -16,6 +16,8 @@
 
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.Collection;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.samples.petclinic.model.Visit;
 
@@ -29,4 +31,6 @@ public interface VisitRepositoryOverride {
 	
 	void delete(Visit visit);
 
+	void saveAll(Collection<Visit> visits);
+
 }
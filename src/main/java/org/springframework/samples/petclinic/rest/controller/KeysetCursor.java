@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * Opaque continuation token for keyset pagination. The token carries the id of the last entity of a page; clients
+ * only pass it back as the <code>cursor</code> parameter to read the next page.
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Return the cursor pointing after the last entity of the given slice, or <code>null</code> if no page follows.
+     */
+    public static String next(Slice<? extends BaseEntity> slice) {
+        return next(slice, BaseEntity::getId);
+    }
+
+    /**
+     * Return the cursor pointing after the last element of the given slice, or <code>null</code> if no page follows.
+     *
+     * @param id extracts the id of an element, for slices of projections rather than entities
+     */
+    public static <T> String next(Slice<T> slice, Function<? super T, Integer> id) {
+        List<T> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return null;
+        }
+        return encode(id.apply(content.get(content.size() - 1)));
+    }
+
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Return the id of the last entity already returned to the client.
+     *
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode}
+     */
+    public static int decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                int lastId = Integer.parseInt(decoded.substring(PREFIX.length()));
+                if (lastId >= 0) {
+                    return lastId;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // invalid Base64 or number, reported below
+        }
+        throw new InvalidCursorException(cursor);
+    }
+
+    /**
+     * Thrown when a client sends a cursor this application did not issue.
+     */
+    public static class InvalidCursorException extends IllegalArgumentException {
+
+        public InvalidCursorException(String cursor) {
+            super("Invalid pagination cursor: " + cursor);
+        }
+    }
+
+}
@@ -16,7 +16,7 @@
 
 package org.springframework.samples.petclinic.rest.controller.v1;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.http.HttpHeaders;
@@ -28,18 +28,22 @@ import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.VisitStats;
 import org.springframework.samples.petclinic.rest.api.OwnersApi;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerViewDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetFieldsDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.VisitStatsDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.transaction.Transactional;
@@ -61,34 +65,66 @@ public class OwnerRestControllerV1 implements OwnersApi {
 
     private final VisitMapper visitMapper;
 
+    private final WebRequest request;
+
     public OwnerRestControllerV1(ClinicService clinicService,
                                  OwnerMapper ownerMapper,
                                  PetMapper petMapper,
-                                 VisitMapper visitMapper) {
+                                 VisitMapper visitMapper,
+                                 WebRequest request) {
         this.clinicService = clinicService;
         this.ownerMapper = ownerMapper;
         this.petMapper = petMapper;
         this.visitMapper = visitMapper;
+        this.request = request;
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<OwnerDto>> listOwners(String lastName) {
-        Collection<Owner> owners;
-        if (lastName != null) {
-            owners = this.clinicService.findOwnerByLastName(lastName);
+    public ResponseEntity<List<OwnerViewDto>> listOwners(String lastName, String view) {
+        List<OwnerViewDto> owners;
+        if ("summary".equals(view)) {
+            owners = new ArrayList<>(ownerMapper.toOwnerSummaryDtos(this.clinicService.findOwnerSummaries(lastName)));
+        } else if (lastName != null) {
+            owners = new ArrayList<>(ownerMapper.toOwnerDtoCollection(this.clinicService.findOwnerByLastName(lastName)));
         } else {
-            owners = this.clinicService.findAllOwners();
+            owners = new ArrayList<>(ownerMapper.toOwnerDtoCollection(this.clinicService.findAllOwners()));
         }
         if (owners.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        return new ResponseEntity<>(owners, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<OwnerDto>> searchOwners(String q, Integer limit) {
+        List<Owner> owners = this.clinicService.searchOwners(q, limit == null ? 10 : limit);
         return new ResponseEntity<>(ownerMapper.toOwnerDtoCollection(owners), HttpStatus.OK);
     }
 
+    /**
+     * Visit statistics of all pets of an owner together, see {@link PetRestControllerV1#getPetVisitStats}.
+     */
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<VisitStatsDto> getOwnerVisitStats(Integer ownerId) {
+        VisitStats stats = this.clinicService.findVisitStatsByOwnerId(ownerId);
+        if (stats == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(visitMapper.toVisitStatsDto(stats), HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<OwnerDto> getOwner(Integer ownerId) {
+        // The version is read before the owner so that a concurrent change can only make the ETag older than the
+        // body, never newer. checkNotModified adds the ETag header and answers a matching If-None-Match with 304.
+        String version = this.clinicService.findOwnerVersion(ownerId);
+        if (version != null && this.request.checkNotModified(version)) {
+            return null;
+        }
         Owner owner = this.clinicService.findOwnerById(ownerId);
         if (owner == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -158,18 +194,15 @@ public class OwnerRestControllerV1 implements OwnersApi {
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<Void> updateOwnersPet(Integer ownerId, Integer petId, PetFieldsDto petFieldsDto) {
-        Owner currentOwner = this.clinicService.findOwnerById(ownerId);
-        if (currentOwner != null) {
-            Pet currentPet = this.clinicService.findPetById(petId);
-            if (currentPet != null) {
-                currentPet.setBirthDate(petFieldsDto.getBirthDate());
-                currentPet.setName(petFieldsDto.getName());
-                currentPet.setType(petMapper.toPetType(petFieldsDto.getType()));
-                this.clinicService.savePet(currentPet);
-                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-            }
+        Pet currentPet = findOwnersPet(ownerId, petId);
+        if (currentPet == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        currentPet.setBirthDate(petFieldsDto.getBirthDate());
+        currentPet.setName(petFieldsDto.getName());
+        currentPet.setType(petMapper.toPetType(petFieldsDto.getType()));
+        this.clinicService.savePet(currentPet);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -191,13 +224,22 @@ public class OwnerRestControllerV1 implements OwnersApi {
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<PetDto> getOwnersPet(Integer ownerId, Integer petId) {
-        Owner owner = this.clinicService.findOwnerById(ownerId);
-        if (owner != null) {
-            Pet pet = owner.getPet(petId);
-            if (pet != null) {
-                return new ResponseEntity<>(petMapper.toPetDto(pet), HttpStatus.OK);
-            }
+        Pet pet = findOwnersPet(ownerId, petId);
+        if (pet == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(petMapper.toPetDto(pet), HttpStatus.OK);
+    }
+
+    /**
+     * Read just the pet, with its visits, instead of the owner with all its pets, and check that it belongs to the
+     * owner; <code>null</code> if there is no such pet or it belongs to another owner.
+     */
+    private Pet findOwnersPet(int ownerId, int petId) {
+        Pet pet = this.clinicService.findPetById(petId);
+        if (pet == null || pet.getOwner() == null || !Integer.valueOf(ownerId).equals(pet.getOwner().getId())) {
+            return null;
         }
-        return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return pet;
     }
 }
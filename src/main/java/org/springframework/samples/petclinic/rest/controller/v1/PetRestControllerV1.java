@@ -19,9 +19,13 @@ package org.springframework.samples.petclinic.rest.controller.v1;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.PetMapper;
+import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.VisitStats;
 import org.springframework.samples.petclinic.rest.api.PetsApi;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
+import org.springframework.samples.petclinic.rest.dto.PetViewDto;
+import org.springframework.samples.petclinic.rest.dto.VisitStatsDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -44,9 +48,12 @@ public class PetRestControllerV1 implements PetsApi {
 
     private final PetMapper petMapper;
 
-    public PetRestControllerV1(ClinicService clinicService, PetMapper petMapper) {
+    private final VisitMapper visitMapper;
+
+    public PetRestControllerV1(ClinicService clinicService, PetMapper petMapper, VisitMapper visitMapper) {
         this.clinicService = clinicService;
         this.petMapper = petMapper;
+        this.visitMapper = visitMapper;
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -61,14 +68,32 @@ public class PetRestControllerV1 implements PetsApi {
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<PetDto>> listPets() {
-        List<PetDto> pets = new ArrayList<>(petMapper.toPetsDto(this.clinicService.findAllPets()));
+    public ResponseEntity<List<PetViewDto>> listPets(String view) {
+        List<PetViewDto> pets;
+        if ("summary".equals(view)) {
+            pets = new ArrayList<>(petMapper.toPetSummaryDtos(this.clinicService.findPetSummaries()));
+        } else {
+            pets = new ArrayList<>(petMapper.toPetsDto(this.clinicService.findAllPets()));
+        }
         if (pets.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         return new ResponseEntity<>(pets, HttpStatus.OK);
     }
 
+    /**
+     * Number of visits, first and last visit date and visits of the last 30 days of a pet, read from the figures
+     * maintained with every visit change instead of from its visit history.
+     */
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<VisitStatsDto> getPetVisitStats(Integer petId) {
+        VisitStats stats = this.clinicService.findVisitStatsByPetId(petId);
+        if (stats == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(visitMapper.toVisitStatsDto(stats), HttpStatus.OK);
+    }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
@@ -27,6 +27,7 @@ import org.springframework.samples.petclinic.rest.dto.PetTypeFieldsDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.transaction.Transactional;
@@ -41,16 +42,22 @@ public class PetTypeRestControllerV1 implements PettypesApi {
 
     private final ClinicService clinicService;
     private final PetTypeMapper petTypeMapper;
+    private final WebRequest request;
 
 
-    public PetTypeRestControllerV1(ClinicService clinicService, PetTypeMapper petTypeMapper) {
+    public PetTypeRestControllerV1(ClinicService clinicService, PetTypeMapper petTypeMapper, WebRequest request) {
         this.clinicService = clinicService;
         this.petTypeMapper = petTypeMapper;
+        this.request = request;
     }
 
     @PreAuthorize("hasAnyRole(@roles.OWNER_ADMIN, @roles.VET_ADMIN)")
     @Override
     public ResponseEntity<List<PetTypeDto>> listPetTypes() {
+        String version = this.clinicService.findPetTypesVersion();
+        if (version != null && this.request.checkNotModified(version)) {
+            return null;
+        }
         List<PetType> petTypes = new ArrayList<>(this.clinicService.findAllPetTypes());
         if (petTypes.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
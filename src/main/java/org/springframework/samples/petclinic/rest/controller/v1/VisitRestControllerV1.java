@@ -22,16 +22,24 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.api.VisitsApi;
+import org.springframework.samples.petclinic.rest.dto.VisitBatchErrorDto;
+import org.springframework.samples.petclinic.rest.dto.VisitBatchItemDto;
+import org.springframework.samples.petclinic.rest.dto.VisitBatchResultDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.VisitStatsRebuildDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Vitaliy Fedoriv
@@ -46,9 +54,12 @@ public class VisitRestControllerV1 implements VisitsApi {
 
     private final VisitMapper visitMapper;
 
-    public VisitRestControllerV1(ClinicService clinicService, VisitMapper visitMapper) {
+    private final Validator validator;
+
+    public VisitRestControllerV1(ClinicService clinicService, VisitMapper visitMapper, Validator validator) {
         this.clinicService = clinicService;
         this.visitMapper = visitMapper;
+        this.validator = validator;
     }
 
 
@@ -62,6 +73,17 @@ public class VisitRestControllerV1 implements VisitsApi {
         return new ResponseEntity<>(new ArrayList<>(visitMapper.toVisitsDto(visits)), HttpStatus.OK);
     }
 
+    /**
+     * Backfill of the visit statistics: recounts the visits of every pet, e.g. after visits were changed directly in
+     * the database. Answers the number of pets counted.
+     */
+    @PreAuthorize("hasRole(@roles.ADMIN)")
+    @Override
+    public ResponseEntity<VisitStatsRebuildDto> rebuildVisitStats() {
+        int pets = this.clinicService.rebuildVisitStats();
+        return new ResponseEntity<>(new VisitStatsRebuildDto(pets), HttpStatus.OK);
+    }
+
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<VisitDto> getVisit( Integer visitId) {
@@ -83,6 +105,69 @@ public class VisitRestControllerV1 implements VisitsApi {
         return new ResponseEntity<>(visitDto, headers, HttpStatus.CREATED);
     }
 
+    /**
+     * Items failing validation, or whose pet does not exist, are reported in <code>errors</code>; the pets of the
+     * other items are checked with one query before their visits are inserted.
+     */
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<VisitBatchResultDto> addVisits(List<VisitBatchItemDto> visitBatchItemDtos) {
+        List<Integer> validIndexes = new ArrayList<>(visitBatchItemDtos.size());
+        List<VisitBatchErrorDto> errors = new ArrayList<>();
+        for (int index = 0; index < visitBatchItemDtos.size(); index++) {
+            int errorCount = errors.size();
+            validate(index, visitBatchItemDtos.get(index), errors);
+            if (errors.size() == errorCount) {
+                validIndexes.add(index);
+            }
+        }
+        List<Visit> visits = new ArrayList<>(validIndexes.size());
+        if (!validIndexes.isEmpty()) {
+            Set<Integer> petIds = this.clinicService.findExistingPetIds(
+                validIndexes.stream().map(index -> visitBatchItemDtos.get(index).getPetId()).toList());
+            for (int index : validIndexes) {
+                VisitBatchItemDto item = visitBatchItemDtos.get(index);
+                if (petIds.contains(item.getPetId())) {
+                    visits.add(visitMapper.toVisit(item));
+                } else {
+                    errors.add(new VisitBatchErrorDto()
+                        .index(index)
+                        .field("petId")
+                        .message("pet not found"));
+                }
+            }
+            errors.sort(Comparator.comparing(VisitBatchErrorDto::getIndex));
+        }
+        if (!visits.isEmpty()) {
+            this.clinicService.saveVisits(visits);
+        }
+        VisitBatchResultDto result = new VisitBatchResultDto();
+        result.setCreated(new ArrayList<>(visitMapper.toVisitsDto(visits)));
+        result.setErrors(errors);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Check a batch item against the constraints of {@link VisitFieldsDto} and require a pet id.
+     */
+    private void validate(int index, VisitBatchItemDto item, List<VisitBatchErrorDto> errors) {
+        VisitFieldsDto fields = new VisitFieldsDto()
+            .date(item.getDate())
+            .description(item.getDescription());
+        for (ConstraintViolation<VisitFieldsDto> violation : this.validator.validate(fields)) {
+            errors.add(new VisitBatchErrorDto()
+                .index(index)
+                .field(violation.getPropertyPath().toString())
+                .message(violation.getMessage()));
+        }
+        if (item.getPetId() == null || item.getPetId() < 0) {
+            errors.add(new VisitBatchErrorDto()
+                .index(index)
+                .field("petId")
+                .message(item.getPetId() == null ? "must not be null" : "must be greater than or equal to 0"));
+        }
+    }
+
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<VisitDto> updateVisit(Integer visitId, VisitFieldsDto visitDto) {
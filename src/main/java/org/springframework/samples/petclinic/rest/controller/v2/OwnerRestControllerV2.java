@@ -1,41 +1,100 @@
 package org.springframework.samples.petclinic.rest.controller.v2;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.OwnerMapper;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.rest.api.OwnerV2Api;
+import org.springframework.samples.petclinic.rest.controller.KeysetCursor;
 import org.springframework.samples.petclinic.rest.dto.OwnerPageDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerPageViewDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerSummaryPageDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
 @RestController
 @CrossOrigin(exposedHeaders = "errors, content-type")
 @RequestMapping("/api")
+@Profile("!reactive")
 public class OwnerRestControllerV2 implements OwnerV2Api {
 
     private final ClinicService clinicService;
     private final OwnerMapper ownerMapper;
+    private final JsonMapper jsonMapper;
 
-    public OwnerRestControllerV2(ClinicService clinicService, OwnerMapper ownerMapper) {
+    public OwnerRestControllerV2(ClinicService clinicService, OwnerMapper ownerMapper, JsonMapper jsonMapper) {
         this.clinicService = clinicService;
         this.ownerMapper = ownerMapper;
+        this.jsonMapper = jsonMapper;
     }
 
     @Override
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
-    public ResponseEntity<OwnerPageDto> listOwnersPage(String lastName, Integer page, Integer size) {
-        int pageNumber = page == null ? 0 : page;
+    public ResponseEntity<OwnerPageViewDto> listOwnersPage(String lastName, Integer page, Integer size, String cursor,
+                                                           String view) {
         int pageSize = size == null ? 20 : size;
+        if ("summary".equals(view)) {
+            // summaries are only read by seeking on the id, so no count query is issued either
+            int afterId = cursor == null ? 0 : KeysetCursor.decode(cursor);
+            Slice<OwnerSummary> owners = this.clinicService.findOwnerSummaries(lastName, afterId, pageSize);
+            OwnerSummaryPageDto ownerSummaryPageDto = ownerMapper.toOwnerSummaryPageDto(owners);
+            ownerSummaryPageDto.setNextCursor(KeysetCursor.next(owners, OwnerSummary::getId));
+            return new ResponseEntity<>(ownerSummaryPageDto, HttpStatus.OK);
+        }
+        if (cursor != null) {
+            Slice<Owner> owners = this.clinicService.findOwners(lastName, KeysetCursor.decode(cursor), pageSize);
+            OwnerPageDto ownerPageDto = ownerMapper.toOwnerPageDto(owners);
+            ownerPageDto.setNextCursor(KeysetCursor.next(owners));
+            return new ResponseEntity<>(ownerPageDto, HttpStatus.OK);
+        }
+        int pageNumber = page == null ? 0 : page;
         Page<Owner> owners = this.clinicService.findOwners(
             lastName,
             PageRequest.of(pageNumber, pageSize, Sort.by("id")));
-        return new ResponseEntity<>(ownerMapper.toOwnerPageDto(owners), HttpStatus.OK);
+        OwnerPageDto ownerPageDto = ownerMapper.toOwnerPageDto(owners);
+        ownerPageDto.setNextCursor(KeysetCursor.next(owners));
+        return new ResponseEntity<>(ownerPageDto, HttpStatus.OK);
+    }
+
+    /**
+     * Export every owner with its pets and visits as newline-delimited JSON, one owner per line. Owners are mapped
+     * and written while the database cursor advances, so memory use does not depend on the number of owners.
+     * <p>
+     * Not part of <code>openapi.yml</code>: the generator cannot describe a streamed response body.
+     */
+    @GetMapping(value = "/v2/owners/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    public ResponseEntity<StreamingResponseBody> exportOwners() {
+        StreamingResponseBody body = outputStream -> this.clinicService.forEachOwner(
+            owner -> writeLine(outputStream, this.jsonMapper.writeValueAsBytes(this.ownerMapper.toOwnerDto(owner))));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    private static void writeLine(OutputStream outputStream, byte[] json) {
+        try {
+            outputStream.write(json);
+            outputStream.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 }
@@ -1,13 +1,16 @@
 package org.springframework.samples.petclinic.rest.controller.v2;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.rest.api.PetV2Api;
+import org.springframework.samples.petclinic.rest.controller.KeysetCursor;
 import org.springframework.samples.petclinic.rest.dto.PetPageDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RestController
 @CrossOrigin(exposedHeaders = "errors, content-type")
 @RequestMapping("/api")
+@Profile("!reactive")
 public class PetRestControllerV2 implements PetV2Api {
 
     private final ClinicService clinicService;
@@ -30,12 +34,20 @@ public class PetRestControllerV2 implements PetV2Api {
 
     @Override
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
-    public ResponseEntity<PetPageDto> listPetsPage(Integer page, Integer size) {
-        int pageNumber = page == null ? 0 : page;
+    public ResponseEntity<PetPageDto> listPetsPage(Integer page, Integer size, String cursor) {
         int pageSize = size == null ? 20 : size;
+        if (cursor != null) {
+            Slice<Pet> pets = this.clinicService.findPets(KeysetCursor.decode(cursor), pageSize);
+            PetPageDto petPageDto = petMapper.toPetPageDto(pets);
+            petPageDto.setNextCursor(KeysetCursor.next(pets));
+            return new ResponseEntity<>(petPageDto, HttpStatus.OK);
+        }
+        int pageNumber = page == null ? 0 : page;
         Page<Pet> pets = this.clinicService.findPets(
             PageRequest.of(pageNumber, pageSize, Sort.by("id")));
-        return new ResponseEntity<>(petMapper.toPetPageDto(pets), HttpStatus.OK);
+        PetPageDto petPageDto = petMapper.toPetPageDto(pets);
+        petPageDto.setNextCursor(KeysetCursor.next(pets));
+        return new ResponseEntity<>(petPageDto, HttpStatus.OK);
     }
 
 }
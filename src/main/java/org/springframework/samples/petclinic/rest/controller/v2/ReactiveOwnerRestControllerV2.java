@@ -0,0 +1,98 @@
+package org.springframework.samples.petclinic.rest.controller.v2;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.mapper.OwnerMapper;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.rest.controller.KeysetCursor;
+import org.springframework.samples.petclinic.rest.dto.OwnerDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerPageDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerPageViewDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerSummaryPageDto;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link OwnerRestControllerV2}, active with the <code>reactive</code> profile. It serves the same
+ * requests and responses as <code>openapi.yml</code> describes for <code>/v2/owners</code>, but reads through R2DBC:
+ * the request thread is released while the statements run and the response is written once the result is complete.
+ * <p>
+ * The generated <code>OwnerV2Api</code> fixes blocking return types, so the operation is mapped here by hand.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveOwnerRestControllerV2 {
+
+    private final ReactiveClinicService clinicService;
+    private final OwnerMapper ownerMapper;
+
+    public ReactiveOwnerRestControllerV2(ReactiveClinicService clinicService, OwnerMapper ownerMapper) {
+        this.clinicService = clinicService;
+        this.ownerMapper = ownerMapper;
+    }
+
+    /**
+     * See <code>listOwnersPage</code> in <code>openapi.yml</code>.
+     */
+    @GetMapping(value = "/v2/owners", produces = "application/json")
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    public Mono<ResponseEntity<OwnerPageViewDto>> listOwnersPage(
+        @RequestParam(value = "lastName", required = false) String lastName,
+        @RequestParam(value = "page", required = false) @Min(0) Integer page,
+        @RequestParam(value = "size", required = false) @Min(1) @Max(100) Integer size,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "view", required = false, defaultValue = "full") String view) {
+        int pageSize = size == null ? 20 : size;
+        if ("summary".equals(view)) {
+            int afterId = cursor == null ? 0 : KeysetCursor.decode(cursor);
+            return this.clinicService.findOwnerSummaries(lastName, afterId, pageSize)
+                .map(owners -> {
+                    OwnerSummaryPageDto ownerSummaryPageDto = ownerMapper.toOwnerSummaryPageDto(owners);
+                    ownerSummaryPageDto.setNextCursor(KeysetCursor.next(owners, OwnerSummary::getId));
+                    return new ResponseEntity<>(ownerSummaryPageDto, HttpStatus.OK);
+                });
+        }
+        if (cursor != null) {
+            return this.clinicService.findOwners(lastName, KeysetCursor.decode(cursor), pageSize)
+                .map(owners -> {
+                    OwnerPageDto ownerPageDto = ownerMapper.toOwnerPageDto(owners);
+                    ownerPageDto.setNextCursor(KeysetCursor.next(owners));
+                    return new ResponseEntity<>(ownerPageDto, HttpStatus.OK);
+                });
+        }
+        int pageNumber = page == null ? 0 : page;
+        return this.clinicService.findOwners(lastName, PageRequest.of(pageNumber, pageSize, Sort.by("id")))
+            .map(owners -> {
+                OwnerPageDto ownerPageDto = ownerMapper.toOwnerPageDto(owners);
+                ownerPageDto.setNextCursor(KeysetCursor.next(owners));
+                return new ResponseEntity<>(ownerPageDto, HttpStatus.OK);
+            });
+    }
+
+    /**
+     * See {@link OwnerRestControllerV2#exportOwners}, which takes no parameters either. Spring MVC requests the next
+     * owner only once the previous line has been written, so a slow client slows down the database reads instead of
+     * filling the heap.
+     */
+    @GetMapping(value = "/v2/owners/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    public Flux<OwnerDto> exportOwners() {
+        return this.clinicService.streamOwners().map(ownerMapper::toOwnerDto);
+    }
+
+}
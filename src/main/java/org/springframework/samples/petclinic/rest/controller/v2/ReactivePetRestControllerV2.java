@@ -0,0 +1,83 @@
+package org.springframework.samples.petclinic.rest.controller.v2;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.mapper.PetMapper;
+import org.springframework.samples.petclinic.rest.controller.KeysetCursor;
+import org.springframework.samples.petclinic.rest.dto.PetDto;
+import org.springframework.samples.petclinic.rest.dto.PetPageDto;
+import org.springframework.samples.petclinic.service.ReactiveClinicService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link PetRestControllerV2}, active with the <code>reactive</code> profile, see
+ * {@link ReactiveOwnerRestControllerV2}.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactivePetRestControllerV2 {
+
+    private final ReactiveClinicService clinicService;
+    private final PetMapper petMapper;
+
+    public ReactivePetRestControllerV2(ReactiveClinicService clinicService, PetMapper petMapper) {
+        this.clinicService = clinicService;
+        this.petMapper = petMapper;
+    }
+
+    /**
+     * See <code>listPetsPage</code> in <code>openapi.yml</code>.
+     */
+    @GetMapping(value = "/v2/pets", produces = "application/json")
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    public Mono<ResponseEntity<PetPageDto>> listPetsPage(
+        @RequestParam(value = "page", required = false) @Min(0) Integer page,
+        @RequestParam(value = "size", required = false) @Min(1) @Max(100) Integer size,
+        @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = size == null ? 20 : size;
+        if (cursor != null) {
+            return this.clinicService.findPets(KeysetCursor.decode(cursor), pageSize)
+                .map(pets -> {
+                    PetPageDto petPageDto = petMapper.toPetPageDto(pets);
+                    petPageDto.setNextCursor(KeysetCursor.next(pets));
+                    return new ResponseEntity<>(petPageDto, HttpStatus.OK);
+                });
+        }
+        int pageNumber = page == null ? 0 : page;
+        return this.clinicService.findPets(PageRequest.of(pageNumber, pageSize, Sort.by("id")))
+            .map(pets -> {
+                PetPageDto petPageDto = petMapper.toPetPageDto(pets);
+                petPageDto.setNextCursor(KeysetCursor.next(pets));
+                return new ResponseEntity<>(petPageDto, HttpStatus.OK);
+            });
+    }
+
+    /**
+     * Export every pet, with its type and visits, as newline-delimited JSON in id order, one pet per line, see
+     * {@link ReactiveOwnerRestControllerV2#exportOwners}.
+     * <p>
+     * Not part of <code>openapi.yml</code>: the generator cannot describe a streamed response body.
+     */
+    @GetMapping(value = "/v2/pets/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    public Flux<PetDto> exportPets(@RequestParam(value = "cursor", required = false) String cursor) {
+        int afterId = cursor == null ? 0 : KeysetCursor.decode(cursor);
+        return this.clinicService.streamPets(afterId).map(petMapper::toPetDto);
+    }
+
+}
@@ -1,14 +1,18 @@
 package org.springframework.samples.petclinic.security;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.jdbc.JdbcDaoImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -42,14 +46,23 @@ public class BasicAuthenticationConfig {
         return http.build();
     }
 
-    @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        // @formatter:off
-        auth
-            .jdbcAuthentication()
-                .dataSource(dataSource)
-                .usersByUsernameQuery("select username,password,enabled from users where username=?")
-                .authoritiesByUsernameQuery("select username,role from roles where username=?");
-        // @formatter:on
+    /**
+     * Users and roles are read from the database and checked against the password hash only on the first request
+     * with given credentials, then for <code>petclinic.security.auth-cache.ttl</code>; see
+     * {@link CachingAuthenticationProvider}. Being the only provider bean, Spring Security installs it in the global
+     * authentication manager.
+     */
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(
+        PasswordEncoder passwordEncoder,
+        @Value("${petclinic.security.auth-cache.ttl:5m}") Duration ttl,
+        @Value("${petclinic.security.auth-cache.max-size:10000}") long maxSize) {
+        JdbcDaoImpl users = new JdbcDaoImpl();
+        users.setDataSource(dataSource);
+        users.setUsersByUsernameQuery("select username,password,enabled from users where username=?");
+        users.setAuthoritiesByUsernameQuery("select username,role from roles where username=?");
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(provider, ttl, maxSize);
     }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.samples.petclinic.service.UserSavedEvent;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * {@link AuthenticationProvider} remembering successful username/password authentications of its delegate for a
+ * limited time, so that a client sending the same credentials with every request (HTTP Basic) costs neither the user
+ * and role queries nor the password hash check again.
+ * <p>
+ * Entries are keyed by an HMAC-SHA256 of the username and password under a key generated at startup, so no password
+ * is kept and the keys cannot be checked against guessed passwords outside of this process. Failed authentications are
+ * never cached. Users saved through the {@link org.springframework.samples.petclinic.service.UserService} are evicted
+ * once the saving transaction has committed; other changes, such as a user disabled directly in the database, are
+ * only seen once the entry has expired.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider, MeterBinder {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+
+    private final Cache<String, Authentication> authentications;
+
+    private final Mac mac;
+
+    /**
+     * @param delegate    the provider actually checking the credentials
+     * @param ttl         how long a successful authentication is reused
+     * @param maximumSize the maximum number of authentications kept
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration ttl, long maximumSize) {
+        this.delegate = delegate;
+        this.authentications = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            this.mac = Mac.getInstance(HMAC);
+            this.mac.init(new SecretKeySpec(key, HMAC));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot initialize " + HMAC, ex);
+        }
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return this.delegate.authenticate(authentication);
+        }
+        String key = credentialKey(authentication.getName(), password);
+        Authentication cached = this.authentications.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Authentication result = this.delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            this.authentications.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+            && this.delegate.supports(authentication);
+    }
+
+    /**
+     * Forget the authentications of the given user, so that its next request is checked against the database again.
+     *
+     * @param username the name of the user
+     */
+    public void invalidate(String username) {
+        this.authentications.asMap().values().removeIf(authentication -> authentication.getName().equals(username));
+    }
+
+    /**
+     * Evict the authentications of a saved user, so that its old password or roles are not accepted any longer.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    public void invalidateAll() {
+        this.authentications.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.authentications, "authentications");
+    }
+
+    private String credentialKey(String username, String password) {
+        Mac keyMac;
+        try {
+            keyMac = (Mac) this.mac.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(HMAC + " cannot be cloned", ex);
+        }
+        keyMac.update(username.getBytes(StandardCharsets.UTF_8));
+        keyMac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(keyMac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
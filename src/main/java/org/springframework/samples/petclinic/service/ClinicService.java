@@ -18,16 +18,21 @@ package org.springframework.samples.petclinic.service;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.model.VisitStats;
 
 /**
  * Mostly used as a facade so all controllers have a single point of entry
@@ -40,6 +45,8 @@ public interface ClinicService {
 	Pet findPetById(int id) throws DataAccessException;
 	Collection<Pet> findAllPets() throws DataAccessException;
     Page<Pet> findPets(Pageable pageable) throws DataAccessException;
+    Slice<Pet> findPets(int afterId, int size) throws DataAccessException;
+    List<PetSummary> findPetSummaries() throws DataAccessException;
 	void savePet(Pet pet) throws DataAccessException;
 	void deletePet(Pet pet) throws DataAccessException;
 
@@ -47,21 +54,34 @@ public interface ClinicService {
 	Visit findVisitById(int visitId) throws DataAccessException;
 	Collection<Visit> findAllVisits() throws DataAccessException;
 	void saveVisit(Visit visit) throws DataAccessException;
+	void saveVisits(Collection<Visit> visits) throws DataAccessException;
+	Set<Integer> findExistingPetIds(Collection<Integer> petIds) throws DataAccessException;
 	void deleteVisit(Visit visit) throws DataAccessException;
+	VisitStats findVisitStatsByPetId(int petId) throws DataAccessException;
+	VisitStats findVisitStatsByOwnerId(int ownerId) throws DataAccessException;
+	int rebuildVisitStats() throws DataAccessException;
 	Vet findVetById(int id) throws DataAccessException;
 	Collection<Vet> findVets() throws DataAccessException;
 	Collection<Vet> findAllVets() throws DataAccessException;
+	String findVetsVersion() throws DataAccessException;
 	void saveVet(Vet vet) throws DataAccessException;
 	void deleteVet(Vet vet) throws DataAccessException;
 	Owner findOwnerById(int id) throws DataAccessException;
+	String findOwnerVersion(int id) throws DataAccessException;
 	Collection<Owner> findAllOwners() throws DataAccessException;
 	Page<Owner> findOwners(String lastName, Pageable pageable) throws DataAccessException;
+	Slice<Owner> findOwners(String lastName, int afterId, int size) throws DataAccessException;
+	List<OwnerSummary> findOwnerSummaries(String lastName) throws DataAccessException;
+	Slice<OwnerSummary> findOwnerSummaries(String lastName, int afterId, int size) throws DataAccessException;
 	void saveOwner(Owner owner) throws DataAccessException;
 	void deleteOwner(Owner owner) throws DataAccessException;
 	Collection<Owner> findOwnerByLastName(String lastName) throws DataAccessException;
+	List<Owner> searchOwners(String text, int limit) throws DataAccessException;
+	void forEachOwner(Consumer<? super Owner> action) throws DataAccessException;
 
 	PetType findPetTypeById(int petTypeId);
 	Collection<PetType> findAllPetTypes() throws DataAccessException;
+	String findPetTypesVersion() throws DataAccessException;
 	Collection<PetType> findPetTypes() throws DataAccessException;
 	void savePetType(PetType petType) throws DataAccessException;
 	void deletePetType(PetType petType) throws DataAccessException;
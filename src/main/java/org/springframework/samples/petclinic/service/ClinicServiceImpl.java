@@ -15,24 +15,55 @@
  */
 package org.springframework.samples.petclinic.service;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.config.CacheConfig;
 import org.springframework.samples.petclinic.model.*;
 import org.springframework.samples.petclinic.repository.*;
+import org.springframework.samples.petclinic.util.EntityIndex;
+import org.springframework.samples.petclinic.util.OwnerNameIndex;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * Mostly used as a facade for all Petclinic controllers
  * Also a placeholder for @Transactional and @Cacheable annotations
+ * <p>
+ * Reference data (pet types, specialties and vets) is cached, see {@link CacheConfig}. Every method changing it
+ * evicts the matching caches both before the change and again once the transaction commits, so that a concurrent
+ * reader cannot cache the old state.
+ * <p>
+ * Owner searches by last name are answered from the {@link OwnerNameIndex}, when one is configured and loaded, and
+ * only the matching owners are then read from the database. The index is updated as soon as an owner is saved, so
+ * that the saving transaction finds it, and reverted if that transaction rolls back; deletions are applied once they
+ * have committed.
+ * <p>
+ * Every visit change also updates the per-pet figures of the {@link VisitStatsRepository} in the same transaction, so
+ * that visit statistics are read without scanning the visits.
  *
  * @author Michael Isvy
  * @author Vitaliy Fedoriv
@@ -40,12 +71,24 @@ import java.util.function.Supplier;
 @Service
 public class ClinicServiceImpl implements ClinicService {
 
+    /**
+     * Owner ids per <code>IN</code> list when reading the owners found by the name index.
+     */
+    private static final int ID_BATCH_SIZE = 500;
+
+    /**
+     * Length of the period counted by {@link VisitStats#getRecentVisitCount()}, today included.
+     */
+    private static final int RECENT_VISIT_DAYS = 30;
+
     private final PetRepository petRepository;
     private final VetRepository vetRepository;
     private final OwnerRepository ownerRepository;
     private final VisitRepository visitRepository;
     private final SpecialtyRepository specialtyRepository;
     private final PetTypeRepository petTypeRepository;
+    private final VisitStatsRepository visitStatsRepository;
+    private final OwnerNameIndex ownerNameIndex;
 
     public ClinicServiceImpl(
         PetRepository petRepository,
@@ -53,13 +96,17 @@ public class ClinicServiceImpl implements ClinicService {
         OwnerRepository ownerRepository,
         VisitRepository visitRepository,
         SpecialtyRepository specialtyRepository,
-        PetTypeRepository petTypeRepository) {
+        PetTypeRepository petTypeRepository,
+        VisitStatsRepository visitStatsRepository,
+        ObjectProvider<OwnerNameIndex> ownerNameIndex) {
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
         this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
         this.specialtyRepository = specialtyRepository;
         this.petTypeRepository = petTypeRepository;
+        this.visitStatsRepository = visitStatsRepository;
+        this.ownerNameIndex = ownerNameIndex.getIfAvailable();
     }
 
     @Override
@@ -74,6 +121,18 @@ public class ClinicServiceImpl implements ClinicService {
         return petRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Pet> findPets(int afterId, int size) throws DataAccessException {
+        return toSlice(petRepository.findAllAfter(afterId, size + 1), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PetSummary> findPetSummaries() throws DataAccessException {
+        return petRepository.findAllSummaries();
+    }
+
     @Override
     @Transactional
     public void deletePet(Pet pet) throws DataAccessException {
@@ -96,6 +155,7 @@ public class ClinicServiceImpl implements ClinicService {
     @Transactional
     public void deleteVisit(Visit visit) throws DataAccessException {
         visitRepository.delete(visit);
+        visitStatsRepository.removeVisit(visit.getPet().getId(), visit.getDate());
     }
 
     @Override
@@ -105,18 +165,32 @@ public class ClinicServiceImpl implements ClinicService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.VETS, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Collection<Vet> findAllVets() throws DataAccessException {
         return vetRepository.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.VETS, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public String findVetsVersion() throws DataAccessException {
+        return vetRepository.findVersionOfAll();
+    }
+
+    @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true)})
     @Transactional
     public void saveVet(Vet vet) throws DataAccessException {
         vetRepository.save(vet);
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = CacheConfig.VETS, allEntries = true)})
     @Transactional
     public void deleteVet(Vet vet) throws DataAccessException {
         vetRepository.delete(vet);
@@ -131,16 +205,64 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional(readOnly = true)
     public Page<Owner> findOwners(String lastName, Pageable pageable) throws DataAccessException {
+        if (lastName != null && useOwnerNameIndex(lastName) && isIdOrder(pageable.getSort())) {
+            int[] ids = ownerNameIndex.findByPrefix(lastName, pageable.getOffset(), pageable.getPageSize());
+            return new PageImpl<>(findOwnersByIds(ids), pageable, ownerNameIndex.countByPrefix(lastName));
+        }
         if (lastName != null) {
             return ownerRepository.findByLastName(lastName, pageable);
         }
         return ownerRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachOwner(Consumer<? super Owner> action) throws DataAccessException {
+        ownerRepository.forEach(action);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Owner> findOwners(String lastName, int afterId, int size) throws DataAccessException {
+        if (lastName != null && useOwnerNameIndex(lastName)) {
+            return toSlice(findOwnersByIds(ownerNameIndex.findByPrefixAfter(lastName, afterId, size + 1)), size);
+        }
+        if (lastName != null) {
+            return toSlice(ownerRepository.findByLastNameAfter(lastName, afterId, size + 1), size);
+        }
+        return toSlice(ownerRepository.findAllAfter(afterId, size + 1), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OwnerSummary> findOwnerSummaries(String lastName) throws DataAccessException {
+        if (useOwnerNameIndex(lastName)) {
+            return findOwnerSummariesByIds(ownerNameIndex.findByPrefix(lastName));
+        }
+        return ownerRepository.findSummariesByLastName(lastName == null ? "" : lastName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<OwnerSummary> findOwnerSummaries(String lastName, int afterId, int size) throws DataAccessException {
+        if (useOwnerNameIndex(lastName)) {
+            return toSlice(findOwnerSummariesByIds(ownerNameIndex.findByPrefixAfter(lastName, afterId, size + 1)), size);
+        }
+        return toSlice(ownerRepository.findSummariesByLastNameAfter(lastName == null ? "" : lastName, afterId, size + 1), size);
+    }
+
     @Override
     @Transactional
     public void deleteOwner(Owner owner) throws DataAccessException {
         ownerRepository.delete(owner);
+        if (ownerNameIndex != null) {
+            int id = owner.getId();
+            afterCompletion(committed -> {
+                if (committed) {
+                    ownerNameIndex.remove(id);
+                }
+            });
+        }
     }
 
     @Override
@@ -150,18 +272,32 @@ public class ClinicServiceImpl implements ClinicService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PET_TYPES, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Collection<PetType> findAllPetTypes() throws DataAccessException {
         return petTypeRepository.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PET_TYPES, key = "#root.methodName")
+    @Transactional(readOnly = true)
+    public String findPetTypesVersion() throws DataAccessException {
+        return petTypeRepository.findVersionOfAll();
+    }
+
+    @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.PET_TYPES, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = CacheConfig.PET_TYPES, allEntries = true)})
     @Transactional
     public void savePetType(PetType petType) throws DataAccessException {
         petTypeRepository.save(petType);
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.PET_TYPES, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = CacheConfig.PET_TYPES, allEntries = true)})
     @Transactional
     public void deletePetType(PetType petType) throws DataAccessException {
         petTypeRepository.delete(petType);
@@ -174,24 +310,32 @@ public class ClinicServiceImpl implements ClinicService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.SPECIALTIES, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Collection<Specialty> findAllSpecialties() throws DataAccessException {
         return specialtyRepository.findAll();
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.SPECIALTIES, CacheConfig.VETS}, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.SPECIALTIES, CacheConfig.VETS}, allEntries = true)})
     @Transactional
     public void saveSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.save(specialty);
     }
 
     @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = {CacheConfig.SPECIALTIES, CacheConfig.VETS}, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = {CacheConfig.SPECIALTIES, CacheConfig.VETS}, allEntries = true)})
     @Transactional
     public void deleteSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.delete(specialty);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PET_TYPES, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Collection<PetType> findPetTypes() throws DataAccessException {
         return petRepository.findPetTypes();
@@ -203,27 +347,101 @@ public class ClinicServiceImpl implements ClinicService {
         return findEntityById(() -> ownerRepository.findById(id));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String findOwnerVersion(int id) throws DataAccessException {
+        return findEntityById(() -> ownerRepository.findVersionById(id));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Pet findPetById(int id) throws DataAccessException {
         return findEntityById(() -> petRepository.findById(id));
     }
 
+    /**
+     * A new pet gets its visit statistics row in the same transaction, so that its first visits only update it, even
+     * when they are saved concurrently.
+     */
     @Override
     @Transactional
     public void savePet(Pet pet) throws DataAccessException {
         pet.setType(findPetTypeById(pet.getType().getId()));
+        boolean added = pet.isNew();
         petRepository.save(pet);
+        if (added) {
+            visitStatsRepository.addPet(pet.getId());
+        }
     }
 
     @Override
     @Transactional
     public void saveVisit(Visit visit) throws DataAccessException {
+        boolean added = visit.isNew() && visit.getDate() != null;
         visitRepository.save(visit);
+        if (added) {
+            visitStatsRepository.addVisit(visit.getPet().getId(), visit.getDate());
+        } else {
+            // the date of an existing visit may have changed, which can move the first or last visit date either way
+            visitStatsRepository.refresh(visit.getPet().getId());
+        }
+    }
+
+    /**
+     * The statistics of each pet of the batch are recounted once, in pet id order, so that concurrent batches lock
+     * the <code>visit_stats</code> rows in the same order.
+     */
+    @Override
+    @Transactional
+    public void saveVisits(Collection<Visit> visits) throws DataAccessException {
+        visitRepository.saveAll(visits);
+        Set<Integer> petIds = new TreeSet<>();
+        for (Visit visit : visits) {
+            petIds.add(visit.getPet().getId());
+        }
+        for (int petId : petIds) {
+            visitStatsRepository.refresh(petId);
+        }
+    }
+
+    /**
+     * Checks the pet ids with one query per {@value #ID_BATCH_SIZE} distinct ids, so that a batch of visits is
+     * validated without loading its pets.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Integer> findExistingPetIds(Collection<Integer> petIds) throws DataAccessException {
+        List<Integer> distinct = new ArrayList<>(new TreeSet<>(petIds));
+        Set<Integer> existing = new HashSet<>();
+        for (int from = 0; from < distinct.size(); from += ID_BATCH_SIZE) {
+            existing.addAll(petRepository.findExistingIds(
+                distinct.subList(from, Math.min(from + ID_BATCH_SIZE, distinct.size()))));
+        }
+        return existing;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VisitStats findVisitStatsByPetId(int petId) throws DataAccessException {
+        LocalDate today = LocalDate.now();
+        return visitStatsRepository.findByPetId(petId, today.minusDays(RECENT_VISIT_DAYS - 1), today);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VisitStats findVisitStatsByOwnerId(int ownerId) throws DataAccessException {
+        LocalDate today = LocalDate.now();
+        return visitStatsRepository.findByOwnerId(ownerId, today.minusDays(RECENT_VISIT_DAYS - 1), today);
+    }
 
+    @Override
+    @Transactional
+    public int rebuildVisitStats() throws DataAccessException {
+        return visitStatsRepository.rebuild();
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.VETS, key = "#root.methodName")
     @Transactional(readOnly = true)
     public Collection<Vet> findVets() throws DataAccessException {
         return vetRepository.findAll();
@@ -232,16 +450,47 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void saveOwner(Owner owner) throws DataAccessException {
+        String previousName = owner.isNew() || ownerNameIndex == null ? null : ownerNameIndex.nameOf(owner.getId());
         ownerRepository.save(owner);
-
+        if (ownerNameIndex != null) {
+            int id = owner.getId();
+            ownerNameIndex.put(id, owner.getLastName());
+            afterCompletion(committed -> {
+                if (committed) {
+                    return;
+                }
+                if (previousName != null) {
+                    ownerNameIndex.put(id, previousName);
+                } else {
+                    ownerNameIndex.forget(id);
+                }
+            });
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public Collection<Owner> findOwnerByLastName(String lastName) throws DataAccessException {
+        if (useOwnerNameIndex(lastName)) {
+            return findOwnersByIds(ownerNameIndex.findByPrefix(lastName));
+        }
         return ownerRepository.findByLastName(lastName);
     }
 
+    /**
+     * Ranked search over the owner name index; until the index is loaded, or without one, only owners whose last name
+     * starts with the text are found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Owner> searchOwners(String text, int limit) throws DataAccessException {
+        if (ownerNameIndex == null || !ownerNameIndex.isLoaded()) {
+            List<Owner> owners = new ArrayList<>(ownerRepository.findByLastName(text));
+            return owners.size() > limit ? owners.subList(0, limit) : owners;
+        }
+        return findOwnersByIds(ownerNameIndex.search(text, limit));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Collection<Visit> findVisitsByPetId(int petId) {
@@ -254,6 +503,83 @@ public class ClinicServiceImpl implements ClinicService {
         return findEntityById(() -> specialtyRepository.findSpecialtiesByNameIn(names));
     }
 
+    /**
+     * Whether a last name search can be answered from the owner name index; searching for the empty string matches
+     * every owner and is left to the repository.
+     */
+    private boolean useOwnerNameIndex(String lastName) {
+        return ownerNameIndex != null && ownerNameIndex.isLoaded() && lastName != null && !lastName.isEmpty();
+    }
+
+    private static boolean isIdOrder(Sort sort) {
+        return sort.isUnsorted() || sort.equals(Sort.by("id"));
+    }
+
+    /**
+     * Read the owners with the given ids, in the order of the ids, in batches of {@value #ID_BATCH_SIZE} ids per
+     * query. Ids of owners that no longer exist are skipped.
+     */
+    private List<Owner> findOwnersByIds(int[] ids) {
+        List<Owner> owners = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            int to = Math.min(from + ID_BATCH_SIZE, ids.length);
+            EntityIndex<Owner> found = EntityIndex.of(ownerRepository.findByIdIn(idBatch(ids, from, to)), Owner.class);
+            for (int i = from; i < to; i++) {
+                Owner owner = found.get(ids[i]);
+                if (owner != null) {
+                    owners.add(owner);
+                }
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Read the summaries of the owners with the given ascending ids, in batches of {@value #ID_BATCH_SIZE} ids per
+     * query. As every batch is read ordered by id, the summaries come back in the order of the ids.
+     */
+    private List<OwnerSummary> findOwnerSummariesByIds(int[] ids) {
+        List<OwnerSummary> summaries = new ArrayList<>(ids.length);
+        for (int from = 0; from < ids.length; from += ID_BATCH_SIZE) {
+            summaries.addAll(ownerRepository.findSummariesByIdIn(idBatch(ids, from, Math.min(from + ID_BATCH_SIZE, ids.length))));
+        }
+        return summaries;
+    }
+
+    private static List<Integer> idBatch(int[] ids, int from, int to) {
+        List<Integer> batch = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            batch.add(ids[i]);
+        }
+        return batch;
+    }
+
+    /**
+     * Run the callback once the current transaction has completed, telling it whether it committed; without a
+     * transaction the callback runs at once.
+     */
+    private static void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * Build a slice from a keyset query that asked for one element more than the page size, so that whether another
+     * page follows is known without counting.
+     */
+    private static <T> Slice<T> toSlice(List<T> content, int size) {
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.ofSize(size), hasNext);
+    }
+
     private <T> T findEntityById(Supplier<T> supplier) {
         try {
             return supplier.get();
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.model.Pet;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the owner and pet listings of {@link ClinicService}, available with the
+ * <code>reactive</code> profile. Every method returns without touching the database; the statements run once the
+ * result is subscribed to.
+ */
+public interface ReactiveClinicService {
+
+    /**
+     * See {@link ClinicService#findOwners(String, Pageable)}; a <code>null</code> last name matches every owner.
+     */
+    Mono<Page<Owner>> findOwners(String lastName, Pageable pageable);
+
+    /**
+     * See {@link ClinicService#findOwners(String, int, int)}; a <code>null</code> last name matches every owner.
+     */
+    Mono<Slice<Owner>> findOwners(String lastName, int afterId, int size);
+
+    /**
+     * Stream every owner in id order, with pets and visits, like {@link ClinicService#forEachOwner}. Owners are read
+     * as they are requested.
+     */
+    Flux<Owner> streamOwners();
+
+    /**
+     * See {@link ClinicService#findOwnerSummaries(String, int, int)}.
+     */
+    Mono<Slice<OwnerSummary>> findOwnerSummaries(String lastName, int afterId, int size);
+
+    /**
+     * See {@link ClinicService#findPets(Pageable)}.
+     */
+    Mono<Page<Pet>> findPets(Pageable pageable);
+
+    /**
+     * See {@link ClinicService#findPets(int, int)}.
+     */
+    Mono<Slice<Pet>> findPets(int afterId, int size);
+
+    /**
+     * Stream, in id order, every pet whose id is greater than the given one, with its type and visits.
+     *
+     * @param afterId the id of the last pet already returned, or 0 to start from the beginning
+     */
+    Flux<Pet> streamPets(int afterId);
+
+}
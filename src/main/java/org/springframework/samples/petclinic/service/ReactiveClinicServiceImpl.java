@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.service;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.repository.ReactiveOwnerRepository;
+import org.springframework.samples.petclinic.repository.ReactivePetRepository;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Facade of the reactive repositories for the reactive controllers.
+ * <p>
+ * Unlike {@link ClinicServiceImpl}, last name searches do not use the owner name index: the index is loaded and
+ * maintained by the blocking stack, and a prefix search on the indexed <code>last_name</code> column is a single
+ * range scan.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveClinicServiceImpl implements ReactiveClinicService {
+
+    /**
+     * Keyset queries read until the end of the table when streaming.
+     */
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    private final ReactiveOwnerRepository ownerRepository;
+
+    private final ReactivePetRepository petRepository;
+
+    public ReactiveClinicServiceImpl(ReactiveOwnerRepository ownerRepository, ReactivePetRepository petRepository) {
+        this.ownerRepository = ownerRepository;
+        this.petRepository = petRepository;
+    }
+
+    @Override
+    public Mono<Page<Owner>> findOwners(String lastName, Pageable pageable) {
+        String prefix = lastName == null ? "" : lastName;
+        return Mono.zip(
+                this.ownerRepository.findByLastName(prefix, pageable).collectList(),
+                this.ownerRepository.countByLastName(prefix))
+            .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    @Override
+    public Mono<Slice<Owner>> findOwners(String lastName, int afterId, int size) {
+        return this.ownerRepository.findByLastNameAfter(lastName == null ? "" : lastName, afterId, size + 1)
+            .collectList()
+            .map(owners -> toSlice(owners, size));
+    }
+
+    @Override
+    public Flux<Owner> streamOwners() {
+        return this.ownerRepository.findByLastNameAfter("", 0, NO_LIMIT);
+    }
+
+    @Override
+    public Mono<Slice<OwnerSummary>> findOwnerSummaries(String lastName, int afterId, int size) {
+        return this.ownerRepository.findSummariesByLastNameAfter(lastName == null ? "" : lastName, afterId, size + 1)
+            .collectList()
+            .map(owners -> toSlice(owners, size));
+    }
+
+    @Override
+    public Mono<Page<Pet>> findPets(Pageable pageable) {
+        return Mono.zip(this.petRepository.findAll(pageable).collectList(), this.petRepository.count())
+            .map(page -> new PageImpl<>(page.getT1(), pageable, page.getT2()));
+    }
+
+    @Override
+    public Mono<Slice<Pet>> findPets(int afterId, int size) {
+        return this.petRepository.findAllAfter(afterId, size + 1)
+            .collectList()
+            .map(pets -> toSlice(pets, size));
+    }
+
+    @Override
+    public Flux<Pet> streamPets(int afterId) {
+        return this.petRepository.findAllAfter(afterId, NO_LIMIT);
+    }
+
+    /**
+     * See {@link ClinicServiceImpl}: the keyset query asked for one element more than the page size.
+     */
+    private static <T> Slice<T> toSlice(List<T> content, int size) {
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.ofSize(size), hasNext);
+    }
+
+}
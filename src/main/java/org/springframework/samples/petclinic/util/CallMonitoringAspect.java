@@ -15,19 +15,38 @@
  */
 package org.springframework.samples.petclinic.util;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
 import org.springframework.jmx.export.annotation.ManagedResource;
-import org.springframework.util.StopWatch;
 
 /**
  * Simple aspect that monitors call count and call invocation time. It uses JMX annotations and therefore can be
  * monitored using any JMX console such as the jConsole
  * <p/>
+ * Every join point gets its own {@link LatencyHistogram} with nanosecond resolution, so that tail latencies
+ * (p50, p99, p99.9) can be read per repository method. Recording is lock-free. The same figures are published as
+ * Micrometer meters named {@value #METER_NAME} once the aspect is bound to a {@link MeterRegistry}.
+ * <p/>
  * This is only useful if you use JPA or JDBC.  Spring-data-jpa doesn't have any correctly annotated classes to join on
+ * <p/>
+ * The R2DBC repositories are left out: they return before their statements have run, so the histograms would only
+ * hold the time taken to assemble the query.
  *
  * @author Rob Harrop
  * @author Juergen Hoeller
@@ -36,13 +55,23 @@ import org.springframework.util.StopWatch;
  */
 @ManagedResource("petclinic:type=CallMonitor")
 @Aspect
-public class CallMonitoringAspect {
+public class CallMonitoringAspect implements MeterBinder {
+
+    static final String METER_NAME = "petclinic.repository.calls";
 
-    private boolean enabled = true;
+    private static final double[] PUBLISHED_PERCENTILES = {50.0, 99.0, 99.9};
 
-    private int callCount = 0;
+    private volatile boolean enabled = true;
 
-    private long accumulatedCallTime = 0;
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * The histogram of each advised method, so that a call finds it without formatting the method name. Spring AOP
+     * creates a new join point, and with it a new static part, for every call, so neither can be the key.
+     */
+    private final ConcurrentMap<Method, LatencyHistogram> histogramsByMethod = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
 
     @ManagedAttribute
     public boolean isEnabled() {
@@ -56,42 +85,130 @@ public class CallMonitoringAspect {
 
     @ManagedOperation
     public void reset() {
-        this.callCount = 0;
-        this.accumulatedCallTime = 0;
+        this.histograms.values().forEach(LatencyHistogram::reset);
     }
 
     @ManagedAttribute
-    public int getCallCount() {
+    public long getCallCount() {
+        long callCount = 0;
+        for (LatencyHistogram histogram : this.histograms.values()) {
+            callCount += histogram.getCount();
+        }
         return callCount;
     }
 
+    /**
+     * Average call time over all monitored methods, in milliseconds.
+     */
     @ManagedAttribute
     public long getCallTime() {
-        if (this.callCount > 0)
-            return this.accumulatedCallTime / this.callCount;
+        long callCount = 0;
+        long accumulatedCallTime = 0;
+        for (LatencyHistogram histogram : this.histograms.values()) {
+            callCount += histogram.getCount();
+            accumulatedCallTime += histogram.getTotal();
+        }
+        if (callCount > 0)
+            return TimeUnit.NANOSECONDS.toMillis(accumulatedCallTime / callCount);
         else
             return 0;
     }
 
+    @ManagedAttribute
+    public String[] getMonitoredMethods() {
+        return this.histograms.keySet().stream().sorted().toArray(String[]::new);
+    }
+
+    /**
+     * One line per monitored method with its call count and p50/p99/p99.9 latencies, in microseconds.
+     */
+    @ManagedAttribute
+    public String[] getLatencySummary() {
+        return this.histograms.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(entry -> {
+                LatencyHistogram histogram = entry.getValue();
+                return String.format("%s count=%d p50=%dus p99=%dus p999=%dus", entry.getKey(), histogram.getCount(),
+                    toMicros(histogram.getValueAtPercentile(50.0)), toMicros(histogram.getValueAtPercentile(99.0)),
+                    toMicros(histogram.getValueAtPercentile(99.9)));
+            })
+            .toArray(String[]::new);
+    }
+
+    @ManagedOperation
+    @ManagedOperationParameters({
+        @ManagedOperationParameter(name = "method", description = "Monitored method, as listed in MonitoredMethods"),
+        @ManagedOperationParameter(name = "percentile", description = "Percentile between 0 and 100")})
+    public long getLatencyPercentile(String method, double percentile) {
+        LatencyHistogram histogram = this.histograms.get(method);
+        return histogram != null ? histogram.getValueAtPercentile(percentile) : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        this.histograms.forEach((method, histogram) -> registerMeters(registry, method, histogram));
+    }
 
-    @Around("within(@org.springframework.stereotype.Repository *)")
+    @Around("within(@org.springframework.stereotype.Repository *) && " +
+        "!within(org.springframework.samples.petclinic.repository.r2dbc..*)")
     public Object invoke(ProceedingJoinPoint joinPoint) throws Throwable {
         if (this.enabled) {
-            StopWatch sw = new StopWatch(joinPoint.toShortString());
-
-            sw.start("invoke");
+            long start = System.nanoTime();
             try {
                 return joinPoint.proceed();
             } finally {
-                sw.stop();
-                synchronized (this) {
-                    this.callCount++;
-                    this.accumulatedCallTime += sw.getTotalTimeMillis();
-                }
+                histogram(joinPoint).record(System.nanoTime() - start);
             }
         } else {
             return joinPoint.proceed();
         }
     }
 
+    private LatencyHistogram histogram(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LatencyHistogram histogram = this.histogramsByMethod.get(method);
+        if (histogram == null) {
+            // the name is only formatted on the first call; overloads share it, and with it their histogram
+            histogram = histogram(joinPoint.toShortString());
+            this.histogramsByMethod.putIfAbsent(method, histogram);
+        }
+        return histogram;
+    }
+
+    private LatencyHistogram histogram(String method) {
+        LatencyHistogram histogram = this.histograms.get(method);
+        if (histogram == null) {
+            histogram = this.histograms.computeIfAbsent(method, key -> {
+                LatencyHistogram created = new LatencyHistogram();
+                MeterRegistry registry = this.meterRegistry;
+                if (registry != null) {
+                    registerMeters(registry, key, created);
+                }
+                return created;
+            });
+        }
+        return histogram;
+    }
+
+    private static void registerMeters(MeterRegistry registry, String method, LatencyHistogram histogram) {
+        FunctionTimer.builder(METER_NAME, histogram, LatencyHistogram::getCount, LatencyHistogram::getTotal,
+                TimeUnit.NANOSECONDS)
+            .tag("method", method)
+            .description("Repository method invocations")
+            .register(registry);
+        for (double percentile : PUBLISHED_PERCENTILES) {
+            Gauge.builder(METER_NAME + ".percentile", histogram,
+                    h -> h.getValueAtPercentile(percentile) / (double) TimeUnit.SECONDS.toNanos(1))
+                .tag("method", method)
+                .tag("phi", Double.toString(percentile / 100.0))
+                .baseUnit("seconds")
+                .register(registry);
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
 }
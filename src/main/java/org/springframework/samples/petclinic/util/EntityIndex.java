@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.util;
+
+import java.util.Collection;
+
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * Id-indexed lookup structure for entities, meant to be built once per query and used instead of repeated
+ * {@link EntityUtils#getById} scans. Entities are stored in an open-addressing hash table keyed by the primitive
+ * <code>int</code> id, so lookups neither box the key nor walk the collection.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @param <T> the entity type
+ * @see EntityUtils#getById
+ */
+public final class EntityIndex<T extends BaseEntity> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Class<T> entityClass;
+
+    private int[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    /**
+     * Create an empty index for entities of the given class.
+     *
+     * @param entityClass the entity class to index
+     */
+    public EntityIndex(Class<T> entityClass) {
+        this(entityClass, 0);
+    }
+
+    /**
+     * Create an empty index for entities of the given class, sized to hold the expected number of entities without
+     * rehashing.
+     *
+     * @param entityClass  the entity class to index
+     * @param expectedSize the number of entities expected to be added
+     */
+    public EntityIndex(Class<T> entityClass, int expectedSize) {
+        this.entityClass = entityClass;
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Build an index of the given entities.
+     *
+     * @param entities    the entities to index
+     * @param entityClass the entity class to index
+     * @return the index
+     */
+    public static <T extends BaseEntity> EntityIndex<T> of(Collection<? extends T> entities, Class<T> entityClass) {
+        EntityIndex<T> index = new EntityIndex<>(entityClass, entities.size());
+        for (T entity : entities) {
+            index.add(entity);
+        }
+        return index;
+    }
+
+    /**
+     * Add the given entity, replacing any entity previously indexed with the same id.
+     *
+     * @param entity the entity to add, which must have an id
+     * @throws IllegalArgumentException if the entity has no id
+     */
+    public void add(T entity) {
+        if (entity.isNew()) {
+            throw new IllegalArgumentException("Cannot index a new " + this.entityClass.getSimpleName());
+        }
+        int id = entity.getId();
+        if ((this.size + 1) * 2 > this.keys.length) {
+            resize(this.keys.length * 2);
+        }
+        int mask = this.keys.length - 1;
+        int slot = hash(id) & mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == id) {
+                this.values[slot] = entity;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = id;
+        this.values[slot] = entity;
+        this.size++;
+    }
+
+    /**
+     * Look up the entity with the given id.
+     *
+     * @param entityId the entity id to look up
+     * @return the found entity, or <code>null</code> if none is indexed under this id
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int entityId) {
+        int mask = this.keys.length - 1;
+        int slot = hash(entityId) & mask;
+        Object value;
+        while ((value = this.values[slot]) != null) {
+            if (this.keys[slot] == entityId) {
+                return (T) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Look up the entity with the given id.
+     *
+     * @param entityId the entity id to look up
+     * @return the found entity
+     * @throws ObjectRetrievalFailureException if the entity was not found
+     */
+    public T getById(int entityId) throws ObjectRetrievalFailureException {
+        T entity = get(entityId);
+        if (entity == null) {
+            throw new ObjectRetrievalFailureException(this.entityClass, entityId);
+        }
+        return entity;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (this.values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spread sequential database ids over the table (Fibonacci hashing).
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Smallest power of two keeping the load factor at or below one half for the expected size.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+}
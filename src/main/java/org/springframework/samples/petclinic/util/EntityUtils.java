@@ -16,10 +16,12 @@
 
 package org.springframework.samples.petclinic.util;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.util.DigestUtils;
 
 /**
  * Utility methods for handling entities. Separate from the BaseEntity class mainly because of dependency on the
@@ -51,4 +53,19 @@ public abstract class EntityUtils {
         throw new ObjectRetrievalFailureException(entityClass, entityId);
     }
 
+    /**
+     * Fold the given aggregates of an entity graph, typically last-modified stamps and row counts, into an opaque
+     * version tag suitable as a strong ETag. The tag changes whenever one of the values changes.
+     *
+     * @param aggregates the aggregate values, may contain <code>null</code>
+     * @return the hex encoded version tag
+     */
+    public static String versionTag(Object... aggregates) {
+        StringBuilder sb = new StringBuilder();
+        for (Object aggregate : aggregates) {
+            sb.append(aggregate).append('|');
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Reusable gzip encoder made of a raw {@link Deflater}, its checksum and its output buffer. The gzip framing
+ * (RFC 1952) is written by hand because {@link java.util.zip.GZIPOutputStream} allocates a new deflater and buffer
+ * for every stream. Not thread-safe: {@link ResponseCompressionFilter} lends each instance to one response at a time.
+ * <p>
+ * Only the time spent inside {@link Deflater#deflate} is accumulated, so {@link #getDeflateNanos()} measures the
+ * CPU cost of compression without the time spent writing to a slow client.
+ */
+final class GzipCompressor {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final Deflater deflater;
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] buffer;
+
+    private OutputStream out;
+
+    private long bytesIn;
+
+    private long bytesOut;
+
+    private long deflateNanos;
+
+    GzipCompressor(int level, int bufferSize) {
+        this.deflater = new Deflater(level, true);
+        this.buffer = new byte[bufferSize];
+    }
+
+    void start(OutputStream out) throws IOException {
+        this.out = out;
+        out.write(HEADER);
+        this.bytesOut = HEADER.length;
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        this.crc.update(b, off, len);
+        this.bytesIn += len;
+        this.deflater.setInput(b, off, len);
+        while (!this.deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * Emit everything written so far as complete deflate blocks, so that a streaming client can decode it.
+     */
+    void flush() throws IOException {
+        while (deflate(Deflater.SYNC_FLUSH) == this.buffer.length) {
+            // the buffer was filled, more output may be pending
+        }
+        this.out.flush();
+    }
+
+    void finish() throws IOException {
+        this.deflater.finish();
+        while (!this.deflater.finished()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+        writeIntLE(this.crc.getValue());
+        writeIntLE(this.bytesIn);
+        this.bytesOut += 8;
+    }
+
+    long getBytesIn() {
+        return this.bytesIn;
+    }
+
+    long getBytesOut() {
+        return this.bytesOut;
+    }
+
+    long getDeflateNanos() {
+        return this.deflateNanos;
+    }
+
+    /**
+     * Prepare this compressor for the next stream.
+     */
+    void reset() {
+        this.deflater.reset();
+        this.crc.reset();
+        this.out = null;
+        this.bytesIn = 0;
+        this.bytesOut = 0;
+        this.deflateNanos = 0;
+    }
+
+    /**
+     * Release the native memory of the deflater; the compressor cannot be used afterwards.
+     */
+    void end() {
+        this.deflater.end();
+    }
+
+    private int deflate(int flush) throws IOException {
+        long start = System.nanoTime();
+        int length = this.deflater.deflate(this.buffer, 0, this.buffer.length, flush);
+        this.deflateNanos += System.nanoTime() - start;
+        if (length > 0) {
+            this.out.write(this.buffer, 0, length);
+            this.bytesOut += length;
+        }
+        return length;
+    }
+
+    private void writeIntLE(long value) throws IOException {
+        this.out.write((int) value & 0xff);
+        this.out.write((int) (value >> 8) & 0xff);
+        this.out.write((int) (value >> 16) & 0xff);
+        this.out.write((int) (value >> 24) & 0xff);
+    }
+
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Collection;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of owner last names answering as-you-type searches without a <code>LIKE</code> scan. Names are
+ * matched case-insensitively: a sorted map from lower-cased name to the ascending ids of its owners serves exact and
+ * prefix matches, and a trigram map from every three-character substring to the names containing it serves infix matches.
+ * <p>
+ * Distinct last names are far fewer than owners, so both maps stay small and a search touches only a few hundred
+ * names even with millions of owners. Searches never lock; id lists are replaced rather than modified, and writers
+ * are serialized by a {@link ReentrantLock}, which a waiting virtual thread releases its carrier for.
+ * <p>
+ * The index only returns candidate ids: owners must still be read from the database, which stays the reference for
+ * their current state. Owners deleted or renamed by a transaction that has not committed yet may therefore be
+ * returned and have to be dropped by the caller if they are not found.
+ */
+public final class OwnerNameIndex {
+
+    private static final int GRAM = 3;
+
+    /**
+     * Slot value of a removed owner, compared by identity, so that a running {@link #load} does not add it back.
+     */
+    private static final String REMOVED = new String("");
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final ConcurrentSkipListMap<String, int[]> idsByName = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentHashMap<String, Set<String>> namesByTrigram = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Indexed name of each owner, by id; guarded by {@link #writeLock}.
+     */
+    private String[] nameById = new String[1024];
+
+    private int size;
+
+    private volatile boolean loaded;
+
+    /**
+     * Index the owner under the given last name, replacing the name it was indexed under before.
+     *
+     * @param id       the owner id
+     * @param lastName the owner last name
+     */
+    public void put(int id, String lastName) {
+        String name = normalize(lastName);
+        this.writeLock.lock();
+        try {
+            String previous = slot(id);
+            if (previous != null && previous != REMOVED) {
+                if (previous.equals(name)) {
+                    return;
+                }
+                unlink(id, previous);
+                this.size--;
+            }
+            link(id, name);
+            setSlot(id, name);
+            this.size++;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Index the owner read by a bulk load, unless it has been put or removed since the load started.
+     *
+     * @param id       the owner id
+     * @param lastName the owner last name
+     */
+    public void load(int id, String lastName) {
+        String name = normalize(lastName);
+        this.writeLock.lock();
+        try {
+            if (slot(id) == null) {
+                link(id, name);
+                setSlot(id, name);
+                this.size++;
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the owner from the index.
+     *
+     * @param id the owner id
+     */
+    public void remove(int id) {
+        this.writeLock.lock();
+        try {
+            String previous = slot(id);
+            if (previous != null && previous != REMOVED) {
+                unlink(id, previous);
+                this.size--;
+            }
+            setSlot(id, REMOVED);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forget everything about the owner, including its removal, so that a later {@link #load} indexes it again.
+     * Meant to undo a {@link #put} whose transaction rolled back.
+     *
+     * @param id the owner id
+     */
+    public void forget(int id) {
+        this.writeLock.lock();
+        try {
+            String previous = slot(id);
+            if (previous != null && previous != REMOVED) {
+                unlink(id, previous);
+                this.size--;
+            }
+            setSlot(id, null);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Return the lower-cased last name the owner is indexed under, or <code>null</code> if it is not indexed.
+     *
+     * @param id the owner id
+     */
+    public String nameOf(int id) {
+        this.writeLock.lock();
+        try {
+            String name = slot(id);
+            return name == REMOVED ? null : name;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Record that the bulk load has completed; until then searches miss the owners not read yet.
+     */
+    public void markLoaded() {
+        this.loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+
+    /**
+     * Return the number of indexed owners.
+     */
+    public int size() {
+        this.writeLock.lock();
+        try {
+            return this.size;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Return, in ascending order, the ids of every owner whose last name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the start of the last name
+     * @return the matching ids, possibly empty
+     */
+    public int[] findByPrefix(String prefix) {
+        return mergeByPrefix(prefix, -1).take(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return, in ascending order, at most <code>limit</code> ids of owners whose last name starts with the given
+     * prefix, ignoring case, skipping the first <code>offset</code> of them.
+     *
+     * @param prefix the start of the last name
+     * @param offset the number of matching ids to skip
+     * @param limit  the maximum number of ids to return
+     * @return the matching ids, possibly empty
+     */
+    public int[] findByPrefix(String prefix, long offset, int limit) {
+        IdMerge ids = mergeByPrefix(prefix, -1);
+        ids.skip(offset);
+        return ids.take(limit);
+    }
+
+    /**
+     * Return, in ascending order, at most <code>limit</code> ids greater than <code>afterId</code> of owners whose
+     * last name starts with the given prefix, ignoring case.
+     *
+     * @param prefix  the start of the last name
+     * @param afterId the id of the last owner already returned, or 0 to start from the beginning
+     * @param limit   the maximum number of ids to return
+     * @return the matching ids, possibly empty
+     */
+    public int[] findByPrefixAfter(String prefix, int afterId, int limit) {
+        return mergeByPrefix(prefix, afterId).take(limit);
+    }
+
+    /**
+     * Return the number of owners whose last name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the start of the last name
+     */
+    public int countByPrefix(String prefix) {
+        int count = 0;
+        for (int[] named : withPrefix(normalize(prefix))) {
+            count += named.length;
+        }
+        return count;
+    }
+
+    /**
+     * Return the ids of at most <code>limit</code> owners whose last name contains the given text, ignoring case,
+     * best matches first: owners named exactly like the text, then owners whose name starts with it, then owners
+     * whose name contains it elsewhere. Within each group owners are ordered by name, then id. Infix matches need at
+     * least three characters; shorter texts only match at the start of names.
+     *
+     * @param text  the text to search for
+     * @param limit the maximum number of ids to return
+     * @return the matching ids, possibly empty
+     */
+    public int[] search(String text, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty() || limit <= 0) {
+            return NO_IDS;
+        }
+        IdBuffer ids = new IdBuffer(limit);
+        // the exact name is the first of its prefix range
+        for (int[] named : withPrefix(query)) {
+            if (!ids.addAll(named)) {
+                return ids.toArray();
+            }
+        }
+        if (query.length() >= GRAM) {
+            for (String name : infixMatches(query, limit - ids.size())) {
+                int[] named = this.idsByName.get(name);
+                if (named != null && !ids.addAll(named)) {
+                    break;
+                }
+            }
+        }
+        return ids.toArray();
+    }
+
+    /**
+     * The first <code>count</code> names, in order, containing the query past their first character; every name
+     * holds at least one id, so no more are needed. Candidates come from the rarest trigram of the query and are then
+     * checked against the whole query.
+     */
+    private List<String> infixMatches(String query, int count) {
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<String> names = this.namesByTrigram.get(query.substring(i, i + GRAM));
+            if (names == null) {
+                return List.of();
+            }
+            if (rarest == null || names.size() < rarest.size()) {
+                rarest = names;
+            }
+        }
+        // keep the smallest names seen so far, the largest of them on top
+        PriorityQueue<String> best = new PriorityQueue<>(count + 1, Collections.reverseOrder());
+        for (String name : rarest) {
+            if (!name.startsWith(query) && name.contains(query)
+                && (best.size() < count || name.compareTo(best.peek()) < 0)) {
+                best.add(name);
+                if (best.size() > count) {
+                    best.poll();
+                }
+            }
+        }
+        List<String> matches = new ArrayList<>(best);
+        matches.sort(null);
+        return matches;
+    }
+
+    private IdMerge mergeByPrefix(String prefix, int afterId) {
+        return new IdMerge(withPrefix(normalize(prefix)), afterId);
+    }
+
+    /**
+     * The id lists of the names starting with the given prefix, in name order.
+     */
+    private Collection<int[]> withPrefix(String prefix) {
+        return this.idsByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    private void link(int id, String name) {
+        int[] previous = this.idsByName.get(name);
+        this.idsByName.put(name, previous == null ? new int[]{id} : insert(previous, id));
+        if (previous == null) {
+            for (int i = 0; i + GRAM <= name.length(); i++) {
+                this.namesByTrigram.computeIfAbsent(name.substring(i, i + GRAM), t -> ConcurrentHashMap.newKeySet())
+                    .add(name);
+            }
+        }
+    }
+
+    private void unlink(int id, String name) {
+        int[] previous = this.idsByName.get(name);
+        if (previous == null) {
+            return;
+        }
+        int[] remaining = delete(previous, id);
+        if (remaining.length > 0) {
+            this.idsByName.put(name, remaining);
+            return;
+        }
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            String trigram = name.substring(i, i + GRAM);
+            Set<String> names = this.namesByTrigram.get(trigram);
+            if (names != null) {
+                names.remove(name);
+                if (names.isEmpty()) {
+                    this.namesByTrigram.remove(trigram);
+                }
+            }
+        }
+        this.idsByName.remove(name);
+    }
+
+    private String slot(int id) {
+        return id >= 0 && id < this.nameById.length ? this.nameById[id] : null;
+    }
+
+    private void setSlot(int id, String name) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Owner id must not be negative: " + id);
+        }
+        if (id >= this.nameById.length) {
+            if (name == null) {
+                return;
+            }
+            this.nameById = Arrays.copyOf(this.nameById, Math.max(id + 1, this.nameById.length + (this.nameById.length >> 1)));
+        }
+        this.nameById[id] = name;
+    }
+
+    /**
+     * Copy of the sorted ids with the given one added.
+     */
+    private static int[] insert(int[] ids, int id) {
+        if (ids[ids.length - 1] < id) {
+            // owners are loaded and created in id order
+            int[] result = Arrays.copyOf(ids, ids.length + 1);
+            result[ids.length] = id;
+            return result;
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertion = -position - 1;
+        int[] result = new int[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertion);
+        result[insertion] = id;
+        System.arraycopy(ids, insertion, result, insertion + 1, ids.length - insertion);
+        return result;
+    }
+
+    /**
+     * Copy of the sorted ids without the given one.
+     */
+    private static int[] delete(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        int[] result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        System.arraycopy(ids, position + 1, result, position, ids.length - position - 1);
+        return result;
+    }
+
+    static String normalize(String lastName) {
+        return lastName == null ? "" : lastName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ascending merge of the sorted id lists of several names, read lazily: a page of ids costs a binary search per
+     * name and a heap step per id rather than a sort of every match. An owner has one name, so the lists never share
+     * an id.
+     */
+    private static final class IdMerge {
+
+        private final int[][] lists;
+
+        private final int[] positions;
+
+        /**
+         * Indexes of the lists not exhausted yet, as a binary min-heap on their next id.
+         */
+        private final int[] heap;
+
+        private int heapSize;
+
+        private int remaining;
+
+        IdMerge(Collection<int[]> lists, int afterId) {
+            this.lists = lists.toArray(new int[0][]);
+            this.positions = new int[this.lists.length];
+            this.heap = new int[this.lists.length];
+            for (int list = 0; list < this.lists.length; list++) {
+                int[] ids = this.lists[list];
+                int position = Arrays.binarySearch(ids, afterId);
+                position = position < 0 ? -position - 1 : position + 1;
+                if (position < ids.length) {
+                    this.positions[list] = position;
+                    this.heap[this.heapSize++] = list;
+                    this.remaining += ids.length - position;
+                }
+            }
+            for (int i = this.heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        void skip(long count) {
+            for (long i = 0; i < count && this.remaining > 0; i++) {
+                next();
+            }
+        }
+
+        int[] take(int limit) {
+            int[] ids = new int[Math.min(limit, this.remaining)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = next();
+            }
+            return ids;
+        }
+
+        private int next() {
+            int list = this.heap[0];
+            int id = this.lists[list][this.positions[list]++];
+            if (this.positions[list] == this.lists[list].length) {
+                this.heap[0] = this.heap[--this.heapSize];
+            }
+            this.remaining--;
+            siftDown(0);
+            return id;
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < this.heapSize && head(left) < head(smallest)) {
+                    smallest = left;
+                }
+                if (right < this.heapSize && head(right) < head(smallest)) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int swapped = this.heap[i];
+                this.heap[i] = this.heap[smallest];
+                this.heap[smallest] = swapped;
+                i = smallest;
+            }
+        }
+
+        private int head(int heapIndex) {
+            int list = this.heap[heapIndex];
+            return this.lists[list][this.positions[list]];
+        }
+
+    }
+
+    /**
+     * Growable <code>int</code> list capped at a maximum size.
+     */
+    private static final class IdBuffer {
+
+        private final int limit;
+
+        private int[] ids = new int[16];
+
+        private int count;
+
+        IdBuffer(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Append the given ids up to the limit; return <code>false</code> once the limit has been reached.
+         */
+        boolean addAll(int[] more) {
+            int n = Math.min(more.length, this.limit - this.count);
+            if (this.count + n > this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, Math.max(this.count + n, this.ids.length * 2));
+            }
+            System.arraycopy(more, 0, this.ids, this.count, n);
+            this.count += n;
+            return this.count < this.limit;
+        }
+
+        int size() {
+            return this.count;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(this.ids, this.count);
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Remembers, for a limited window, which client sessions have just committed a read-write transaction, so that
+ * their following reads are served by the primary until the replicas have caught up.
+ * <p>
+ * A session is the authenticated user, else the HTTP session, else the client address; outside of a web request it
+ * is the current thread. Registered as a {@link TransactionExecutionListener}, it is applied by Spring Boot to the
+ * auto-configured transaction manager.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * @param window how long after a commit the session keeps reading from the primary; should exceed the usual
+     *               replication lag
+     */
+    public ReadYourWritesTracker(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .maximumSize(100_000)
+            .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure == null && transaction.isNewTransaction() && !transaction.isReadOnly()) {
+            this.recentWriters.put(currentSession(), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether the current session committed a read-write transaction within the window.
+     */
+    public boolean hasRecentWrite() {
+        return this.recentWriters.getIfPresent(currentSession()) != null;
+    }
+
+    static String currentSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            if (request.getUserPrincipal() != null) {
+                return "user:" + request.getUserPrincipal().getName();
+            }
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                return "session:" + session.getId();
+            }
+            return "client:" + request.getRemoteAddr();
+        }
+        return "thread:" + Thread.currentThread().getId();
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Strategy choosing the replica that serves the next read-only connection.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+@FunctionalInterface
+public interface ReplicaLoadBalancer {
+
+    /**
+     * Choose one of the given replicas, never called with an empty list.
+     */
+    DataSource choose(List<DataSource> replicas);
+
+    /**
+     * Hand out the replicas in turn.
+     */
+    static ReplicaLoadBalancer roundRobin() {
+        AtomicInteger next = new AtomicInteger();
+        return replicas -> replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Pick a replica at random, which needs no shared counter.
+     */
+    static ReplicaLoadBalancer random() {
+        return replicas -> replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+    }
+
+    /**
+     * Return the balancer named <code>round-robin</code> or <code>random</code>.
+     *
+     * @throws IllegalArgumentException for any other name
+     */
+    static ReplicaLoadBalancer named(String name) {
+        return switch (name) {
+            case "round-robin" -> roundRobin();
+            case "random" -> random();
+            default -> throw new IllegalArgumentException("Unknown replica load balancer: " + name);
+        };
+    }
+
+}
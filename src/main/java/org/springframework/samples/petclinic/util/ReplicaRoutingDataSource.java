@@ -0,0 +1,85 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.util.Assert;
+
+/**
+ * {@link DataSource} handing out read-only connections: from a replica chosen by the {@link ReplicaLoadBalancer},
+ * or from the primary while the {@link ReadYourWritesTracker} reports a recent write of the current session.
+ * <p>
+ * Meant as the read-only target of a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * defers fetching the physical connection until the transaction manager has marked it read-only. That covers
+ * <code>@Transactional(readOnly = true)</code> with both the JDBC and the JPA transaction managers.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final ReplicaLoadBalancer loadBalancer;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLoadBalancer loadBalancer,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        Assert.notEmpty(replicas, "At least one replica is required");
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.loadBalancer = loadBalancer;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    /**
+     * Close the replica pools; the primary is managed on its own.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : this.replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    DataSource determineTarget() {
+        if (this.readYourWritesTracker.hasRecentWrite()) {
+            return this.primary;
+        }
+        return this.loadBalancer.choose(this.replicas);
+    }
+
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Servlet filter gzip-compressing responses for clients that accept it. The body is compressed while it is being
+ * written, so a large JSON array streams from Jackson through the deflater to the client without ever being held in
+ * memory. The first <code>minResponseSize</code> bytes are buffered: a response that ends before the buffer is full
+ * is sent as is with a <code>Content-Length</code>, because compressing it would cost more than it saves.
+ * <p>
+ * Compressors are pooled and reused, since every new {@link java.util.zip.Deflater} allocates a few hundred
+ * kilobytes of native memory. Only textual content types are compressed, and responses that already carry a
+ * <code>Content-Encoding</code> are left alone. Strong <code>ETag</code>s are weakened on compressed responses; the
+ * conditional request handling compares them weakly for <code>If-None-Match</code>.
+ * <p>
+ * Per handler mapping pattern, the uncompressed, compressed and saved bytes and the time spent deflating are
+ * published as Micrometer meters named {@value #METER_NAME} once the filter is bound to a {@link MeterRegistry}.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String METER_NAME = "petclinic.http.compression";
+
+    private static final String GZIP = "gzip";
+
+    private static final int COMPRESSOR_BUFFER_SIZE = 8192;
+
+    private static final String WRAPPER_ATTRIBUTE = ResponseCompressionFilter.class.getName() + ".WRAPPER";
+
+    private static final List<MediaType> COMPRESSIBLE_TYPES = List.of(
+        MediaType.parseMediaType("text/*"),
+        MediaType.APPLICATION_JSON,
+        MediaType.parseMediaType("application/*+json"),
+        MediaType.APPLICATION_NDJSON,
+        MediaType.APPLICATION_XML,
+        MediaType.parseMediaType("application/*+xml"),
+        MediaType.parseMediaType("application/javascript"));
+
+    private final int minResponseSize;
+
+    private final int level;
+
+    private final BlockingQueue<GzipCompressor> compressors;
+
+    private final ConcurrentMap<String, CompressionStatistics> statistics = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    /**
+     * @param minResponseSize responses shorter than this many bytes are not compressed
+     * @param level           the deflate level, from 1 (fastest) to 9 (smallest), or -1 for the zlib default
+     * @param maxPooled       the maximum number of idle compressors kept for reuse
+     */
+    public ResponseCompressionFilter(int minResponseSize, int level, int maxPooled) {
+        this.minResponseSize = Math.max(minResponseSize, 1);
+        this.level = level;
+        this.compressors = new ArrayBlockingQueue<>(Math.max(maxPooled, 1));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        this.statistics.forEach((uri, stats) -> registerMeters(registry, uri, stats));
+    }
+
+    /**
+     * Streamed bodies are written after the request has gone asynchronous; the response is completed by the async
+     * dispatch that follows.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        CompressingResponseWrapper wrapper = (CompressingResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        if (wrapper == null) {
+            if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new CompressingResponseWrapper(response);
+        }
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            completed = true;
+        } finally {
+            if (!completed) {
+                // the error page is rendered by the container, so the compressor is not needed any more
+                request.removeAttribute(WRAPPER_ATTRIBUTE);
+                wrapper.abort();
+            }
+        }
+        if (request.isAsyncStarted()) {
+            request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+        } else {
+            request.removeAttribute(WRAPPER_ATTRIBUTE);
+            wrapper.finish((String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        }
+    }
+
+    /**
+     * Whether the given <code>Accept-Encoding</code> header allows gzip, either by name or through <code>*</code>.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                gzipQuality = quality(parts);
+            } else if ("*".equals(name)) {
+                anyQuality = quality(parts);
+            }
+        }
+        return (gzipQuality >= 0 ? gzipQuality : anyQuality) > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return COMPRESSIBLE_TYPES.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private GzipCompressor acquireCompressor() {
+        GzipCompressor compressor = this.compressors.poll();
+        return compressor != null ? compressor : new GzipCompressor(this.level, COMPRESSOR_BUFFER_SIZE);
+    }
+
+    private void releaseCompressor(GzipCompressor compressor) {
+        compressor.reset();
+        if (!this.compressors.offer(compressor)) {
+            compressor.end();
+        }
+    }
+
+    /**
+     * Return the number of idle compressors kept for reuse.
+     */
+    int getPooledCompressors() {
+        return this.compressors.size();
+    }
+
+    private void record(String uri, GzipCompressor compressor) {
+        String key = uri != null ? uri : "UNKNOWN";
+        CompressionStatistics stats = this.statistics.get(key);
+        if (stats == null) {
+            stats = this.statistics.computeIfAbsent(key, k -> {
+                CompressionStatistics created = new CompressionStatistics();
+                MeterRegistry registry = this.meterRegistry;
+                if (registry != null) {
+                    registerMeters(registry, k, created);
+                }
+                return created;
+            });
+        }
+        stats.responses.increment();
+        stats.bytesIn.add(compressor.getBytesIn());
+        stats.bytesOut.add(compressor.getBytesOut());
+        stats.deflateNanos.add(compressor.getDeflateNanos());
+    }
+
+    private static void registerMeters(MeterRegistry registry, String uri, CompressionStatistics stats) {
+        FunctionCounter.builder(METER_NAME + ".bytes.in", stats, s -> s.bytesIn.sum())
+            .tag("uri", uri)
+            .baseUnit("bytes")
+            .description("Response bytes before compression")
+            .register(registry);
+        FunctionCounter.builder(METER_NAME + ".bytes.out", stats, s -> s.bytesOut.sum())
+            .tag("uri", uri)
+            .baseUnit("bytes")
+            .description("Response bytes sent after compression")
+            .register(registry);
+        FunctionCounter.builder(METER_NAME + ".bytes.saved", stats, s -> s.bytesIn.sum() - s.bytesOut.sum())
+            .tag("uri", uri)
+            .baseUnit("bytes")
+            .description("Response bytes saved by compression")
+            .register(registry);
+        FunctionTimer.builder(METER_NAME + ".deflate", stats, s -> s.responses.sum(), s -> s.deflateNanos.sum(),
+                TimeUnit.NANOSECONDS)
+            .tag("uri", uri)
+            .description("Time spent compressing responses")
+            .register(registry);
+    }
+
+    private static final class CompressionStatistics {
+
+        private final LongAdder responses = new LongAdder();
+
+        private final LongAdder bytesIn = new LongAdder();
+
+        private final LongAdder bytesOut = new LongAdder();
+
+        private final LongAdder deflateNanos = new LongAdder();
+
+    }
+
+    /**
+     * Holds back <code>Content-Length</code> until it is known whether the body will be compressed.
+     */
+    private final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+        private long contentLength = -1;
+
+        private CompressingOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        CompressingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            this.contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            this.contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                this.contentLength = value != null ? Long.parseLong(value) : -1;
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                this.contentLength = Long.parseLong(value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (this.writer != null) {
+                throw new IllegalStateException("getWriter() has already been called on this response");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (this.writer == null) {
+                if (this.outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called on this response");
+                }
+                this.writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return this.writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            } else if (this.outputStream != null) {
+                this.outputStream.flush();
+            }
+            if (this.outputStream == null) {
+                if (this.contentLength >= 0) {
+                    super.setContentLengthLong(this.contentLength);
+                }
+                super.flushBuffer();
+            } else if (!this.outputStream.isBuffering()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (this.outputStream != null) {
+                this.outputStream.discard();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            this.contentLength = -1;
+            if (this.outputStream != null) {
+                this.outputStream.discard();
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            bypass();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            bypass();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            bypass();
+            super.sendRedirect(location);
+        }
+
+        private CompressingOutputStream stream() {
+            if (this.outputStream == null) {
+                this.outputStream = new CompressingOutputStream(this);
+            }
+            return this.outputStream;
+        }
+
+        /**
+         * The container writes the body itself, through the unwrapped response.
+         */
+        private void bypass() {
+            stream().discard();
+            this.outputStream.passThrough = true;
+        }
+
+        void finish(String uri) throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            if (this.outputStream != null) {
+                this.outputStream.finish(uri);
+            } else if (this.contentLength >= 0) {
+                super.setContentLengthLong(this.contentLength);
+            }
+        }
+
+        /**
+         * Give the compressor back to the pool without completing the body, after the chain has failed.
+         */
+        void abort() {
+            if (this.outputStream != null) {
+                this.outputStream.abort();
+            }
+        }
+
+        boolean isCompressionCandidate() {
+            return isCompressible(getContentType())
+                && !containsHeader(HttpHeaders.CONTENT_ENCODING)
+                && (this.contentLength < 0 || this.contentLength >= minResponseSize);
+        }
+
+        void startCompression() {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/")) {
+                super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            }
+        }
+
+        void sendUncompressed(long length) {
+            super.setContentLengthLong(length);
+        }
+
+        ServletOutputStream rawOutputStream() throws IOException {
+            return super.getOutputStream();
+        }
+
+    }
+
+    /**
+     * Buffers the first bytes of the body until it either ends or outgrows the threshold, then continues as a gzip
+     * stream or as a plain pass-through.
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final CompressingResponseWrapper response;
+
+        private byte[] buffer;
+
+        private int count;
+
+        private boolean decided;
+
+        private boolean passThrough;
+
+        private GzipCompressor compressor;
+
+        private ServletOutputStream target;
+
+        private final byte[] single = new byte[1];
+
+        CompressingOutputStream(CompressingResponseWrapper response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.single[0] = (byte) b;
+            write(this.single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!this.decided) {
+                decideOnFirstWrite();
+            }
+            if (this.compressor != null) {
+                this.compressor.write(b, off, len);
+            } else if (this.target != null) {
+                this.target.write(b, off, len);
+            } else if (this.count + len <= this.buffer.length) {
+                System.arraycopy(b, off, this.buffer, this.count, len);
+                this.count += len;
+            } else {
+                this.response.startCompression();
+                this.target = this.response.rawOutputStream();
+                this.compressor = acquireCompressor();
+                this.compressor.start(this.target);
+                this.compressor.write(this.buffer, 0, this.count);
+                this.compressor.write(b, off, len);
+                this.buffer = null;
+            }
+        }
+
+        /**
+         * Flushing an undecided response is a no-op: committing it now would fix the headers before it is known
+         * whether the body gets compressed.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (this.compressor != null) {
+                this.compressor.flush();
+            } else if (this.target != null) {
+                this.target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.compressor != null || this.target == null || this.target.isReady();
+        }
+
+        /**
+         * The compressor writes to the response whenever its buffer fills up, which a non-blocking write must not do.
+         * A body written with a {@link WriteListener} is therefore sent uncompressed, straight through the container's
+         * stream; only a response whose compression has already started cannot switch any more.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (this.compressor != null) {
+                throw new IllegalStateException("Compression has already started on this response");
+            }
+            try {
+                if (!this.decided) {
+                    this.passThrough = true;
+                    decideOnFirstWrite();
+                } else if (this.target == null) {
+                    this.target = this.response.rawOutputStream();
+                    this.target.write(this.buffer, 0, this.count);
+                    this.buffer = null;
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            this.target.setWriteListener(writeListener);
+        }
+
+        boolean isBuffering() {
+            return this.target == null;
+        }
+
+        private void decideOnFirstWrite() throws IOException {
+            this.decided = true;
+            if (this.passThrough || !this.response.isCompressionCandidate()) {
+                if (this.response.contentLength >= 0) {
+                    this.response.sendUncompressed(this.response.contentLength);
+                }
+                this.target = this.response.rawOutputStream();
+            } else {
+                this.buffer = new byte[minResponseSize];
+            }
+        }
+
+        void discard() {
+            if (this.target == null) {
+                this.decided = false;
+                this.buffer = null;
+                this.count = 0;
+            }
+        }
+
+        void finish(String uri) throws IOException {
+            if (this.compressor != null) {
+                GzipCompressor compressor = this.compressor;
+                this.compressor = null;
+                try {
+                    compressor.finish();
+                    record(uri, compressor);
+                } finally {
+                    releaseCompressor(compressor);
+                }
+            } else if (this.target == null && this.buffer != null) {
+                this.response.sendUncompressed(this.count);
+                this.target = this.response.rawOutputStream();
+                this.target.write(this.buffer, 0, this.count);
+                this.buffer = null;
+            }
+        }
+
+        void abort() {
+            if (this.compressor != null) {
+                GzipCompressor compressor = this.compressor;
+                this.compressor = null;
+                releaseCompressor(compressor);
+            }
+        }
+
+    }
+
+}
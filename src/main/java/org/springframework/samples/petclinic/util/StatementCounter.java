@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements executed through a {@link StatementCountingDataSource} by the current thread, between
+ * {@link #start()} and {@link #stop()}: a web request, see {@link StatementCountingFilter}, or a test method.
+ * <p>
+ * Besides the number of statements and their execution time, it counts the statements per shape, the SQL text with
+ * its literals and <code>IN</code> lists replaced by a single placeholder. A shape repeated for every row of a previous
+ * result is the signature of an N+1 select.
+ * <p>
+ * Counters nest: a statement is recorded by the current counter and by every counter it was started within. A counter
+ * belongs to the thread that started it and is not thread-safe; statements run by other threads, such as
+ * <code>@Async</code> tasks, are not recorded.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<StatementCounter> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StatementCounter enclosing;
+
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+    private int count;
+
+    private long nanos;
+
+    private boolean stopped;
+
+    private StatementCounter(StatementCounter enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * Starts counting the statements of the current thread, within the counter already started, if any.
+     */
+    public static StatementCounter start() {
+        StatementCounter counter = new StatementCounter(CURRENT.get());
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * The counter most recently started by the current thread, or <code>null</code> if none is running.
+     */
+    public static StatementCounter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops counting, handing the current thread back to the enclosing counter. Counters started within this one and
+     * not stopped yet are stopped as well.
+     */
+    public void stop() {
+        if (this.stopped) {
+            return;
+        }
+        StatementCounter counter = CURRENT.get();
+        while (counter != null && counter != this) {
+            counter.stopped = true;
+            counter = counter.enclosing;
+        }
+        this.stopped = true;
+        if (this.enclosing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(this.enclosing);
+        }
+    }
+
+    /**
+     * Forgets the statements counted so far and keeps counting, for a test that only budgets its last steps. The
+     * counters this one was started within keep their counts.
+     */
+    public void restart() {
+        this.count = 0;
+        this.nanos = 0;
+        this.shapes.clear();
+    }
+
+    /**
+     * Records a statement with the given SQL, which may be <code>null</code> when the driver was not given any, and
+     * execution time.
+     */
+    void record(String sql, long nanos) {
+        String shape = shapeOf(sql);
+        for (StatementCounter counter = this; counter != null; counter = counter.enclosing) {
+            counter.count++;
+            counter.nanos += nanos;
+            counter.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * The number of statements executed so far; a JDBC batch counts as one.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * The time spent executing the statements so far, in the given unit.
+     */
+    public long getTime(TimeUnit unit) {
+        return unit.convert(this.nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of statements per shape, in the order the shapes were first executed.
+     */
+    public Map<String, Integer> getShapes() {
+        return new LinkedHashMap<>(this.shapes);
+    }
+
+    /**
+     * The shapes executed more than <code>threshold</code> times, with their number of executions.
+     */
+    public Map<String, Integer> getRepeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        this.shapes.forEach((shape, executions) -> {
+            if (executions > threshold) {
+                repeated.put(shape, executions);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * The SQL text with its string and number literals and its <code>IN</code> lists replaced by <code>?</code>, and
+     * its whitespace collapsed, so that the statements of a loop share one shape whatever their parameters.
+     */
+    static String shapeOf(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet filter counting the SQL statements of each request with a {@link StatementCounter}; the application's
+ * {@link javax.sql.DataSource} must be a {@link StatementCountingDataSource}.
+ * <p>
+ * A warning is logged for every statement shape executed more than <code>repeatThreshold</code> times by one request,
+ * which usually points at an N+1 select. Optionally, the number of statements and their execution time in
+ * milliseconds are sent in the {@value #COUNT_HEADER} and {@value #TIME_HEADER} response headers. The headers are
+ * written when the response body is started, so a body streamed after the request has gone asynchronous only
+ * reports the statements executed before that.
+ */
+public class StatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-SQL-Count";
+
+    public static final String TIME_HEADER = "X-SQL-Time";
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementCountingFilter.class);
+
+    private final boolean headers;
+
+    private final int repeatThreshold;
+
+    /**
+     * @param headers         whether to send the statement count and time in the response headers
+     * @param repeatThreshold the number of executions of one statement shape a request may make before a warning is
+     *                        logged
+     */
+    public StatementCountingFilter(boolean headers, int repeatThreshold) {
+        this.headers = headers;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        StatementCounter counter = StatementCounter.start();
+        try {
+            if (this.headers) {
+                HeaderWritingResponseWrapper wrapper = new HeaderWritingResponseWrapper(response, counter);
+                filterChain.doFilter(request, wrapper);
+                wrapper.writeHeaders();
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            counter.stop();
+            counter.getRepeatedShapes(this.repeatThreshold).forEach((shape, executions) ->
+                logger.warn("{} {} executed the same statement {} times, possibly an N+1 select: {}",
+                    request.getMethod(), request.getRequestURI(), executions, shape));
+        }
+    }
+
+    /**
+     * Adds the statement headers right before the response is committed, once the handler has run its statements.
+     */
+    private static final class HeaderWritingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final StatementCounter counter;
+
+        private boolean written;
+
+        HeaderWritingResponseWrapper(HttpServletResponse response, StatementCounter counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        void writeHeaders() {
+            if (this.written || isCommitted()) {
+                return;
+            }
+            this.written = true;
+            setHeader(COUNT_HEADER, Integer.toString(this.counter.getCount()));
+            setHeader(TIME_HEADER,
+                String.format(Locale.ROOT, "%.3f", this.counter.getTime(TimeUnit.MICROSECONDS) / 1000.0));
+        }
+
+    }
+
+}
@@ -75,3 +75,9 @@ INSERT INTO roles (username, role) VALUES
 ('admin', 'ROLE_OWNER_ADMIN'),
 ('admin', 'ROLE_VET_ADMIN'),
 ('admin', 'ROLE_ADMIN');
+
+-- Visit statistics of the pets above
+INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date)
+SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date)
+FROM pets LEFT JOIN visits ON visits.pet_id = pets.id
+GROUP BY pets.id;
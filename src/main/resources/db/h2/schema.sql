@@ -1,14 +1,16 @@
 CREATE TABLE IF NOT EXISTS vets (
   id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
   first_name VARCHAR(30) NOT NULL,
-  last_name VARCHAR(30) NOT NULL
+  last_name VARCHAR(30) NOT NULL,
+  last_modified TIMESTAMP
 );
 
 CREATE INDEX idx_vets_last_name ON vets(last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
   id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-  name VARCHAR(80) NOT NULL
+  name VARCHAR(80) NOT NULL,
+  last_modified TIMESTAMP
 );
 
 CREATE INDEX idx_specialties_name ON specialties(name);
@@ -23,7 +25,8 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 
 CREATE TABLE IF NOT EXISTS types (
   id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-  name VARCHAR(80) NOT NULL
+  name VARCHAR(80) NOT NULL,
+  last_modified TIMESTAMP
 );
 
 CREATE INDEX idx_types_name ON types(name);
@@ -34,7 +37,8 @@ CREATE TABLE IF NOT EXISTS owners (
   last_name VARCHAR(30) NOT NULL,
   address VARCHAR(255) NOT NULL,
   city VARCHAR(80) NOT NULL,
-  telephone VARCHAR(20) NOT NULL
+  telephone VARCHAR(20) NOT NULL,
+  last_modified TIMESTAMP
 );
 
 CREATE INDEX idx_owners_last_name ON owners(last_name);
@@ -45,6 +49,7 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE NOT NULL,
   type_id INTEGER NOT NULL,
   owner_id INTEGER NOT NULL,
+  last_modified TIMESTAMP,
   FOREIGN KEY (owner_id) REFERENCES owners(id) ON DELETE CASCADE,
   FOREIGN KEY (type_id) REFERENCES types(id) ON DELETE CASCADE
 );
@@ -56,6 +61,16 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INTEGER NOT NULL,
   visit_date DATE NOT NULL,
   description VARCHAR(255) NOT NULL,
+  last_modified TIMESTAMP,
+  FOREIGN KEY (pet_id) REFERENCES pets(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_visits_pet_id_visit_date ON visits(pet_id, visit_date);
+
+CREATE TABLE IF NOT EXISTS visit_stats (
+  pet_id INTEGER NOT NULL PRIMARY KEY,
+  visit_count INTEGER NOT NULL,
+  first_visit_date DATE,
+  last_visit_date DATE,
   FOREIGN KEY (pet_id) REFERENCES pets(id) ON DELETE CASCADE
 );
 
@@ -69,6 +84,7 @@ CREATE TABLE IF NOT EXISTS roles (
   id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
   username VARCHAR(20) NOT NULL,
   role VARCHAR(20) NOT NULL,
+  last_modified TIMESTAMP,
   UNIQUE (role, username),
   FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE
 );
\ No newline at end of file
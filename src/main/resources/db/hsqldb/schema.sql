@@ -1,6 +1,7 @@
 DROP TABLE vet_specialties IF EXISTS;
 DROP TABLE vets IF EXISTS;
 DROP TABLE specialties IF EXISTS;
+DROP TABLE visit_stats IF EXISTS;
 DROP TABLE visits IF EXISTS;
 DROP TABLE pets IF EXISTS;
 DROP TABLE types IF EXISTS;
@@ -12,13 +13,15 @@ DROP TABLE users IF EXISTS;
 CREATE TABLE vets (
   id         INTEGER IDENTITY PRIMARY KEY,
   first_name VARCHAR(30),
-  last_name  VARCHAR(30)
+  last_name  VARCHAR(30),
+  last_modified TIMESTAMP
 );
 CREATE INDEX vets_last_name ON vets (last_name);
 
 CREATE TABLE specialties (
   id   INTEGER IDENTITY PRIMARY KEY,
-  name VARCHAR(80)
+  name VARCHAR(80),
+  last_modified TIMESTAMP
 );
 CREATE INDEX specialties_name ON specialties (name);
 
@@ -31,7 +34,8 @@ ALTER TABLE vet_specialties ADD CONSTRAINT fk_vet_specialties_specialties FOREIG
 
 CREATE TABLE types (
   id   INTEGER IDENTITY PRIMARY KEY,
-  name VARCHAR(80)
+  name VARCHAR(80),
+  last_modified TIMESTAMP
 );
 CREATE INDEX types_name ON types (name);
 
@@ -41,7 +45,8 @@ CREATE TABLE owners (
   last_name  VARCHAR_IGNORECASE(30),
   address    VARCHAR(255),
   city       VARCHAR(80),
-  telephone  VARCHAR(20)
+  telephone  VARCHAR(20),
+  last_modified TIMESTAMP
 );
 CREATE INDEX owners_last_name ON owners (last_name);
 
@@ -50,7 +55,8 @@ CREATE TABLE pets (
   name       VARCHAR(30),
   birth_date DATE,
   type_id    INTEGER NOT NULL,
-  owner_id   INTEGER NOT NULL
+  owner_id   INTEGER NOT NULL,
+  last_modified TIMESTAMP
 );
 ALTER TABLE pets ADD CONSTRAINT fk_pets_owners FOREIGN KEY (owner_id) REFERENCES owners (id);
 ALTER TABLE pets ADD CONSTRAINT fk_pets_types FOREIGN KEY (type_id) REFERENCES types (id);
@@ -60,10 +66,19 @@ CREATE TABLE visits (
   id          INTEGER IDENTITY PRIMARY KEY,
   pet_id      INTEGER NOT NULL,
   visit_date  DATE,
-  description VARCHAR(255)
+  description VARCHAR(255),
+  last_modified TIMESTAMP
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
-CREATE INDEX visits_pet_id ON visits (pet_id);
+CREATE INDEX visits_pet_id ON visits (pet_id, visit_date);
+
+CREATE TABLE visit_stats (
+  pet_id           INTEGER NOT NULL PRIMARY KEY,
+  visit_count      INTEGER NOT NULL,
+  first_visit_date DATE,
+  last_visit_date  DATE
+);
+ALTER TABLE visit_stats ADD CONSTRAINT fk_visit_stats_pets FOREIGN KEY (pet_id) REFERENCES pets (id) ON DELETE CASCADE;
 
 CREATE  TABLE users (
   username    VARCHAR(20) NOT NULL ,
@@ -75,7 +90,8 @@ CREATE  TABLE users (
 CREATE TABLE roles (
   id              INTEGER IDENTITY PRIMARY KEY,
   username        VARCHAR(20) NOT NULL,
-  role            VARCHAR(20) NOT NULL
+  role            VARCHAR(20) NOT NULL,
+  last_modified   TIMESTAMP
 );
 ALTER TABLE roles ADD CONSTRAINT fk_username FOREIGN KEY (username) REFERENCES users (username);
 CREATE INDEX fk_username_idx ON roles (username);
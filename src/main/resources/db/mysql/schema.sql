@@ -2,12 +2,14 @@ CREATE TABLE IF NOT EXISTS vets (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
+  last_modified DATETIME(6),
   INDEX(last_name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS specialties (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(80),
+  last_modified DATETIME(6),
   INDEX(name)
 ) engine=InnoDB;
 
@@ -22,6 +24,7 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 CREATE TABLE IF NOT EXISTS types (
   id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(80),
+  last_modified DATETIME(6),
   INDEX(name)
 ) engine=InnoDB;
 
@@ -32,6 +35,7 @@ CREATE TABLE IF NOT EXISTS owners (
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
+  last_modified DATETIME(6),
   INDEX(last_name)
 ) engine=InnoDB;
 
@@ -41,6 +45,7 @@ CREATE TABLE IF NOT EXISTS pets (
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
   owner_id INT(4) UNSIGNED NOT NULL,
+  last_modified DATETIME(6),
   INDEX(name),
   FOREIGN KEY (owner_id) REFERENCES owners(id),
   FOREIGN KEY (type_id) REFERENCES types(id)
@@ -51,9 +56,19 @@ CREATE TABLE IF NOT EXISTS visits (
   pet_id INT(4) UNSIGNED NOT NULL,
   visit_date DATE,
   description VARCHAR(255),
+  last_modified DATETIME(6),
+  INDEX(pet_id, visit_date),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
 
+CREATE TABLE IF NOT EXISTS visit_stats (
+  pet_id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  visit_count INT NOT NULL,
+  first_visit_date DATE,
+  last_visit_date DATE,
+  FOREIGN KEY (pet_id) REFERENCES pets(id) ON DELETE CASCADE
+) engine=InnoDB;
+
 CREATE TABLE IF NOT EXISTS users (
   username VARCHAR(20) NOT NULL ,
   password VARCHAR(60) NOT NULL ,
@@ -65,8 +80,60 @@ CREATE TABLE IF NOT EXISTS roles (
   id int(11) NOT NULL AUTO_INCREMENT,
   username varchar(20) NOT NULL,
   role varchar(20) NOT NULL,
+  last_modified DATETIME(6),
   PRIMARY KEY (id),
   UNIQUE KEY uni_username_role (role,username),
   KEY fk_username_idx (username),
   CONSTRAINT fk_username FOREIGN KEY (username) REFERENCES users (username)
 ) engine=InnoDB;
+
+-- databases created before the last_modified columns: add them. MySQL has no ADD COLUMN IF NOT EXISTS, so each
+-- ALTER TABLE is only prepared when information_schema lacks the column
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE vets ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'vets' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE specialties ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'specialties' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE types ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'types' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE owners ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'owners' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE pets ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'pets' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE visits ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'visits' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE roles ADD COLUMN last_modified DATETIME(6)', 'DO 0')
+  FROM information_schema.columns
+  WHERE table_schema = DATABASE() AND table_name = 'roles' AND column_name = 'last_modified');
+PREPARE add_last_modified FROM @ddl;
+EXECUTE add_last_modified;
+DEALLOCATE PREPARE add_last_modified;
@@ -58,3 +58,10 @@ WHERE NOT EXISTS (SELECT * FROM users WHERE username='admin');
 INSERT INTO roles (username, role) SELECT 'admin', 'ROLE_OWNER_ADMIN' WHERE NOT EXISTS (SELECT * FROM roles WHERE id=1);
 INSERT INTO roles (username, role) SELECT 'admin', 'ROLE_VET_ADMIN' WHERE NOT EXISTS (SELECT * FROM roles WHERE id=2);
 INSERT INTO roles (username, role) SELECT'admin', 'ROLE_ADMIN' WHERE NOT EXISTS (SELECT * FROM roles WHERE id=3);
+
+-- Visit statistics of the pets above
+INSERT INTO visit_stats (pet_id, visit_count, first_visit_date, last_visit_date)
+SELECT pets.id, COUNT(visits.id), MIN(visits.visit_date), MAX(visits.visit_date)
+FROM pets LEFT JOIN visits ON visits.pet_id = pets.id
+GROUP BY pets.id
+ON CONFLICT (pet_id) DO NOTHING;
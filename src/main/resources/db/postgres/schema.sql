@@ -1,13 +1,15 @@
 CREATE TABLE IF NOT EXISTS vets (
                                     id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
                                     first_name TEXT,
-                                    last_name  TEXT
+                                    last_name  TEXT,
+                                    last_modified TIMESTAMP
 );
 CREATE INDEX ON vets (last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
                                            id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-                                           name TEXT
+                                           name TEXT,
+                                           last_modified TIMESTAMP
 );
 CREATE INDEX ON specialties (name);
 
@@ -19,7 +21,8 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 
 CREATE TABLE IF NOT EXISTS types (
                                      id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-                                     name TEXT
+                                     name TEXT,
+                                     last_modified TIMESTAMP
 );
 CREATE INDEX ON types (name);
 
@@ -29,7 +32,8 @@ CREATE TABLE IF NOT EXISTS owners (
                                       last_name  TEXT,
                                       address    TEXT,
                                       city       TEXT,
-                                      telephone  TEXT
+                                      telephone  TEXT,
+                                      last_modified TIMESTAMP
 );
 CREATE INDEX ON owners (last_name);
 
@@ -38,7 +42,8 @@ CREATE TABLE IF NOT EXISTS pets (
                                     name       TEXT,
                                     birth_date DATE,
                                     type_id    INT NOT NULL REFERENCES types (id),
-                                    owner_id   INT REFERENCES owners (id)
+                                    owner_id   INT REFERENCES owners (id),
+                                    last_modified TIMESTAMP
 );
 CREATE INDEX ON pets (name);
 CREATE INDEX ON pets (owner_id);
@@ -47,9 +52,17 @@ CREATE TABLE IF NOT EXISTS visits (
                                       id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
                                       pet_id      INT REFERENCES pets (id),
                                       visit_date  DATE,
-                                      description TEXT
+                                      description TEXT,
+                                      last_modified TIMESTAMP
+);
+CREATE INDEX ON visits (pet_id, visit_date);
+
+CREATE TABLE IF NOT EXISTS visit_stats (
+  pet_id           INT PRIMARY KEY REFERENCES pets (id) ON DELETE CASCADE,
+  visit_count      INT NOT NULL,
+  first_visit_date DATE,
+  last_visit_date  DATE
 );
-CREATE INDEX ON visits (pet_id);
 
 CREATE TABLE IF NOT EXISTS users (
   username VARCHAR(20) NOT NULL ,
@@ -62,6 +75,16 @@ CREATE TABLE IF NOT EXISTS roles (
   id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   username varchar(20) NOT NULL,
   role varchar(20) NOT NULL,
+  last_modified TIMESTAMP,
   FOREIGN KEY (username) REFERENCES users (username),
   CONSTRAINT uni_username_role UNIQUE (role, username)
 );
+
+-- databases created before the last_modified columns: add them
+ALTER TABLE vets ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE specialties ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE types ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE visits ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+ALTER TABLE roles ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
@@ -0,0 +1,86 @@
+package org.springframework.samples.petclinic;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application against two in-memory H2 databases, the replica differing from the primary in the first name
+ * of owner 1.
+ */
+@SpringBootTest(classes = PetClinicApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "petclinic.datasource.replica-urls=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false"})
+@ActiveProfiles({"h2", "jdbc", "replicas"})
+class ReplicaRoutingProfileTests {
+
+    private static EmbeddedDatabase replica;
+
+    @Autowired
+    private ClinicService clinicService;
+
+    @BeforeAll
+    static void initReplica() {
+        replica = new EmbeddedDatabaseBuilder()
+            .setName("routing-replica")
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        new JdbcTemplate(replica).update("UPDATE owners SET first_name = 'Replica' WHERE id = 1");
+    }
+
+    @AfterAll
+    static void shutdownReplica() {
+        replica.shutdown();
+    }
+
+    @AfterEach
+    void resetClient() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldReadFromReplica() {
+        actAsClient("10.0.0.1");
+        assertThat(this.clinicService.findOwnerById(1).getFirstName()).isEqualTo("Replica");
+    }
+
+    @Test
+    void shouldWriteToPrimaryAndReadOwnWritesFromIt() {
+        actAsClient("10.0.0.2");
+        Owner owner = this.clinicService.findOwnerById(2);
+        owner.setTelephone("6085550000");
+        this.clinicService.saveOwner(owner);
+
+        // the writer reads from the primary, which has the new telephone but not the replica's first name
+        Owner reread = this.clinicService.findOwnerById(2);
+        assertThat(reread.getTelephone()).isEqualTo("6085550000");
+        assertThat(this.clinicService.findOwnerById(1).getFirstName()).isEqualTo("George");
+
+        // other clients keep reading from the replica, which has not replicated the write
+        actAsClient("10.0.0.3");
+        assertThat(this.clinicService.findOwnerById(2).getTelephone()).isEqualTo("6085551749");
+        assertThat(this.clinicService.findOwnerById(1).getFirstName()).isEqualTo("Replica");
+    }
+
+    private static void actAsClient(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
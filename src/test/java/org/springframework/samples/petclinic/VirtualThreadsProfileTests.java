@@ -0,0 +1,27 @@
+package org.springframework.samples.petclinic;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = PetClinicApplication.class,
+    properties = "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1")
+@ActiveProfiles({"h2", "jdbc", "virtual-threads"})
+class VirtualThreadsProfileTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void shouldBoundDatabaseConcurrencyWithConnectionPool() throws Exception {
+        HikariDataSource hikariDataSource = this.dataSource.unwrap(HikariDataSource.class);
+        assertThat(hikariDataSource.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(hikariDataSource.getConnectionTimeout()).isEqualTo(5000);
+    }
+}
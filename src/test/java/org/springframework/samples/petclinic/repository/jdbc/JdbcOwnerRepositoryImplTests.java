@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement count tests for {@link JdbcOwnerRepositoryImpl}.
+ */
+class JdbcOwnerRepositoryImplTests {
+
+    private EmbeddedDatabase database;
+
+    private StatementCounter counter;
+
+    private JdbcOwnerRepositoryImpl ownerRepository;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(this.database);
+        this.ownerRepository = new JdbcOwnerRepositoryImpl(dataSource);
+        this.counter = StatementCounter.start();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.counter.stop();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldDeleteOwnerWithFixedNumberOfStatements() {
+        // George Franklin has one pet without visits
+        Owner owner = this.ownerRepository.findById(1);
+        this.counter.restart();
+        this.ownerRepository.delete(owner);
+        assertThat(this.counter.getCount()).isEqualTo(3);
+
+        // Jean Coleman has two pets with four visits
+        owner = this.ownerRepository.findById(6);
+        this.counter.restart();
+        this.ownerRepository.delete(owner);
+        assertThat(this.counter.getCount()).isEqualTo(3);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners WHERE id IN (1, 6)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets WHERE owner_id IN (1, 6)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM visits", Integer.class)).isZero();
+    }
+
+}
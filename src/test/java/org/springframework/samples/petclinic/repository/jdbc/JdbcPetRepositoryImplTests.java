@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Statement count tests for {@link JdbcPetRepositoryImpl}.
+ */
+class JdbcPetRepositoryImplTests {
+
+    private EmbeddedDatabase database;
+
+    private StatementCounter counter;
+
+    private JdbcPetRepositoryImpl petRepository;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(this.database);
+        this.petRepository = new JdbcPetRepositoryImpl(dataSource);
+        this.counter = StatementCounter.start();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.counter.stop();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldFindPetWithTypeOwnerAndVisitsInOneStatement() {
+        Pet pet = this.petRepository.findById(7);
+
+        assertThat(this.counter.getCount()).isEqualTo(1);
+        assertThat(pet.getName()).isEqualTo("Samantha");
+        assertThat(pet.getType().getName()).isEqualTo("cat");
+        assertThat(pet.getOwner().getId()).isEqualTo(6);
+        assertThat(pet.getOwner().getLastName()).isEqualTo("Coleman");
+        assertThat(pet.getVisits()).extracting(Visit::getDescription).containsExactlyInAnyOrder("rabies shot", "spayed");
+        assertThat(pet.getVisits()).allSatisfy(visit -> assertThat(visit.getPet()).isSameAs(pet));
+
+        // Leo has no visits
+        assertThat(this.petRepository.findById(1).getVisits()).isEmpty();
+        assertThatThrownBy(() -> this.petRepository.findById(999)).isInstanceOf(ObjectRetrievalFailureException.class);
+    }
+
+    @Test
+    void shouldDeletePetWithFixedNumberOfStatements() {
+        // Leo has no visits
+        Pet pet = this.petRepository.findById(1);
+        this.counter.restart();
+        this.petRepository.delete(pet);
+        assertThat(this.counter.getCount()).isEqualTo(2);
+
+        // Max has two visits
+        pet = this.petRepository.findById(8);
+        this.counter.restart();
+        this.petRepository.delete(pet);
+        assertThat(this.counter.getCount()).isEqualTo(2);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets WHERE id IN (1, 8)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM visits WHERE pet_id = 8", Integer.class)).isZero();
+    }
+
+}
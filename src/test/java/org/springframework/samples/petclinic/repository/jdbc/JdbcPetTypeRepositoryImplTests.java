@@ -0,0 +1,99 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement count and mapping tests for {@link JdbcPetTypeRepositoryImpl}.
+ */
+class JdbcPetTypeRepositoryImplTests {
+
+    private EmbeddedDatabase database;
+
+    private StatementCounter counter;
+
+    private JdbcPetTypeRepositoryImpl petTypeRepository;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(this.database);
+        this.petTypeRepository = new JdbcPetTypeRepositoryImpl(dataSource);
+        this.counter = StatementCounter.start();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.counter.stop();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldDeletePetTypeWithFixedNumberOfStatements() {
+        // one pet, without visits, is a snake
+        PetType petType = this.petTypeRepository.findById(4);
+        this.counter.restart();
+        this.petTypeRepository.delete(petType);
+        assertThat(this.counter.getCount()).isEqualTo(3);
+
+        // four pets are cats, two of them with visits
+        petType = this.petTypeRepository.findById(1);
+        this.counter.restart();
+        this.petTypeRepository.delete(petType);
+        assertThat(this.counter.getCount()).isEqualTo(3);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM types WHERE id IN (1, 4)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pets WHERE type_id = 1", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM visits", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldWriteAndReadPetTypeColumns() {
+        PetType petType = this.petTypeRepository.findById(2);
+        assertThat(petType.getName()).isEqualTo("dog");
+        petType.setName("puppy");
+        this.petTypeRepository.save(petType);
+
+        PetType newType = new PetType();
+        newType.setName("ferret");
+        this.petTypeRepository.save(newType);
+
+        assertThat(this.petTypeRepository.findById(2).getName()).isEqualTo("puppy");
+        assertThat(this.petTypeRepository.findByName("ferret").getId()).isEqualTo(newType.getId());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM types WHERE id IN (2, ?) AND last_modified IS NOT NULL", Integer.class, newType.getId()))
+            .isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Specialty;
+import org.springframework.samples.petclinic.model.Vet;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement count tests for {@link JdbcVetRepositoryImpl}.
+ */
+class JdbcVetRepositoryImplTests {
+
+    private EmbeddedDatabase database;
+
+    private StatementCounter counter;
+
+    private JdbcVetRepositoryImpl vetRepository;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(this.database);
+        this.vetRepository = new JdbcVetRepositoryImpl(dataSource, new JdbcTemplate(dataSource));
+        this.counter = StatementCounter.start();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.counter.stop();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldFindAllVetsWithSingleStatement() {
+        Collection<Vet> vets = this.vetRepository.findAll();
+
+        assertThat(this.counter.getCount()).isEqualTo(1);
+        assertThat(vets).extracting(Vet::getLastName)
+            .containsExactly("Carter", "Douglas", "Jenkins", "Leary", "Ortega", "Stevens");
+        Vet douglas = EntityUtils.getById(vets, Vet.class, 3);
+        Vet ortega = EntityUtils.getById(vets, Vet.class, 4);
+        assertThat(douglas.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+        // vets sharing a specialty share the same instance
+        assertThat(ortega.getSpecialties().get(0)).isSameAs(douglas.getSpecialties().get(1));
+    }
+
+    @Test
+    void shouldFindVetByIdWithSingleStatement() {
+        Vet vet = this.vetRepository.findById(3);
+
+        assertThat(vet.getLastName()).isEqualTo("Douglas");
+        assertThat(vet.getNrOfSpecialties()).isEqualTo(2);
+        assertThat(this.counter.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFindVetWithoutSpecialties() {
+        Vet vet = this.vetRepository.findById(1);
+
+        assertThat(vet.getLastName()).isEqualTo("Carter");
+        assertThat(vet.getNrOfSpecialties()).isZero();
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.StatementCounter;
+import org.springframework.samples.petclinic.util.StatementCountingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement count tests for {@link JdbcVisitRepositoryImpl}.
+ */
+class JdbcVisitRepositoryImplTests {
+
+    private EmbeddedDatabase database;
+
+    private StatementCounter counter;
+
+    private JdbcVisitRepositoryImpl visitRepository;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScripts("db/h2/schema.sql", "db/h2/data.sql")
+            .build();
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(this.database);
+        this.visitRepository = new JdbcVisitRepositoryImpl(dataSource, 2);
+        this.counter = StatementCounter.start();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.counter.stop();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldFindAllVisitsWithSingleStatement() {
+        Collection<Visit> visits = this.visitRepository.findAll();
+
+        assertThat(visits).hasSize(4);
+        assertThat(this.counter.getCount()).isEqualTo(1);
+        Visit visit1 = EntityUtils.getById(visits, Visit.class, 1);
+        Visit visit4 = EntityUtils.getById(visits, Visit.class, 4);
+        assertThat(visit1.getPet().getName()).isEqualTo("Samantha");
+        assertThat(visit1.getPet().getType().getName()).isEqualTo("cat");
+        assertThat(visit1.getPet().getOwner().getLastName()).isEqualTo("Coleman");
+        // visits of the same pet share the same instances
+        assertThat(visit4.getPet()).isSameAs(visit1.getPet());
+    }
+
+    @Test
+    void shouldFindVisitByIdWithSingleStatement() {
+        Visit visit = this.visitRepository.findById(2);
+
+        assertThat(visit.getPet().getName()).isEqualTo("Max");
+        assertThat(visit.getPet().getOwner()).isNotNull();
+        assertThat(this.counter.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInsertVisitsInBatches() {
+        Pet pet = new Pet();
+        pet.setId(7);
+        List<Visit> visits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Visit visit = new Visit();
+            visit.setPet(pet);
+            visit.setDate(LocalDate.now());
+            visit.setDescription("check-up " + i);
+            visits.add(visit);
+        }
+
+        this.visitRepository.saveAll(visits);
+
+        // batch size is 2, so 5 visits take 3 batches
+        assertThat(this.counter.getCount()).isEqualTo(3);
+        assertThat(visits).extracting(Visit::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(this.visitRepository.findById(visits.get(4).getId()).getDescription()).isEqualTo("check-up 4");
+        assertThat(this.visitRepository.findAll()).hasSize(9);
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.util.ExpectStatements;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets of the list endpoints, run through the whole application over the H2 seed data with the
+ * repository layer of the active profiles, so that <code>-Dspring.profiles.active=hsqldb,jdbc</code> checks the
+ * <code>jdbc</code> repositories. A budget does not grow with the number of owners, pets or visits listed.
+ */
+@SpringBootTest(properties = {
+    "spring.sql.init.platform=h2",
+    "spring.datasource.url=jdbc:h2:mem:list-statement-budgets;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver"})
+class ListStatementBudgetTests {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void initMockMvc() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context)
+            .apply(springSecurity())
+            .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    @ExpectStatements(max = 3)
+    void shouldListOwners() throws Exception {
+        this.mockMvc.perform(get("/api/owners").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(10));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    @ExpectStatements(max = 1)
+    void shouldListOwnerSummaries() throws Exception {
+        this.mockMvc.perform(get("/api/owners").param("view", "summary").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(10));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    @ExpectStatements(max = 3)
+    void shouldListPets() throws Exception {
+        this.mockMvc.perform(get("/api/pets").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(13));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    @ExpectStatements(max = 2)
+    void shouldListVisits() throws Exception {
+        this.mockMvc.perform(get("/api/visits").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4));
+    }
+
+}
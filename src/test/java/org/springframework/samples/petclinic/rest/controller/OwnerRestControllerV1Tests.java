@@ -28,6 +28,8 @@ import org.springframework.samples.petclinic.mapper.OwnerMapper;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.model.VisitStats;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
@@ -50,8 +52,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -162,6 +167,31 @@ class OwnerRestControllerV1Tests {
             .andExpect(jsonPath("$.firstName").value("George"));
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerReturnsETag() throws Exception {
+        given(this.clinicService.findOwnerVersion(1)).willReturn("v1");
+        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        this.mockMvc.perform(get("/api/owners/1")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"v1\""))
+            .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerNotModified() throws Exception {
+        given(this.clinicService.findOwnerVersion(1)).willReturn("v1");
+        this.mockMvc.perform(get("/api/owners/1")
+                .header("If-None-Match", "\"v1\"")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"v1\""))
+            .andExpect(content().string(""));
+        verify(this.clinicService, never()).findOwnerById(1);
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerNotFound() throws Exception {
@@ -223,6 +253,69 @@ class OwnerRestControllerV1Tests {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerSummariesSuccess() throws Exception {
+        given(this.clinicService.findOwnerSummaries("Davis")).willReturn(List.of(
+            new OwnerSummary(2, "Betty", "Davis", "Sun Prairie"),
+            new OwnerSummary(4, "Harold", "Davis", "Windsor")));
+        this.mockMvc.perform(get("/api/owners?lastName=Davis&view=summary")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].id").value(2))
+            .andExpect(jsonPath("$.[0].city").value("Sun Prairie"))
+            .andExpect(jsonPath("$.[1].firstName").value("Harold"))
+            .andExpect(jsonPath("$.[0].address").doesNotExist())
+            .andExpect(jsonPath("$.[0].pets").doesNotExist());
+        verify(this.clinicService, never()).findOwnerByLastName("Davis");
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchOwnersSuccess() throws Exception {
+        owners.remove(0);
+        owners.remove(1);
+        given(this.clinicService.searchOwners("avi", 5)).willReturn(new ArrayList<>(ownerMapper.toOwners(owners)));
+        this.mockMvc.perform(get("/api/owners/search?q=avi&limit=5")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].id").value(2))
+            .andExpect(jsonPath("$.[1].firstName").value("Harold"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchOwnersEmpty() throws Exception {
+        given(this.clinicService.searchOwners("zz", 10)).willReturn(new ArrayList<>());
+        this.mockMvc.perform(get("/api/owners/search?q=zz")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerVisitStatsSuccess() throws Exception {
+        given(this.clinicService.findVisitStatsByOwnerId(6)).willReturn(
+            new VisitStats(4, LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 4), 0));
+        this.mockMvc.perform(get("/api/owners/6/visit-stats")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.visitCount").value(4))
+            .andExpect(jsonPath("$.lastVisitDate").value("2013-01-04"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerVisitStatsNotFound() throws Exception {
+        given(this.clinicService.findVisitStatsByOwnerId(999)).willReturn(null);
+        this.mockMvc.perform(get("/api/owners/999/visit-stats")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testCreateOwnerSuccess() throws Exception {
@@ -533,14 +626,25 @@ class OwnerRestControllerV1Tests {
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerPetSuccess() throws Exception {
         var owner = ownerMapper.toOwner(owners.get(0));
-        given(this.clinicService.findOwnerById(2)).willReturn(owner);
         var pet = petMapper.toPet(pets.get(0));
         pet.setOwner(owner);
         given(this.clinicService.findPetById(1)).willReturn(pet);
-        this.mockMvc.perform(get("/api/owners/2/pets/1")
+        this.mockMvc.perform(get("/api/owners/1/pets/1")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
             .andExpect(content().contentType("application/json"));
+        verify(this.clinicService, never()).findOwnerById(anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersPetOfOtherOwner() throws Exception {
+        var pet = petMapper.toPet(pets.get(0));
+        pet.setOwner(ownerMapper.toOwner(owners.get(0)));
+        given(this.clinicService.findPetById(1)).willReturn(pet);
+        this.mockMvc.perform(get("/api/owners/2/pets/1")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -569,8 +673,7 @@ class OwnerRestControllerV1Tests {
     void testUpdateOwnersPetSuccess() throws Exception {
         int ownerId = owners.get(0).getId();
         int petId = pets.get(0).getId();
-        given(this.clinicService.findOwnerById(ownerId)).willReturn(ownerMapper.toOwner(owners.get(0)));
-        given(this.clinicService.findPetById(petId)).willReturn(petMapper.toPet(pets.get(0)));
+        given(this.clinicService.findPetById(petId)).willReturn(petMapper.toPet(pets.get(0).ownerId(ownerId)));
         PetDto updatedPetDto = pets.get(0);
         updatedPetDto.setName("Rex");
         updatedPetDto.setBirthDate(LocalDate.of(2020, 1, 15));
@@ -25,6 +25,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetSummary;
+import org.springframework.samples.petclinic.model.VisitStats;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
@@ -150,6 +152,46 @@ class PetRestControllerV1Tests {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetSummariesSuccess() throws Exception {
+        given(this.clinicService.findPetSummaries()).willReturn(List.of(
+            new PetSummary(3, "Rosy", LocalDate.of(2011, 4, 17), 3)));
+        this.mockMvc.perform(get("/api/pets?view=summary")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].id").value(3))
+            .andExpect(jsonPath("$.[0].birthDate").value("2011-04-17"))
+            .andExpect(jsonPath("$.[0].ownerId").value(3))
+            .andExpect(jsonPath("$.[0].type").doesNotExist())
+            .andExpect(jsonPath("$.[0].visits").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetVisitStatsSuccess() throws Exception {
+        given(this.clinicService.findVisitStatsByPetId(7)).willReturn(
+            new VisitStats(2, LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 4), 0));
+        this.mockMvc.perform(get("/api/pets/7/visit-stats")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.visitCount").value(2))
+            .andExpect(jsonPath("$.firstVisitDate").value("2013-01-01"))
+            .andExpect(jsonPath("$.lastVisitDate").value("2013-01-04"))
+            .andExpect(jsonPath("$.recentVisitCount").value(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetVisitStatsNotFound() throws Exception {
+        given(this.clinicService.findVisitStatsByPetId(999)).willReturn(null);
+        this.mockMvc.perform(get("/api/pets/999/visit-stats")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdatePetSuccess() throws Exception {
@@ -39,6 +39,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -159,6 +161,18 @@ class PetTypeRestControllerV1Tests {
             .andExpect(jsonPath("$.[1].name").value("snake"));
     }
 
+    @Test
+    @WithMockUser(roles="VET_ADMIN")
+    void testGetAllPetTypesNotModified() throws Exception {
+        given(this.clinicService.findPetTypesVersion()).willReturn("v1");
+        this.mockMvc.perform(get("/api/pettypes")
+            .header("If-None-Match", "\"v1\"")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"v1\""));
+        verify(this.clinicService, never()).findAllPetTypes();
+    }
+
     @Test
     @WithMockUser(roles="VET_ADMIN")
     void testGetAllPetTypesNotFound() throws Exception {
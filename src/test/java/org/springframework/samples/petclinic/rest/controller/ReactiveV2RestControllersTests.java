@@ -0,0 +1,129 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.rest.controller.v2.ReactiveOwnerRestControllerV2;
+import org.springframework.samples.petclinic.rest.controller.v2.ReactivePetRestControllerV2;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the reactive <code>/v2</code> endpoints against the H2 sample data through R2DBC.
+ */
+@SpringBootTest
+@ActiveProfiles({"h2", "jdbc", "reactive"})
+@TestPropertySource(properties = {
+    "spring.sql.init.platform=h2",
+    "spring.h2.console.enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+    "petclinic.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1"
+})
+class ReactiveV2RestControllersTests {
+
+    @Autowired
+    private ReactiveOwnerRestControllerV2 ownerRestController;
+
+    @Autowired
+    private ReactivePetRestControllerV2 petRestController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void initMockMvc() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(ownerRestController, petRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersPageSuccess() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/v2/owners?page=0&size=2")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.content[0].id").value(1))
+            .andExpect(jsonPath("$.content[0].firstName").value("George"))
+            .andExpect(jsonPath("$.content[0].pets[0].name").value("Leo"))
+            .andExpect(jsonPath("$.content[0].pets[0].type.name").value("cat"))
+            .andExpect(jsonPath("$.content[1].id").value(2))
+            .andExpect(jsonPath("$.page").value(0))
+            .andExpect(jsonPath("$.size").value(2))
+            .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersPageByLastNameWithCursor() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/v2/owners?lastName=Davis&size=1&cursor=" + KeysetCursor.encode(2))
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(1))
+            .andExpect(jsonPath("$.content[0].id").value(4))
+            .andExpect(jsonPath("$.content[0].lastName").value("Davis"))
+            .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetsPageWithCursor() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/v2/pets?size=2&cursor=" + KeysetCursor.encode(6))
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(7))
+            .andExpect(jsonPath("$.content[0].name").value("Samantha"))
+            .andExpect(jsonPath("$.content[0].ownerId").value(6))
+            .andExpect(jsonPath("$.content[0].visits.length()").value(2))
+            .andExpect(jsonPath("$.content[1].id").value(8))
+            .andExpect(jsonPath("$.nextCursor").value(KeysetCursor.encode(8)));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testExportOwnersStreamsOneOwnerPerLine() throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/v2/owners/export")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(10);
+        assertThat(lines[0]).contains("\"id\":1,", "\"lastName\":\"Franklin\"");
+        assertThat(lines[5]).contains("\"lastName\":\"Coleman\"", "\"name\":\"Samantha\"", "\"name\":\"Max\"");
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersPageInvalidCursor() throws Exception {
+        this.mockMvc.perform(get("/api/v2/owners?cursor=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+}
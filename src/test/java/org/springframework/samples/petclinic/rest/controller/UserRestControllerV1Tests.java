@@ -15,6 +15,7 @@ import org.springframework.samples.petclinic.model.User;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.service.UserService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.util.ExpectStatements;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -49,6 +50,7 @@ class UserRestControllerV1Tests {
 
     @Test
     @WithMockUser(roles = "ADMIN")
+    @ExpectStatements(max = 4)
     void testCreateUserSuccess() throws Exception {
         User user = new User();
         user.setUsername("username");
@@ -64,6 +66,7 @@ class UserRestControllerV1Tests {
 
     @Test
     @WithMockUser(roles = "ADMIN")
+    @ExpectStatements(max = 0)
     void testCreateUserError() throws Exception {
         User user = new User();
         user.setUsername(""); // set empty username to force 400 error
@@ -6,10 +6,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.mapper.OwnerMapper;
 import org.springframework.samples.petclinic.mapper.PetMapper;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.rest.controller.v2.OwnerRestControllerV2;
 import org.springframework.samples.petclinic.rest.controller.v2.PetRestControllerV2;
@@ -28,8 +31,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -132,4 +140,70 @@ public class V2RestControllersTests {
             .andExpect(jsonPath("$.totalElements").value(2))
             .andExpect(jsonPath("$.totalPages").value(1));
     }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnersSliceWithCursorSuccess() throws Exception {
+        var sliceOwners = ownerMapper.toOwners(owners.subList(2, 4)).stream().toList();
+        given(this.clinicService.findOwners(null, 2, 2))
+            .willReturn(new SliceImpl<>(sliceOwners, PageRequest.ofSize(2), true));
+        this.mockMvc.perform(get("/api/v2/owners?size=2&cursor=" + KeysetCursor.encode(2))
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.content[0].id").value(3))
+            .andExpect(jsonPath("$.content[1].id").value(4))
+            .andExpect(jsonPath("$.size").value(2))
+            .andExpect(jsonPath("$.totalElements").doesNotExist())
+            .andExpect(jsonPath("$.nextCursor").value(KeysetCursor.encode(4)));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetOwnerSummariesSliceWithCursorSuccess() throws Exception {
+        given(this.clinicService.findOwnerSummaries(null, 2, 2))
+            .willReturn(new SliceImpl<>(List.of(
+                new OwnerSummary(3, "Eduardo", "Rodriquez", "McFarland"),
+                new OwnerSummary(4, "Harold", "Davis", "Windsor")), PageRequest.ofSize(2), true));
+        this.mockMvc.perform(get("/api/v2/owners?view=summary&size=2&cursor=" + KeysetCursor.encode(2))
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.content[0].id").value(3))
+            .andExpect(jsonPath("$.content[1].city").value("Windsor"))
+            .andExpect(jsonPath("$.content[0].pets").doesNotExist())
+            .andExpect(jsonPath("$.size").value(2))
+            .andExpect(jsonPath("$.nextCursor").value(KeysetCursor.encode(4)));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetPetsSliceWithInvalidCursor() throws Exception {
+        this.mockMvc.perform(get("/api/v2/pets?size=2&cursor=bad!")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testExportOwnersAsNdjson() throws Exception {
+        var exportedOwners = ownerMapper.toOwners(owners.subList(0, 2));
+        willAnswer(invocation -> {
+            Consumer<Owner> action = invocation.getArgument(0);
+            exportedOwners.forEach(action);
+            return null;
+        }).given(this.clinicService).forEachOwner(any());
+        var result = this.mockMvc.perform(get("/api/v2/owners/export")
+                .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"firstName\":\"George\"");
+        assertThat(lines[1]).contains("\"firstName\":\"Betty\"");
+    }
 }
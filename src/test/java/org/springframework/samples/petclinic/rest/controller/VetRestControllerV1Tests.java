@@ -127,6 +127,24 @@ class VetRestControllerV1Tests {
             .andExpect(jsonPath("$.[1].firstName").value("Helen"));
     }
 
+    @Test
+    @WithMockUser(roles="VET_ADMIN")
+    void testGetAllVetsReturnsETagUntilVersionChanges() throws Exception {
+        given(this.clinicService.findVetsVersion()).willReturn("v1");
+        given(this.clinicService.findAllVets()).willReturn(vets);
+        this.mockMvc.perform(get("/api/vets")
+            .header("If-None-Match", "\"v1\"")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified());
+        given(this.clinicService.findVetsVersion()).willReturn("v2");
+        this.mockMvc.perform(get("/api/vets")
+            .header("If-None-Match", "\"v1\"")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"v2\""))
+            .andExpect(jsonPath("$.[0].id").value(1));
+    }
+
     @Test
     @WithMockUser(roles="VET_ADMIN")
     void testGetAllVetsNotFound() throws Exception {
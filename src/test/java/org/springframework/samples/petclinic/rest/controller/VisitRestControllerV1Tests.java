@@ -40,9 +40,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -185,6 +190,40 @@ class VisitRestControllerV1Tests {
         		.andExpect(status().isBadRequest());
      }
 
+    @Test
+    @WithMockUser(roles="OWNER_ADMIN")
+    void testCreateVisitsBatchReportsInvalidItems() throws Exception {
+        willAnswer(invocation -> {
+            Collection<Visit> saved = invocation.getArgument(0);
+            int id = 100;
+            for (Visit visit : saved) {
+                visit.setId(id++);
+            }
+            return null;
+        }).given(this.clinicService).saveVisits(anyCollection());
+        given(this.clinicService.findExistingPetIds(anyCollection())).willReturn(Set.of(7, 8));
+        String batchAsJSON = "[" +
+            "{\"date\":\"2013-01-01\",\"description\":\"rabies shot\",\"petId\":8}," +
+            "{\"date\":\"2013-01-01\",\"petId\":8}," +
+            "{\"date\":\"2013-01-02\",\"description\":\"neutered\"}," +
+            "{\"date\":\"2013-01-02\",\"description\":\"checkup\",\"petId\":99}," +
+            "{\"date\":\"2013-01-03\",\"description\":\"spayed\",\"petId\":7}]";
+        this.mockMvc.perform(post("/api/visits/batch")
+                .content(batchAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created.length()").value(2))
+            .andExpect(jsonPath("$.created[0].id").value(100))
+            .andExpect(jsonPath("$.created[1].petId").value(7))
+            .andExpect(jsonPath("$.errors.length()").value(3))
+            .andExpect(jsonPath("$.errors[0].index").value(1))
+            .andExpect(jsonPath("$.errors[0].field").value("description"))
+            .andExpect(jsonPath("$.errors[1].index").value(2))
+            .andExpect(jsonPath("$.errors[1].field").value("petId"))
+            .andExpect(jsonPath("$.errors[2].index").value(3))
+            .andExpect(jsonPath("$.errors[2].message").value("pet not found"));
+        verify(this.clinicService).findExistingPetIds(List.of(8, 99, 7));
+    }
+
     @Test
     @WithMockUser(roles="OWNER_ADMIN")
     void testUpdateVisitSuccess() throws Exception {
@@ -242,4 +281,14 @@ class VisitRestControllerV1Tests {
         	.andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles="ADMIN")
+    void testRebuildVisitStatsSuccess() throws Exception {
+        given(this.clinicService.rebuildVisitStats()).willReturn(13);
+        this.mockMvc.perform(post("/api/visit-stats/rebuild")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.pets").value(13));
+    }
+
 }
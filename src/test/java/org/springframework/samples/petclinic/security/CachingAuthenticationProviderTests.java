@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.service.UserSavedEvent;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link CachingAuthenticationProvider}
+ */
+class CachingAuthenticationProviderTests {
+
+    private final AtomicInteger userLoads = new AtomicInteger();
+
+    private CachingAuthenticationProvider provider;
+
+    private ProviderManager authenticationManager;
+
+    @BeforeEach
+    @SuppressWarnings("deprecation")
+    void setUp() {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+            User.withUsername("admin").password("secret").roles("ADMIN").build(),
+            User.withUsername("vet").password("secret").roles("VET_ADMIN").build());
+        UserDetailsService countingUsers = username -> {
+            this.userLoads.incrementAndGet();
+            return users.loadUserByUsername(username);
+        };
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(countingUsers);
+        delegate.setPasswordEncoder(NoOpPasswordEncoder.getInstance());
+        this.provider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(5), 100);
+        this.authenticationManager = new ProviderManager(this.provider);
+    }
+
+    @Test
+    void shouldReuseSuccessfulAuthentication() {
+        Authentication first = authenticate("admin", "secret");
+        Authentication second = authenticate("admin", "secret");
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getCredentials()).isNull();
+        assertThat(this.userLoads).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheFailedAuthentication() {
+        authenticate("admin", "secret");
+
+        assertThatThrownBy(() -> authenticate("admin", "wrong")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> authenticate("admin", "wrong")).isInstanceOf(BadCredentialsException.class);
+        assertThat(this.userLoads).hasValue(3);
+    }
+
+    @Test
+    void shouldCheckAgainAfterUserWasSaved() {
+        authenticate("admin", "secret");
+        authenticate("vet", "secret");
+
+        this.provider.onUserSaved(new UserSavedEvent("admin"));
+        authenticate("admin", "secret");
+        authenticate("vet", "secret");
+
+        assertThat(this.userLoads).hasValue(3);
+    }
+
+    private Authentication authenticate(String username, String password) {
+        return this.authenticationManager.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated(username, password));
+    }
+
+}
@@ -19,14 +19,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.samples.petclinic.model.*;
+import org.springframework.samples.petclinic.repository.OwnerRepository;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.util.EntityUtils;
+import org.springframework.samples.petclinic.util.ExpectStatements;
+import org.springframework.samples.petclinic.util.StatementCounter;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -45,7 +50,9 @@ import static org.assertj.core.api.Assertions.assertThat;
  * type</em>. <li><strong>Transaction management</strong>, meaning each test method is executed in its own transaction,
  * which is automatically rolled back by default. Thus, even if tests insert or otherwise change database state, there
  * is no need for a teardown or cleanup script. <li> An {@link org.springframework.context.ApplicationContext
- * ApplicationContext} is also inherited and can be used for explicit bean lookup if necessary. </li> </ul>
+ * ApplicationContext} is also inherited and can be used for explicit bean lookup if necessary. </li> </ul> <p> The
+ * reads carry an {@link ExpectStatements @ExpectStatements} budget that every repository layer must keep, so that
+ * loading owner, pet or visit graphs with one statement per row fails the build. </p>
  *
  * @author Ken Krebs
  * @author Rod Johnson
@@ -59,7 +66,11 @@ abstract class AbstractClinicServiceTests {
     @Autowired
     protected ClinicService clinicService;
 
+    @Autowired
+    protected OwnerRepository ownerRepository;
+
     @Test
+    @ExpectStatements(max = 4)
     void shouldFindOwnersByLastName() {
         Collection<Owner> owners = this.clinicService.findOwnerByLastName("Davis");
         assertThat(owners.size()).isEqualTo(2);
@@ -69,6 +80,77 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 3)
+    void shouldFindOwnersByLastNameIgnoringCase() {
+        Collection<Owner> owners = this.clinicService.findOwnerByLastName("davis");
+        assertThat(owners).extracting(Owner::getId).containsExactly(2, 4);
+        assertThat(owners).allSatisfy(owner -> assertThat(owner.getPets()).isNotEmpty());
+    }
+
+    /**
+     * The queries answering last name searches before the owner name index is loaded, or without one.
+     */
+    @Test
+    void shouldQueryOwnersByStartOfLastName() {
+        assertThat(this.ownerRepository.findByLastName("Dav")).extracting(Owner::getId).containsExactlyInAnyOrder(2, 4);
+        assertThat(this.ownerRepository.findByLastName("Dav", PageRequest.of(0, 5, Sort.by("id"))).getTotalElements())
+            .isEqualTo(2);
+        assertThat(this.ownerRepository.findByLastNameAfter("Dav", 2, 5)).extracting(Owner::getId).containsExactly(4);
+        assertThat(this.ownerRepository.findSummariesByLastName("Dav")).extracting(OwnerSummary::getId)
+            .containsExactly(2, 4);
+        assertThat(this.ownerRepository.findSummariesByLastNameAfter("Dav", 0, 1)).extracting(OwnerSummary::getId)
+            .containsExactly(2);
+    }
+
+    @Test
+    void shouldSearchOwnersByPartOfLastName() {
+        List<Owner> owners = this.clinicService.searchOwners("AVI", 10);
+        assertThat(owners).extracting(Owner::getLastName).containsExactly("Davis", "Davis", "McTavish");
+
+        owners = this.clinicService.searchOwners("es", 1);
+        assertThat(owners).extracting(Owner::getLastName).containsExactly("Escobito");
+    }
+
+    @Test
+    @Transactional
+    void shouldSearchRenamedOwnerWithinTransaction() {
+        Owner owner = this.clinicService.findOwnerById(1);
+        owner.setLastName("Franklinson");
+        this.clinicService.saveOwner(owner);
+
+        assertThat(this.clinicService.searchOwners("linson", 10)).extracting(Owner::getId).containsExactly(1);
+        assertThat(this.clinicService.findOwnerByLastName("Franklinson")).hasSize(1);
+    }
+
+    @Test
+    void shouldLoadOwnerPageWithFixedNumberOfStatements() {
+        StatementCounter smallPage = StatementCounter.start();
+        try {
+            this.clinicService.findOwners(null, PageRequest.of(0, 2, Sort.by("id")));
+        } finally {
+            smallPage.stop();
+        }
+
+        StatementCounter largePage = StatementCounter.start();
+        int largePageStatements;
+        try {
+            Page<Owner> page = this.clinicService.findOwners(null, PageRequest.of(0, 8, Sort.by("id")));
+            largePageStatements = largePage.getCount();
+            List<Pet> pets = page.getContent().stream().flatMap(owner -> owner.getPets().stream()).toList();
+            assertThat(pets).allSatisfy(pet -> assertThat(pet.getType().getName()).isNotNull());
+            assertThat(pets.stream().mapToInt(pet -> pet.getVisits().size()).sum()).isPositive();
+        } finally {
+            largePage.stop();
+        }
+
+        // page, count, then the pets, visits and pet types of the page: as many statements whatever the page size
+        assertThat(smallPage.getCount()).isBetween(1, 4);
+        assertThat(largePageStatements).isEqualTo(smallPage.getCount());
+        assertThat(largePage.getCount()).isEqualTo(largePageStatements);
+    }
+
+    @Test
+    @ExpectStatements(max = 3)
     void shouldFindSingleOwnerWithPet() {
         Owner owner = this.clinicService.findOwnerById(1);
         assertThat(owner.getLastName()).startsWith("Franklin");
@@ -112,6 +194,24 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @Transactional
+    void shouldChangeOwnerVersionWhenVisitIsAdded() {
+        String version = this.clinicService.findOwnerVersion(6);
+        assertThat(this.clinicService.findOwnerVersion(6)).isEqualTo(version);
+
+        Pet pet7 = this.clinicService.findPetById(7);
+        Visit visit = new Visit();
+        pet7.addVisit(visit);
+        visit.setDescription("version");
+        this.clinicService.saveVisit(visit);
+
+        assertThat(this.clinicService.findOwnerVersion(6)).isNotEqualTo(version);
+        assertThat(this.clinicService.findOwnerVersion(6)).isNotEqualTo(this.clinicService.findOwnerVersion(7));
+        assertThat(this.clinicService.findOwnerVersion(9999)).isNull();
+    }
+
+    @Test
+    @ExpectStatements(max = 1)
     void shouldFindPetWithCorrectId() {
         Pet pet7 = this.clinicService.findPetById(7);
         assertThat(pet7.getName()).startsWith("Samantha");
@@ -167,6 +267,7 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 1)
     void shouldFindVets() {
         Collection<Vet> vets = this.clinicService.findVets();
 
@@ -177,6 +278,13 @@ abstract class AbstractClinicServiceTests {
         assertThat(vet.getSpecialties().get(1).getName()).isEqualTo("surgery");
     }
 
+    @Test
+    void shouldCacheReferenceData() {
+        assertThat(this.clinicService.findVets()).isSameAs(this.clinicService.findVets());
+        assertThat(this.clinicService.findPetTypes()).isSameAs(this.clinicService.findPetTypes());
+        assertThat(this.clinicService.findAllSpecialties()).isSameAs(this.clinicService.findAllSpecialties());
+    }
+
     @Test
     @Transactional
     void shouldAddNewVisitForPet() {
@@ -193,6 +301,31 @@ abstract class AbstractClinicServiceTests {
         assertThat(visit.getId()).isNotNull();
     }
 
+    @Test
+    @Transactional
+    void shouldAddNewVisitsInBatch() {
+        Pet pet = new Pet();
+        pet.setId(8);
+        List<Visit> visits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Visit visit = new Visit();
+            visit.setPet(pet);
+            visit.setDescription("batch " + i);
+            visits.add(visit);
+        }
+        this.clinicService.saveVisits(visits);
+
+        assertThat(visits).extracting(Visit::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(this.clinicService.findVisitsByPetId(8)).hasSize(5);
+    }
+
+    @Test
+    @ExpectStatements(max = 1)
+    void shouldFindExistingPetIds() {
+        assertThat(this.clinicService.findExistingPetIds(List.of(7, 8, 99, 7)))
+            .containsExactlyInAnyOrder(7, 8);
+    }
+
     @Test
        void shouldFindVisitsByPetId() throws Exception {
         Collection<Visit> visits = this.clinicService.findVisitsByPetId(7);
@@ -204,6 +337,7 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 3)
     void shouldFindAllPets(){
         Collection<Pet> pets = this.clinicService.findAllPets();
         Pet pet1 = EntityUtils.getById(pets, Pet.class, 1);
@@ -287,6 +421,101 @@ abstract class AbstractClinicServiceTests {
         assertThat(visit).isNull();
     }
 
+    @Test
+    void shouldFindVisitStatsOfPetAndOwner() {
+        VisitStats pet7 = this.clinicService.findVisitStatsByPetId(7);
+        assertThat(pet7.getVisitCount()).isEqualTo(2);
+        assertThat(pet7.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+        assertThat(pet7.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+        assertThat(pet7.getRecentVisitCount()).isZero();
+
+        VisitStats owner6 = this.clinicService.findVisitStatsByOwnerId(6);
+        assertThat(owner6.getVisitCount()).isEqualTo(4);
+        assertThat(owner6.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+        assertThat(owner6.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+
+        VisitStats pet1 = this.clinicService.findVisitStatsByPetId(1);
+        assertThat(pet1.getVisitCount()).isZero();
+        assertThat(pet1.getLastVisitDate()).isNull();
+        assertThat(this.clinicService.findVisitStatsByPetId(999)).isNull();
+        assertThat(this.clinicService.findVisitStatsByOwnerId(999)).isNull();
+    }
+
+    @Test
+    @Transactional
+    void shouldUpdateVisitStatsWithVisitChanges() {
+        Pet pet = new Pet();
+        pet.setId(7);
+        Visit visit = new Visit();
+        visit.setPet(pet);
+        visit.setDescription("checkup");
+        this.clinicService.saveVisit(visit);
+        VisitStats stats = this.clinicService.findVisitStatsByPetId(7);
+        assertThat(stats.getVisitCount()).isEqualTo(3);
+        assertThat(stats.getLastVisitDate()).isEqualTo(LocalDate.now());
+        assertThat(stats.getRecentVisitCount()).isEqualTo(1);
+
+        Visit first = this.clinicService.findVisitById(1);
+        first.setDate(LocalDate.of(2013, 2, 1));
+        this.clinicService.saveVisit(first);
+        assertThat(this.clinicService.findVisitStatsByPetId(7).getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 4));
+
+        this.clinicService.deleteVisit(this.clinicService.findVisitById(4));
+        stats = this.clinicService.findVisitStatsByPetId(7);
+        assertThat(stats.getVisitCount()).isEqualTo(2);
+        assertThat(stats.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 2, 1));
+        assertThat(this.clinicService.findVisitStatsByOwnerId(6).getVisitCount()).isEqualTo(4);
+    }
+
+    @Test
+    @Transactional
+    void shouldCountFirstVisitOfNewPetWithAnUpdate() {
+        Pet pet = new Pet();
+        pet.setName("bowser");
+        pet.setType(EntityUtils.getById(this.clinicService.findPetTypes(), PetType.class, 2));
+        pet.setBirthDate(LocalDate.now());
+        this.clinicService.findOwnerById(6).addPet(pet);
+        this.clinicService.savePet(pet);
+        Pet pet7 = this.clinicService.findPetById(7);
+
+        // the stats row of the new pet already exists, so its first visit costs what a visit of pet 7 costs
+        StatementCounter newPet = StatementCounter.start();
+        try {
+            this.clinicService.saveVisit(newVisit(pet));
+        } finally {
+            newPet.stop();
+        }
+        StatementCounter existingPet = StatementCounter.start();
+        try {
+            this.clinicService.saveVisit(newVisit(pet7));
+        } finally {
+            existingPet.stop();
+        }
+
+        assertThat(newPet.getCount()).isEqualTo(existingPet.getCount());
+        VisitStats stats = this.clinicService.findVisitStatsByPetId(pet.getId());
+        assertThat(stats.getVisitCount()).isEqualTo(1);
+        assertThat(stats.getFirstVisitDate()).isEqualTo(LocalDate.now());
+    }
+
+    private static Visit newVisit(Pet pet) {
+        Visit visit = new Visit();
+        visit.setPet(pet);
+        visit.setDescription("checkup");
+        return visit;
+    }
+
+    @Test
+    @Transactional
+    void shouldRebuildVisitStats() {
+        assertThat(this.clinicService.rebuildVisitStats()).isEqualTo(this.clinicService.findAllPets().size());
+
+        VisitStats pet8 = this.clinicService.findVisitStatsByPetId(8);
+        assertThat(pet8.getVisitCount()).isEqualTo(2);
+        assertThat(pet8.getFirstVisitDate()).isEqualTo(LocalDate.of(2013, 1, 2));
+        assertThat(pet8.getLastVisitDate()).isEqualTo(LocalDate.of(2013, 1, 3));
+    }
+
     @Test
     void shouldFindVetDyId(){
     	Vet vet = this.clinicService.findVetById(1);
@@ -323,6 +552,26 @@ abstract class AbstractClinicServiceTests {
         assertThat(vet.getLastName()).isEqualTo(newLastName);
     }
 
+    @Test
+    @Transactional
+    void shouldChangeVetsVersionWhenSpecialtiesChange(){
+        String version = this.clinicService.findVetsVersion();
+        Vet vet = this.clinicService.findVetById(3);
+        vet.clearSpecialties();
+        this.clinicService.saveVet(vet);
+        assertThat(this.clinicService.findVetsVersion()).isNotEqualTo(version);
+    }
+
+    @Test
+    @Transactional
+    void shouldChangePetTypesVersionWhenPetTypeIsRenamed(){
+        String version = this.clinicService.findPetTypesVersion();
+        PetType petType = this.clinicService.findPetTypeById(1);
+        petType.setName(petType.getName() + "X");
+        this.clinicService.savePetType(petType);
+        assertThat(this.clinicService.findPetTypesVersion()).isNotEqualTo(version);
+    }
+
     @Test
     @Transactional
     void shouldDeleteVet(){
@@ -337,6 +586,7 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 3)
     void shouldFindAllOwners(){
         Collection<Owner> owners = this.clinicService.findAllOwners();
         Owner owner1 = EntityUtils.getById(owners, Owner.class, 1);
@@ -346,6 +596,7 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 4)
     void shouldFindOwnersPage(){
         Page<Owner> owners = this.clinicService.findOwners(null, PageRequest.of(0, 3, Sort.by("id")));
         assertThat(owners.getTotalElements()).isEqualTo(10);
@@ -356,6 +607,7 @@ abstract class AbstractClinicServiceTests {
     }
 
     @Test
+    @ExpectStatements(max = 4)
     void shouldFindOwnersPageByLastName(){
         Page<Owner> owners = this.clinicService.findOwners("Davis", PageRequest.of(0, 1, Sort.by("id")));
         assertThat(owners.getTotalElements()).isEqualTo(2);
@@ -365,6 +617,106 @@ abstract class AbstractClinicServiceTests {
             .containsExactly("Betty");
     }
 
+    @Test
+    @ExpectStatements(max = 6)
+    void shouldSeekOwnersPageAfterId(){
+        Slice<Owner> owners = this.clinicService.findOwners(null, 3, 3);
+        assertThat(owners.hasNext()).isTrue();
+        assertThat(owners.getContent())
+            .extracting(Owner::getId)
+            .containsExactly(4, 5, 6);
+        assertThat(owners.getContent().get(2).getPets()).hasSize(2);
+
+        owners = this.clinicService.findOwners(null, 9, 3);
+        assertThat(owners.hasNext()).isFalse();
+        assertThat(owners.getContent()).extracting(Owner::getId).containsExactly(10);
+    }
+
+    @Test
+    @ExpectStatements(max = 3)
+    void shouldFindOwnerSummariesByLastName() {
+        List<OwnerSummary> owners = this.clinicService.findOwnerSummaries("Davis");
+        assertThat(owners).extracting(OwnerSummary::getId).containsExactly(2, 4);
+        assertThat(owners).extracting(OwnerSummary::getCity).containsExactly("Sun Prairie", "Windsor");
+
+        assertThat(this.clinicService.findOwnerSummaries(null)).hasSize(10);
+        assertThat(this.clinicService.findOwnerSummaries("Daviss")).isEmpty();
+    }
+
+    @Test
+    @ExpectStatements(max = 2)
+    void shouldSeekOwnerSummariesAfterId() {
+        Slice<OwnerSummary> owners = this.clinicService.findOwnerSummaries(null, 3, 3);
+        assertThat(owners.hasNext()).isTrue();
+        assertThat(owners.getContent()).extracting(OwnerSummary::getFirstName).containsExactly("Harold", "Peter", "Jean");
+
+        owners = this.clinicService.findOwnerSummaries("Davis", 2, 3);
+        assertThat(owners.hasNext()).isFalse();
+        assertThat(owners.getContent()).extracting(OwnerSummary::getId).containsExactly(4);
+    }
+
+    @Test
+    @ExpectStatements(max = 1)
+    void shouldFindPetSummaries() {
+        List<PetSummary> pets = this.clinicService.findPetSummaries();
+        assertThat(pets).hasSize(13);
+        PetSummary pet = pets.get(6);
+        assertThat(pet.getName()).isEqualTo("Samantha");
+        assertThat(pet.getBirthDate()).isEqualTo(LocalDate.of(2012, 9, 4));
+        assertThat(pet.getOwnerId()).isEqualTo(6);
+    }
+
+    @Test
+    @ExpectStatements(max = 1)
+    void shouldLoadOwnerSummariesWithOneStatement() {
+        assertThat(this.clinicService.findOwnerSummaries(null)).hasSize(10);
+    }
+
+    @Test
+    @ExpectStatements(max = 1)
+    void shouldLoadPetSummariesWithOneStatement() {
+        assertThat(this.clinicService.findPetSummaries()).hasSize(13);
+    }
+
+    @Test
+    @ExpectStatements(max = 3)
+    void shouldSeekOwnersPageByLastNameAfterId(){
+        Slice<Owner> owners = this.clinicService.findOwners("Davis", 2, 5);
+        assertThat(owners.hasNext()).isFalse();
+        assertThat(owners.getContent())
+            .extracting(Owner::getFirstName)
+            .containsExactly("Harold");
+    }
+
+    @Test
+    @ExpectStatements(max = 3)
+    void shouldSeekPetsPageAfterId(){
+        Slice<Pet> pets = this.clinicService.findPets(6, 2);
+        assertThat(pets.hasNext()).isTrue();
+        assertThat(pets.getContent()).extracting(Pet::getId).containsExactly(7, 8);
+        assertThat(pets.getContent().get(0).getOwner().getFirstName()).isEqualTo("Jean");
+        assertThat(pets.getContent().get(0).getType()).isNotNull();
+    }
+
+    @Test
+    @ExpectStatements(max = 4)
+    void shouldVisitEveryOwnerWithPetsAndVisits(){
+        List<Integer> ownerIds = new ArrayList<>();
+        List<String> jeansVisits = new ArrayList<>();
+        this.clinicService.forEachOwner(owner -> {
+            ownerIds.add(owner.getId());
+            if (owner.getId() == 6) {
+                assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Max", "Samantha");
+                owner.getPets().forEach(pet -> {
+                    assertThat(pet.getType()).isNotNull();
+                    pet.getVisits().forEach(visit -> jeansVisits.add(visit.getDescription()));
+                });
+            }
+        });
+        assertThat(ownerIds).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(jeansVisits).containsExactlyInAnyOrder("rabies shot", "neutered", "rabies shot", "spayed");
+    }
+
     @Test
     @Transactional
     void shouldDeleteOwner(){
@@ -378,6 +730,31 @@ abstract class AbstractClinicServiceTests {
         assertThat(owner).isNull();
     }
 
+    @Test
+    @Transactional
+    void shouldDeleteOwnerWithFixedNumberOfStatements(){
+        // George Franklin has one pet without visits, Jean Coleman two pets with four visits
+        Owner owner = this.clinicService.findOwnerById(1);
+        StatementCounter onePet = StatementCounter.start();
+        try {
+            this.clinicService.deleteOwner(owner);
+        } finally {
+            onePet.stop();
+        }
+
+        owner = this.clinicService.findOwnerById(6);
+        StatementCounter twoPets = StatementCounter.start();
+        try {
+            this.clinicService.deleteOwner(owner);
+        } finally {
+            twoPets.stop();
+        }
+
+        assertThat(onePet.getCount()).isBetween(1, 3);
+        assertThat(twoPets.getCount()).isEqualTo(onePet.getCount());
+        assertThat(this.clinicService.findAllVisits()).extracting(visit -> visit.getPet().getId()).doesNotContain(7, 8);
+    }
+
     @Test
     void shouldFindPetTypeById(){
     	PetType petType = this.clinicService.findPetTypeById(1);
@@ -0,0 +1,16 @@
+package org.springframework.samples.petclinic.service.clinicService;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * <p> Integration test using the 'Spring Data JDBC' profile.
+ *
+ * @see AbstractClinicServiceTests AbstractClinicServiceTests for more details. </p>
+ */
+
+@SpringBootTest
+@ActiveProfiles({"spring-data-jdbc", "hsqldb"})
+class ClinicServiceSpringDataJdbcTests extends AbstractClinicServiceTests {
+
+}
@@ -0,0 +1,10 @@
+package org.springframework.samples.petclinic.service.userService;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles({"spring-data-jdbc", "hsqldb"})
+class UserServiceSpringDataJdbcTests extends AbstractUserServiceTests {
+
+}
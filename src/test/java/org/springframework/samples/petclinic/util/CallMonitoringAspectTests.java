@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.lang.reflect.Method;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.repository.OwnerRepository;
+import org.springframework.samples.petclinic.repository.VetRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for {@link CallMonitoringAspect} and {@link LatencyHistogram}
+ */
+class CallMonitoringAspectTests {
+
+    @Test
+    void shouldKeepHistogramPrecisionWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getValueAtPercentile(50.0)).isCloseTo(50_000_000L, within(1_500_000L));
+        assertThat(histogram.getValueAtPercentile(99.0)).isCloseTo(99_000_000L, within(3_000_000L));
+        assertThat(histogram.getValueAtPercentile(99.9)).isCloseTo(99_900_000L, within(3_000_000L));
+        assertThat(histogram.getValueAtPercentile(100.0)).isGreaterThanOrEqualTo(100_000_000L);
+    }
+
+    @Test
+    void shouldMapEveryValueToBucketContainingIt() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 127, 128, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestEquivalentValue(index - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    void shouldRecordCallsPerMethodAndPublishMeters() throws Throwable {
+        CallMonitoringAspect callMonitor = new CallMonitoringAspect();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        callMonitor.bindTo(registry);
+
+        callMonitor.invoke(ownerFindById());
+        callMonitor.invoke(ownerFindById());
+        callMonitor.invoke(joinPoint(VetRepository.class.getMethod("findAll"), "VetRepository.findAll()"));
+
+        assertThat(callMonitor.getCallCount()).isEqualTo(3);
+        assertThat(callMonitor.getMonitoredMethods())
+            .containsExactly("OwnerRepository.findById(..)", "VetRepository.findAll()");
+        assertThat(callMonitor.getLatencySummary()).hasSize(2);
+        FunctionTimer timer = registry.get(CallMonitoringAspect.METER_NAME)
+            .tag("method", "OwnerRepository.findById(..)").functionTimer();
+        assertThat(timer.count()).isEqualTo(2.0);
+        assertThat(registry.get(CallMonitoringAspect.METER_NAME + ".percentile").tag("phi", "0.99").gauges())
+            .hasSize(2);
+
+        callMonitor.reset();
+        assertThat(callMonitor.getCallCount()).isZero();
+    }
+
+    @Test
+    void shouldFormatMethodNameOnlyOnFirstCall() throws Throwable {
+        CallMonitoringAspect callMonitor = new CallMonitoringAspect();
+        ProceedingJoinPoint joinPoint = ownerFindById();
+
+        for (int i = 0; i < 3; i++) {
+            callMonitor.invoke(joinPoint);
+        }
+
+        verify(joinPoint, times(1)).toShortString();
+        assertThat(callMonitor.getCallCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotRecordWhenDisabled() throws Throwable {
+        CallMonitoringAspect callMonitor = new CallMonitoringAspect();
+        callMonitor.setEnabled(false);
+
+        assertThat(callMonitor.invoke(ownerFindById())).isEqualTo("result");
+        assertThat(callMonitor.getCallCount()).isZero();
+        assertThat(callMonitor.getMonitoredMethods()).isEmpty();
+    }
+
+    private static ProceedingJoinPoint ownerFindById() throws Throwable {
+        return joinPoint(OwnerRepository.class.getMethod("findById", int.class), "OwnerRepository.findById(..)");
+    }
+
+    private static ProceedingJoinPoint joinPoint(Method method, String name) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        given(signature.getMethod()).willReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        given(joinPoint.getSignature()).willReturn(signature);
+        given(joinPoint.toShortString()).willReturn(name);
+        given(joinPoint.proceed()).willReturn("result");
+        return joinPoint;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.samples.petclinic.model.PetType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link EntityIndex}
+ */
+class EntityIndexTests {
+
+    @Test
+    void shouldFindEveryIndexedEntity() {
+        List<PetType> petTypes = new ArrayList<>();
+        for (int id = -50; id < 5000; id += 3) {
+            petTypes.add(petType(id));
+        }
+        EntityIndex<PetType> index = EntityIndex.of(petTypes, PetType.class);
+
+        assertThat(index.size()).isEqualTo(petTypes.size());
+        for (PetType petType : petTypes) {
+            assertThat(index.getById(petType.getId())).isSameAs(petType);
+        }
+        assertThat(index.get(-49)).isNull();
+    }
+
+    @Test
+    void shouldGrowWhenEntitiesAreAdded() {
+        EntityIndex<PetType> index = new EntityIndex<>(PetType.class);
+        for (int id = 0; id < 1000; id++) {
+            index.add(petType(id * 16));
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.getById(999 * 16).getId()).isEqualTo(999 * 16);
+    }
+
+    @Test
+    void shouldReplaceEntityWithSameId() {
+        EntityIndex<PetType> index = new EntityIndex<>(PetType.class);
+        PetType replacement = petType(1);
+        index.add(petType(1));
+        index.add(replacement);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.getById(1)).isSameAs(replacement);
+    }
+
+    @Test
+    void shouldThrowObjectRetrievalFailureExceptionOnMiss() {
+        EntityIndex<PetType> index = EntityIndex.of(List.of(petType(1)), PetType.class);
+
+        assertThatThrownBy(() -> index.getById(2))
+            .isInstanceOf(ObjectRetrievalFailureException.class);
+    }
+
+    @Test
+    void shouldRejectNewEntities() {
+        EntityIndex<PetType> index = new EntityIndex<>(PetType.class);
+
+        assertThatThrownBy(() -> index.add(new PetType()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static PetType petType(int id) {
+        PetType petType = new PetType();
+        petType.setId(id);
+        petType.setName("type" + id);
+        return petType;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Statement budget of a test: the test fails when its method executes more than {@link #max()} SQL statements, counted
+ * by the {@link StatementCounter} of the test thread; set-up and tear-down methods are not counted. On a test class it
+ * applies to every test method without a budget of its own.
+ * <p>
+ * The application context of the test must be started with <code>petclinic.sql-monitoring.enabled=true</code>, which
+ * the test <code>application.properties</code> sets.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(StatementBudgetExtension.class)
+public @interface ExpectStatements {
+
+    /**
+     * The maximum number of statements; a JDBC batch counts as one.
+     */
+    int max();
+
+}
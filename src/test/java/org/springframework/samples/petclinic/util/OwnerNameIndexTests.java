@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link OwnerNameIndex}
+ */
+class OwnerNameIndexTests {
+
+    private OwnerNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        this.index = new OwnerNameIndex();
+        String[] lastNames = {"Franklin", "Davis", "Rodriquez", "Davis", "McTavish", "Coleman", "Black", "Escobito",
+            "Schroeder", "Estaban"};
+        for (int i = 0; i < lastNames.length; i++) {
+            this.index.load(i + 1, lastNames[i]);
+        }
+        this.index.markLoaded();
+    }
+
+    @Test
+    void shouldFindByPrefixIgnoringCase() {
+        assertThat(this.index.findByPrefix("Davis")).containsExactly(2, 4);
+        assertThat(this.index.findByPrefix("da")).containsExactly(2, 4);
+        assertThat(this.index.findByPrefix("ES")).containsExactly(8, 10);
+        assertThat(this.index.findByPrefix("Daviss")).isEmpty();
+        assertThat(this.index.findByPrefix("")).hasSize(10);
+    }
+
+    @Test
+    void shouldPageThroughPrefixMatchesOfSeveralNames() {
+        this.index.put(3, "Dale");
+        this.index.put(11, "Dawson");
+        this.index.put(12, "Davis");
+
+        assertThat(this.index.findByPrefix("da")).containsExactly(2, 3, 4, 11, 12);
+        assertThat(this.index.findByPrefix("")).startsWith(1, 2, 3, 4, 5).hasSize(12);
+        assertThat(this.index.findByPrefix("da", 1, 3)).containsExactly(3, 4, 11);
+        assertThat(this.index.findByPrefix("da", 5, 3)).isEmpty();
+        assertThat(this.index.findByPrefixAfter("da", 3, 2)).containsExactly(4, 11);
+        assertThat(this.index.findByPrefixAfter("DA", 11, 10)).containsExactly(12);
+        assertThat(this.index.findByPrefixAfter("da", 12, 10)).isEmpty();
+        assertThat(this.index.countByPrefix("Da")).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRankExactThenPrefixThenInfixMatches() {
+        this.index.put(11, "Blackwood");
+        this.index.put(12, "Oblack");
+        this.index.put(13, "Black");
+
+        assertThat(this.index.search("black", 10)).containsExactly(7, 13, 11, 12);
+        assertThat(this.index.search("BLACK", 2)).containsExactly(7, 13);
+        assertThat(this.index.search("lack", 10)).containsExactly(7, 13, 11, 12);
+    }
+
+    @Test
+    void shouldOnlyMatchShortTextsAtTheStartOfNames() {
+        assertThat(this.index.search("av", 10)).isEmpty();
+        assertThat(this.index.search("da", 10)).containsExactly(2, 4);
+        assertThat(this.index.search("avi", 10)).containsExactly(2, 4, 5);
+        assertThat(this.index.search("", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldFollowRenamesAndRemovals() {
+        this.index.put(2, "Smith");
+        this.index.remove(7);
+
+        assertThat(this.index.findByPrefix("Davis")).containsExactly(4);
+        assertThat(this.index.findByPrefix("smith")).containsExactly(2);
+        assertThat(this.index.search("black", 10)).isEmpty();
+        assertThat(this.index.nameOf(2)).isEqualTo("smith");
+        assertThat(this.index.nameOf(7)).isNull();
+        assertThat(this.index.size()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldNotLoadOwnersChangedDuringTheLoad() {
+        this.index.remove(7);
+        this.index.put(11, "Newman");
+
+        this.index.load(7, "Black");
+        this.index.load(11, "Oldman");
+
+        assertThat(this.index.findByPrefix("Black")).isEmpty();
+        assertThat(this.index.findByPrefix("Newman")).containsExactly(11);
+        assertThat(this.index.findByPrefix("Oldman")).isEmpty();
+    }
+
+    @Test
+    void shouldLoadForgottenOwnersAgain() {
+        this.index.put(11, "Newman");
+        this.index.forget(11);
+        assertThat(this.index.findByPrefix("Newman")).isEmpty();
+
+        this.index.load(11, "Newman");
+        assertThat(this.index.findByPrefix("Newman")).containsExactly(11);
+    }
+
+}
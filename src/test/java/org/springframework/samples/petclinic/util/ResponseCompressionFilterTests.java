@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link ResponseCompressionFilter} and {@link GzipCompressor}
+ */
+class ResponseCompressionFilterTests {
+
+    private static final String LARGE_BODY = "[" + "{\"id\":1,\"firstName\":\"George\",\"lastName\":\"Franklin\"},".repeat(200) + "{}]";
+
+    private ResponseCompressionFilter filter;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void initFilter() {
+        this.filter = new ResponseCompressionFilter(1024, -1, 2);
+        this.registry = new SimpleMeterRegistry();
+        this.filter.bindTo(this.registry);
+    }
+
+    @Test
+    void shouldCompressLargeJsonResponse() throws Exception {
+        MockHttpServletResponse response = perform("gzip, deflate, br", MediaType.APPLICATION_JSON_VALUE, LARGE_BODY, null);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        byte[] compressed = response.getContentAsByteArray();
+        assertThat(compressed.length).isLessThan(LARGE_BODY.length() / 10);
+        assertThat(gunzip(compressed)).isEqualTo(LARGE_BODY);
+
+        String uri = "/api/owners";
+        double bytesIn = this.registry.get(ResponseCompressionFilter.METER_NAME + ".bytes.in").tag("uri", uri)
+            .functionCounter().count();
+        double bytesSaved = this.registry.get(ResponseCompressionFilter.METER_NAME + ".bytes.saved").tag("uri", uri)
+            .functionCounter().count();
+        assertThat(bytesIn).isEqualTo(LARGE_BODY.length());
+        assertThat(bytesSaved).isEqualTo(LARGE_BODY.length() - compressed.length);
+        assertThat(this.registry.get(ResponseCompressionFilter.METER_NAME + ".deflate").tag("uri", uri)
+            .functionTimer().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldReuseCompressorAcrossResponses() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = perform("gzip", MediaType.APPLICATION_JSON_VALUE, LARGE_BODY, null);
+            assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    @Test
+    void shouldReleaseCompressorWhenHandlerFailsAfterCompressionStarted() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                res.getOutputStream().write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+                throw new IllegalStateException("serialization failed");
+            }
+        };
+
+        assertThatThrownBy(() -> this.filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(this.filter.getPooledCompressors()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSendSmallResponseUncompressedWithContentLength() throws Exception {
+        MockHttpServletResponse response = perform("gzip", MediaType.APPLICATION_JSON_VALUE, "[{\"id\":1}]", null);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentLength()).isEqualTo(10);
+        assertThat(response.getContentAsString()).isEqualTo("[{\"id\":1}]");
+    }
+
+    @Test
+    void shouldNotCompressWhenClientDoesNotAcceptGzip() throws Exception {
+        MockHttpServletResponse response = perform("gzip;q=0, *", MediaType.APPLICATION_JSON_VALUE, LARGE_BODY, null);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void shouldNotCompressBinaryContent() throws Exception {
+        MockHttpServletResponse response = perform("gzip", MediaType.IMAGE_PNG_VALUE, LARGE_BODY, null);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void shouldWeakenStrongETagOfCompressedResponse() throws Exception {
+        MockHttpServletResponse response = perform("gzip", MediaType.APPLICATION_JSON_VALUE, LARGE_BODY, "\"v1\"");
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"v1\"");
+    }
+
+    @Test
+    void shouldWriteNonBlockingResponseUncompressed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<WriteListener> listeners = new ArrayList<>();
+        HttpServletResponse container = new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        listeners.add(writeListener);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        response.getOutputStream().write(b);
+                    }
+                };
+            }
+        };
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                ServletOutputStream out = res.getOutputStream();
+                out.setWriteListener(new WriteListener() {
+                    @Override
+                    public void onWritePossible() throws IOException {
+                        out.write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    @Override
+                    public void onError(Throwable ex) {
+                    }
+                });
+            }
+        };
+        this.filter.doFilter(request, container, new MockFilterChain(servlet));
+        assertThat(listeners).hasSize(1);
+        listeners.get(0).onWritePossible();
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void shouldNegotiateGzipFromAcceptEncoding() {
+        assertThat(ResponseCompressionFilter.acceptsGzip("gzip")).isTrue();
+        assertThat(ResponseCompressionFilter.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(ResponseCompressionFilter.acceptsGzip("*")).isTrue();
+        assertThat(ResponseCompressionFilter.acceptsGzip("identity")).isFalse();
+        assertThat(ResponseCompressionFilter.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(ResponseCompressionFilter.acceptsGzip(null)).isFalse();
+    }
+
+    private MockHttpServletResponse perform(String acceptEncoding, String contentType, String body, String etag)
+        throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/owners");
+                res.setContentType(contentType);
+                if (etag != null) {
+                    res.setHeader(HttpHeaders.ETAG, etag);
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                // written in several chunks, like a streaming serializer would
+                for (int off = 0; off < bytes.length; off += 500) {
+                    res.getOutputStream().write(bytes, off, Math.min(500, bytes.length - off));
+                }
+                res.getOutputStream().flush();
+            }
+        };
+        this.filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enforces the {@link ExpectStatements} budget of a test method, counting its statements with a
+ * {@link StatementCounter} started right before the method and stopped right after it.
+ */
+class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) throws SQLException {
+        DataSource dataSource = SpringExtension.getApplicationContext(context).getBean(DataSource.class);
+        assertThat(dataSource.isWrapperFor(StatementCountingDataSource.class))
+            .as("statement budgets need petclinic.sql-monitoring.enabled=true")
+            .isTrue();
+        context.getStore(NAMESPACE).put(context.getUniqueId(), StatementCounter.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementCounter counter = context.getStore(NAMESPACE).remove(context.getUniqueId(), StatementCounter.class);
+        if (counter == null) {
+            return;
+        }
+        counter.stop();
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        int max = budgetOf(context);
+        assertThat(counter.getCount())
+            .as(() -> "SQL statements of " + context.getDisplayName() + ", per shape:" + describe(counter.getShapes()))
+            .isLessThanOrEqualTo(max);
+    }
+
+    private static int budgetOf(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), ExpectStatements.class)
+            .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), ExpectStatements.class))
+            .map(ExpectStatements::max)
+            .orElseThrow();
+    }
+
+    private static String describe(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+            .map(shape -> "\n  " + shape.getValue() + " x " + shape.getKey())
+            .collect(Collectors.joining());
+    }
+
+}
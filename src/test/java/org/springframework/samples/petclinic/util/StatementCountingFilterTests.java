@@ -0,0 +1,191 @@
+/*
+ * Copyright 2002-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Test class for {@link StatementCountingFilter}, {@link StatementCountingDataSource} and {@link StatementCounter}
+ */
+class StatementCountingFilterTests {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void initDatabase() {
+        this.database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+        this.jdbcTemplate = new JdbcTemplate(new StatementCountingDataSource(this.database));
+        this.jdbcTemplate.execute("CREATE TABLE owners (id INTEGER PRIMARY KEY, last_name VARCHAR(30))");
+        this.jdbcTemplate.batchUpdate("INSERT INTO owners VALUES (?, ?)",
+            List.of(new Object[]{1, "Franklin"}, new Object[]{2, "Davis"}, new Object[]{3, "Davis"}));
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        assertThat(StatementCounter.current()).isNull();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldCountStatementsPerShape() {
+        StatementCounter counter = StatementCounter.start();
+        try {
+            for (int id = 1; id <= 3; id++) {
+                this.jdbcTemplate.queryForObject("SELECT last_name FROM owners WHERE id = ?", String.class, id);
+            }
+            this.jdbcTemplate.queryForList("SELECT last_name FROM owners WHERE last_name = 'Davis'");
+            this.jdbcTemplate.batchUpdate("UPDATE owners SET last_name = ? WHERE id = ?",
+                List.of(new Object[]{"Davis", 1}, new Object[]{"Franklin", 2}));
+        } finally {
+            counter.stop();
+        }
+
+        assertThat(counter.getCount()).isEqualTo(5);
+        assertThat(counter.getTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(counter.getShapes()).containsExactly(
+            entry("SELECT last_name FROM owners WHERE id = ?", 3),
+            entry("SELECT last_name FROM owners WHERE last_name = ?", 1),
+            entry("UPDATE owners SET last_name = ? WHERE id = ?", 1));
+        assertThat(counter.getRepeatedShapes(2)).containsOnlyKeys("SELECT last_name FROM owners WHERE id = ?");
+        assertThat(counter.getRepeatedShapes(3)).isEmpty();
+    }
+
+    @Test
+    void shouldRecordStatementsWithEnclosingCounters() {
+        StatementCounter outer = StatementCounter.start();
+        this.jdbcTemplate.queryForList("SELECT id FROM owners");
+        StatementCounter inner = StatementCounter.start();
+        this.jdbcTemplate.queryForList("SELECT id FROM owners WHERE id IN (1, 2)");
+        inner.stop();
+        assertThat(StatementCounter.current()).isSameAs(outer);
+        this.jdbcTemplate.queryForList("SELECT id FROM owners WHERE id IN (3)");
+        outer.stop();
+
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(outer.getCount()).isEqualTo(3);
+        assertThat(outer.getShapes()).containsEntry("SELECT id FROM owners WHERE id IN (?)", 2);
+    }
+
+    @Test
+    void shouldForgetStatementsCountedBeforeRestart() {
+        StatementCounter outer = StatementCounter.start();
+        StatementCounter inner = StatementCounter.start();
+        this.jdbcTemplate.queryForList("SELECT id FROM owners");
+        inner.restart();
+        this.jdbcTemplate.queryForList("SELECT last_name FROM owners");
+        inner.stop();
+        outer.stop();
+
+        assertThat(inner.getCount()).isEqualTo(1);
+        assertThat(inner.getShapes()).containsOnlyKeys("SELECT last_name FROM owners");
+        assertThat(outer.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPassStatementsThroughWithoutCounter() {
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners", Integer.class)).isEqualTo(3);
+
+        StatementCounter counter = StatementCounter.start();
+        counter.stop();
+        this.jdbcTemplate.queryForList("SELECT id FROM owners");
+        assertThat(counter.getCount()).isZero();
+    }
+
+    @Test
+    void shouldReduceStatementsToTheirShape() {
+        assertThat(StatementCounter.shapeOf("SELECT * FROM owners\n  WHERE last_name LIKE 'O''Brien%' AND id > 10"))
+            .isEqualTo("SELECT * FROM owners WHERE last_name LIKE ? AND id > ?");
+        assertThat(StatementCounter.shapeOf("select p1_0.id from pets p1_0 where p1_0.owner_id in (?, ?,?)"))
+            .isEqualTo("select p1_0.id from pets p1_0 where p1_0.owner_id IN (?)");
+        assertThat(StatementCounter.shapeOf("SELECT * FROM visits WHERE pet_id IN (7,8) LIMIT 2.5"))
+            .isEqualTo("SELECT * FROM visits WHERE pet_id IN (?) LIMIT ?");
+    }
+
+    @Test
+    void shouldSendStatementCountBeforeBody() throws Exception {
+        MockHttpServletResponse response = perform(new StatementCountingFilter(true, 5), 2);
+
+        assertThat(response.getHeader(StatementCountingFilter.COUNT_HEADER)).isEqualTo("2");
+        assertThat(Double.parseDouble(response.getHeader(StatementCountingFilter.TIME_HEADER))).isNotNegative();
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void shouldSendStatementCountOfResponseWithoutBody() throws Exception {
+        MockHttpServletResponse response = perform(new StatementCountingFilter(true, 5), 0);
+
+        assertThat(response.getHeader(StatementCountingFilter.COUNT_HEADER)).isEqualTo("0");
+    }
+
+    @Test
+    void shouldOnlyCountWithoutHeaders() throws Exception {
+        MockHttpServletResponse response = perform(new StatementCountingFilter(false, 0), 3);
+
+        assertThat(response.getHeader(StatementCountingFilter.COUNT_HEADER)).isNull();
+        assertThat(response.getHeader(StatementCountingFilter.TIME_HEADER)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    /**
+     * Runs a request through the filter to a servlet looking up <code>lookups</code> owners one by one, then writing
+     * an empty JSON array unless no owner was looked up.
+     */
+    private MockHttpServletResponse perform(StatementCountingFilter filter, int lookups) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                for (int id = 1; id <= lookups; id++) {
+                    jdbcTemplate.queryForObject("SELECT last_name FROM owners WHERE id = ?", String.class, id);
+                }
+                if (lookups == 0) {
+                    resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                    return;
+                }
+                resp.setContentType("application/json");
+                resp.getWriter().write("[]");
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+}